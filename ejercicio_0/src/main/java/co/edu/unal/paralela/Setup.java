@@ -1,10 +1,10 @@
 package co.edu.unal.paralela;
 
-import static edu.rice.pcdp.PCDP.finish;
-import static edu.rice.pcdp.PCDP.async;
+import static co.edu.unal.paralela.AsyncFinish.finish;
+import static co.edu.unal.paralela.AsyncFinish.async;
 
 /**
- * Una clase simple para evaluar la compilación de un proyecto hecho con PCDP de la universidad de Rice.
+ * Una clase simple para evaluar la compilación de un proyecto hecho con el runtime async/finish del proyecto.
  */
 public final class Setup {
 
@@ -15,7 +15,7 @@ public final class Setup {
     }
 
     /**
-     * Un método simple para evaluar la compilación de un proyecto hecho con PCDP.
+     * Un método simple para evaluar la compilación de un proyecto hecho con AsyncFinish.
      * @param val Valor de entrada
      * @return Valor Dummy
      */
@@ -28,4 +28,20 @@ public final class Setup {
         });
         return resultado[0];
     }
+
+    /**
+     * Igual que setup(val), pero ejecuta la tarea sobre el backend indicado.
+     * @param val Valor de entrada
+     * @param backend Backend de ejecución de las tareas
+     * @return Valor Dummy
+     */
+    public static int setup(final int val, final ExecutionBackend backend) {
+        final int[] resultado = new int[1];
+        finish(backend, () -> {
+            async(() -> {
+                resultado[0] = val;
+            });
+        });
+        return resultado[0];
+    }
 }
@@ -13,4 +13,20 @@ public class SetupTest extends TestCase {
         final int resultado = Setup.setup(42);
         assertEquals(42, resultado);
     }
+
+    /*
+     * El mismo caso de prueba sobre hilos virtuales.
+     */
+    public void testSetupVirtualThreads() {
+        final int resultado = Setup.setup(42, ExecutionBackend.VIRTUAL_THREADS);
+        assertEquals(42, resultado);
+    }
+
+    /*
+     * El mismo caso de prueba con un hilo de plataforma por tarea.
+     */
+    public void testSetupPlatformThreads() {
+        final int resultado = Setup.setup(42, ExecutionBackend.PLATFORM_THREADS);
+        assertEquals(42, resultado);
+    }
 }
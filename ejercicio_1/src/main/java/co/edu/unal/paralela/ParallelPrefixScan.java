@@ -0,0 +1,354 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Sumas acumuladas (prefix-scan inclusivo) en paralelo: output[i] es la
+ * combinación de input[0..i], ya sea la suma de los recíprocos, como en
+ * ReciprocalArraySum, o cualquier operador asociativo sobre doubles.
+ *
+ * El arreglo se divide en numTasks trozos y se recorre dos veces con
+ * ForkJoin. En el barrido de subida (up-sweep) cada trozo calcula su total y
+ * un árbol de tareas combina los totales; en el de bajada (down-sweep) cada
+ * nodo le pasa a su hijo derecho el acumulado de todo lo que está a su
+ * izquierda, y cada trozo escribe su suma acumulada partiendo de ese valor.
+ * Cada elemento se lee dos veces y se escribe una, así que el trabajo total
+ * es O(n), como el de la versión secuencial.
+ *
+ * La salida puede ser el mismo arreglo de entrada. Con sumas de punto
+ * flotante el resultado puede diferir del secuencial en el redondeo, porque
+ * los totales de los trozos se asocian en otro orden.
+ */
+public final class ParallelPrefixScan {
+
+    /**
+     * Constructor.
+     */
+    private ParallelPrefixScan() {
+    }
+
+    /**
+     * Calcula secuencialmente la suma acumulada de los recíprocos.
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     */
+    public static void seqReciprocalScan(final double[] input, final double[] output) {
+        checkLengths(input, output);
+        double sum = 0;
+        for (int i = 0; i < input.length; i++) {
+            sum += 1 / input[i];
+            output[i] = sum;
+        }
+    }
+
+    /**
+     * Calcula secuencialmente la combinación acumulada con op.
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     * @param op Operador asociativo
+     */
+    public static void seqScan(final double[] input, final double[] output, final DoubleBinaryOperator op) {
+        checkLengths(input, output);
+        if (input.length == 0) {
+            return;
+        }
+        double acc = input[0];
+        output[0] = acc;
+        for (int i = 1; i < input.length; i++) {
+            acc = op.applyAsDouble(acc, input[i]);
+            output[i] = acc;
+        }
+    }
+
+    /**
+     * Calcula en paralelo la suma acumulada de los recíprocos:
+     * output[i] = 1/input[0] + ... + 1/input[i].
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     * @param numTasks El número de trozos
+     */
+    public static void parReciprocalScan(final double[] input, final double[] output, final int numTasks) {
+        scan("parReciprocalScan", input, output, null, numTasks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que parReciprocalScan, ejecutando las tareas en el pool del
+     * contexto.
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     * @param numTasks El número de trozos
+     * @param context El contexto de ejecución
+     */
+    public static void parReciprocalScan(final double[] input, final double[] output, final int numTasks,
+            final ExecutionContext context) {
+        scan("parReciprocalScan", input, output, null, numTasks, context.getPool());
+    }
+
+    /**
+     * Calcula en paralelo, y en el mismo arreglo, la suma acumulada de los
+     * recíprocos.
+     *
+     * @param data Arreglo de entrada, que se reemplaza por el resultado
+     * @param numTasks El número de trozos
+     */
+    public static void parReciprocalScan(final double[] data, final int numTasks) {
+        parReciprocalScan(data, data, numTasks);
+    }
+
+    /**
+     * Calcula en paralelo la combinación acumulada con op:
+     * output[i] = op(...op(op(input[0], input[1]), input[2])..., input[i]).
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     * @param op Operador asociativo
+     * @param numTasks El número de trozos
+     */
+    public static void parScan(final double[] input, final double[] output, final DoubleBinaryOperator op,
+            final int numTasks) {
+        scan("parScan", input, output, op, numTasks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que parScan, ejecutando las tareas en el pool del contexto.
+     *
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida, del mismo largo; puede ser input
+     * @param op Operador asociativo
+     * @param numTasks El número de trozos
+     * @param context El contexto de ejecución
+     */
+    public static void parScan(final double[] input, final double[] output, final DoubleBinaryOperator op,
+            final int numTasks, final ExecutionContext context) {
+        scan("parScan", input, output, op, numTasks, context.getPool());
+    }
+
+    /**
+     * Calcula en paralelo, y en el mismo arreglo, la combinación acumulada
+     * con op.
+     *
+     * @param data Arreglo de entrada, que se reemplaza por el resultado
+     * @param op Operador asociativo
+     * @param numTasks El número de trozos
+     */
+    public static void parScan(final double[] data, final DoubleBinaryOperator op, final int numTasks) {
+        parScan(data, data, op, numTasks);
+    }
+
+    /**
+     * Ejecuta los dos barridos en el pool indicado.
+     *
+     * @param kernel Nombre del kernel para los eventos de JFR
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida
+     * @param op Operador asociativo, o null para la suma de recíprocos
+     * @param numTasks El número de trozos
+     * @param pool El pool en que se ejecutan las tareas
+     */
+    static void scan(final String kernel, final double[] input, final double[] output,
+            final DoubleBinaryOperator op, final int numTasks, final ForkJoinPool pool) {
+        checkLengths(input, output);
+        if (numTasks <= 0) {
+            throw new IllegalArgumentException("numTasks = " + numTasks);
+        }
+        if (input.length == 0) {
+            return;
+        }
+        final int chunks = Math.min(numTasks, input.length);
+        final KernelEvent event = KernelEvent.start(kernel, input.length, chunks, pool);
+        final ScanNode root = new ScanNode(kernel, input, output, op, chunks, 0, chunks);
+        pool.invoke(root);
+        pool.invoke(root.downSweep(false, 0));
+        event.finish();
+    }
+
+    /**
+     * @param input Arreglo de entrada
+     * @param output Arreglo de salida
+     */
+    private static void checkLengths(final double[] input, final double[] output) {
+        if (input.length != output.length) {
+            throw new IllegalArgumentException("input.length = " + input.length
+                    + ", output.length = " + output.length);
+        }
+    }
+
+    /**
+     * Nodo del árbol de trozos. Como tarea hace el barrido de subida: calcula
+     * el total de los trozos [chunkLo, chunkHi) y lo guarda para el barrido
+     * de bajada.
+     */
+    private static final class ScanNode extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Nombre del kernel para los eventos de JFR.
+         */
+        private final String kernel;
+        /**
+         * Arreglo de entrada.
+         */
+        private final double[] input;
+        /**
+         * Arreglo de salida.
+         */
+        private final double[] output;
+        /**
+         * Operador asociativo, o null para la suma de recíprocos.
+         */
+        private final DoubleBinaryOperator op;
+        /**
+         * Número total de trozos.
+         */
+        private final int chunks;
+        /**
+         * Primer trozo del nodo (incluido).
+         */
+        private final int chunkLo;
+        /**
+         * Último trozo del nodo (excluido).
+         */
+        private final int chunkHi;
+        /**
+         * Hijo izquierdo; null en las hojas.
+         */
+        private ScanNode left;
+        /**
+         * Hijo derecho; null en las hojas.
+         */
+        private ScanNode right;
+        /**
+         * Total de los trozos del nodo, calculado en el barrido de subida.
+         */
+        private double total;
+
+        /**
+         * Constructor.
+         *
+         * @param kernel Nombre del kernel para los eventos de JFR
+         * @param input Arreglo de entrada
+         * @param output Arreglo de salida
+         * @param op Operador asociativo, o null para la suma de recíprocos
+         * @param chunks Número total de trozos
+         * @param chunkLo Primer trozo del nodo (incluido)
+         * @param chunkHi Último trozo del nodo (excluido)
+         */
+        ScanNode(final String kernel, final double[] input, final double[] output, final DoubleBinaryOperator op,
+                final int chunks, final int chunkLo, final int chunkHi) {
+            this.kernel = kernel;
+            this.input = input;
+            this.output = output;
+            this.op = op;
+            this.chunks = chunks;
+            this.chunkLo = chunkLo;
+            this.chunkHi = chunkHi;
+        }
+
+        /**
+         * @param chunk El trozo
+         * @return El primer índice del trozo (incluido)
+         */
+        private int chunkStart(final int chunk) {
+            return (int) ((long) chunk * input.length / chunks);
+        }
+
+        @Override
+        protected void compute() {
+            if (chunkHi - chunkLo == 1) {
+                total = reduceChunk(chunkStart(chunkLo), chunkStart(chunkHi));
+                return;
+            }
+            final int middle = (chunkLo + chunkHi) >>> 1;
+            left = new ScanNode(kernel, input, output, op, chunks, chunkLo, middle);
+            right = new ScanNode(kernel, input, output, op, chunks, middle, chunkHi);
+            invokeAll(left, right);
+            total = combine(left.total, right.total);
+        }
+
+        /**
+         * @param a El acumulado de la izquierda
+         * @param b El valor de la derecha
+         * @return op(a, b), o a + b para la suma de recíprocos
+         */
+        private double combine(final double a, final double b) {
+            return op == null ? a + b : op.applyAsDouble(a, b);
+        }
+
+        /**
+         * @param lo Primer índice (incluido)
+         * @param hi Último índice (excluido)
+         * @return El total de input[lo..hi)
+         */
+        private double reduceChunk(final int lo, final int hi) {
+            if (op == null) {
+                double sum = 0;
+                for (int i = lo; i < hi; i++) {
+                    sum += 1 / input[i];
+                }
+                return sum;
+            }
+            double acc = input[lo];
+            for (int i = lo + 1; i < hi; i++) {
+                acc = op.applyAsDouble(acc, input[i]);
+            }
+            return acc;
+        }
+
+        /**
+         * Crea la tarea del barrido de bajada de este nodo.
+         *
+         * @param hasCarry false si el nodo empieza en el índice 0
+         * @param carry El acumulado de todo lo que está a la izquierda del nodo
+         * @return La tarea
+         */
+        RecursiveAction downSweep(final boolean hasCarry, final double carry) {
+            return new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    if (left == null) {
+                        final int lo = chunkStart(chunkLo);
+                        final int hi = chunkStart(chunkHi);
+                        final LeafTaskEvent event = LeafTaskEvent.start(kernel, lo, hi - lo);
+                        scanChunk(lo, hi, hasCarry, carry);
+                        event.finish();
+                        return;
+                    }
+                    final double rightCarry = hasCarry ? combine(carry, left.total) : left.total;
+                    invokeAll(left.downSweep(hasCarry, carry), right.downSweep(true, rightCarry));
+                }
+            };
+        }
+
+        /**
+         * Escribe la combinación acumulada de un trozo.
+         *
+         * @param lo Primer índice (incluido)
+         * @param hi Último índice (excluido)
+         * @param hasCarry false si el trozo empieza en el índice 0
+         * @param carry El acumulado de todo lo que está a la izquierda del trozo
+         */
+        private void scanChunk(final int lo, final int hi, final boolean hasCarry, final double carry) {
+            if (op == null) {
+                double sum = carry;
+                for (int i = lo; i < hi; i++) {
+                    sum += 1 / input[i];
+                    output[i] = sum;
+                }
+                return;
+            }
+            double acc = hasCarry ? op.applyAsDouble(carry, input[lo]) : input[lo];
+            output[lo] = acc;
+            for (int i = lo + 1; i < hi; i++) {
+                acc = op.applyAsDouble(acc, input[i]);
+                output[i] = acc;
+            }
+        }
+    }
+}
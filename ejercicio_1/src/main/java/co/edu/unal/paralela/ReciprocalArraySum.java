@@ -21,6 +21,7 @@ public final class ReciprocalArraySum {
      * @return La suma de los recíprocos del arreglo de entrada
      */
     protected static double seqArraySum(final double[] input) {
+        final KernelEvent event = KernelEvent.start("seqArraySum", input.length, 1, null);
         double sum = 0;
 
         // Calcula la suma de los recíprocos de los elementos del arreglo
@@ -28,6 +29,7 @@ public final class ReciprocalArraySum {
             sum += 1 / input[i];
         }
 
+        event.finish();
         return sum;
     }
 
@@ -96,8 +98,10 @@ public final class ReciprocalArraySum {
               int interval = input.length / this.tasks;
               int left = end * interval;
               int right = end + 1 == tasks ? input.length : interval * (end + 1);
+              final LeafTaskEvent event = LeafTaskEvent.start("parManyTaskArraySum", left, right - left);
               for (int i = left; i < right; i++)
                 this.value += 1 / input[i];
+              event.finish();
             }
         }
     }
@@ -127,8 +131,101 @@ public final class ReciprocalArraySum {
      * @return La suma de los recíprocos del arreglo de entrada
      */
     protected static double parManyTaskArraySum(final double[] input, final int numTasks) {
+        return parManyTaskArraySum(input, numTasks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Igual que parArraySum, ejecutando las tareas en el pool del contexto.
+     *
+     * @param input Arreglo de entrada
+     * @param context El contexto de ejecución
+     * @return La suma de los recíprocos del arreglo de entrada
+     */
+    protected static double parArraySum(final double[] input, final ExecutionContext context) {
+        assert input.length % 2 == 0;
+        return parManyTaskArraySum(input, 2, context);
+    }
+
+    /**
+     * Igual que parManyTaskArraySum, ejecutando las tareas en el pool del
+     * contexto en lugar del pool común.
+     *
+     * @param input Arreglo de entrada
+     * @param numTasks El número de tareas para crear
+     * @param context El contexto de ejecución
+     * @return La suma de los recíprocos del arreglo de entrada
+     */
+    protected static double parManyTaskArraySum(final double[] input, final int numTasks,
+            final ExecutionContext context) {
+        return parManyTaskArraySum(input, numTasks, context.getPool());
+    }
+
+    /**
+     * Igual que parManyTaskArraySum, ejecutando las tareas en el pool
+     * indicado en lugar del pool común.
+     *
+     * @param input Arreglo de entrada
+     * @param numTasks El número de tareas para crear
+     * @param pool El pool en que se ejecutan las tareas
+     * @return La suma de los recíprocos del arreglo de entrada
+     */
+    static double parManyTaskArraySum(final double[] input, final int numTasks, final ForkJoinPool pool) {
+        final KernelEvent event = KernelEvent.start("parManyTaskArraySum", input.length, numTasks, pool);
         ReciprocalArraySumTask principal = new ReciprocalArraySumTask(0,  numTasks - 1, input, numTasks);
-        ForkJoinPool.commonPool().invoke(principal);
+        pool.invoke(principal);
+        event.finish();
         return principal.getValue();
     }
+
+    /**
+     * Calcula la suma de recíprocos con parManyTaskArraySum usando el número
+     * de tareas que el Autotuner eligió para esta máquina. La primera llamada
+     * en una máquina sin perfil mide los candidatos, lo que toma unos
+     * segundos.
+     *
+     * @param input Arreglo de entrada
+     * @return La suma de los recíprocos del arreglo de entrada
+     */
+    protected static double parTunedArraySum(final double[] input) {
+        return parManyTaskArraySum(input, tunedTaskCount());
+    }
+
+    /**
+     * Obtiene del perfil de la máquina el número de tareas para
+     * parManyTaskArraySum, midiendo de 1 a 16 tareas por núcleo si aún no se
+     * conoce.
+     *
+     * @return El número de tareas elegido
+     */
+    static int tunedTaskCount() {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int[] candidates = {cores, 2 * cores, 4 * cores, 8 * cores, 16 * cores};
+        return Autotuner.shared().tune("parManyTaskArraySum.tasks", candidates, tasks -> {
+            final long start = System.nanoTime();
+            parManyTaskArraySum(BenchmarkInput.INPUT, tasks);
+            return System.nanoTime() - start;
+        });
+    }
+
+    /**
+     * Entrada de las mediciones del Autotuner, que sólo se crea si se mide.
+     */
+    private static final class BenchmarkInput {
+        /**
+         * Arreglo de cuatro millones de valores entre 1 y 100.
+         */
+        private static final double[] INPUT = new double[4 * 1024 * 1024];
+
+        static {
+            for (int i = 0; i < INPUT.length; i++) {
+                INPUT[i] = i % 100 + 1;
+            }
+        }
+
+        /**
+         * Constructor.
+         */
+        private BenchmarkInput() {
+        }
+    }
 }
@@ -0,0 +1,181 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Suma de recíprocos reutilizable para llamar muchas veces con el mismo
+ * número de tareas, sin reservar memoria en cada llamada.
+ *
+ * parManyTaskArraySum crea dos subtareas nuevas en cada división del árbol,
+ * de modo que cada llamada produce 2 * numTasks - 1 objetos que luego debe
+ * recoger el GC. Aquí el árbol de tareas se construye una sola vez, en el
+ * constructor, con la misma forma y los mismos trozos que usa
+ * parManyTaskArraySum; antes de cada suma las tareas se reinician con
+ * ForkJoinTask.reinitialize. Como el árbol y el orden de las sumas son los
+ * mismos, el resultado es idéntico bit a bit al de parManyTaskArraySum.
+ * Por la misma razón las hojas no emiten LeafTaskEvent: cada evento es un
+ * objeto nuevo por hoja y por llamada. Sólo se emite el KernelEvent de la
+ * suma completa.
+ *
+ * Una instancia no se debe usar desde varios hilos a la vez.
+ */
+public final class ReciprocalSumReducer {
+    /**
+     * Pool en que se ejecutan las tareas.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Número de tareas hoja.
+     */
+    private final int numTasks;
+    /**
+     * Todas las tareas del árbol, para reiniciarlas antes de cada suma.
+     */
+    private final Node[] nodes;
+    /**
+     * Raíz del árbol de tareas.
+     */
+    private final Node root;
+    /**
+     * Arreglo de la suma en curso, que leen las hojas.
+     */
+    private double[] input;
+
+    /**
+     * Constructor, con las tareas en el pool común.
+     *
+     * @param numTasks El número de tareas hoja
+     */
+    public ReciprocalSumReducer(final int numTasks) {
+        this(numTasks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor, con las tareas en el pool del contexto.
+     *
+     * @param numTasks El número de tareas hoja
+     * @param context El contexto de ejecución
+     */
+    public ReciprocalSumReducer(final int numTasks, final ExecutionContext context) {
+        this(numTasks, context.getPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numTasks El número de tareas hoja
+     * @param pool El pool en que se ejecutan las tareas
+     */
+    private ReciprocalSumReducer(final int numTasks, final ForkJoinPool pool) {
+        if (numTasks <= 0) {
+            throw new IllegalArgumentException("numTasks = " + numTasks);
+        }
+        this.pool = pool;
+        this.numTasks = numTasks;
+        this.nodes = new Node[2 * numTasks - 1];
+        this.root = build(0, numTasks - 1, new int[1]);
+    }
+
+    /**
+     * @return El número de tareas hoja
+     */
+    public int getNumTasks() {
+        return numTasks;
+    }
+
+    /**
+     * Calcula la suma de los recíprocos de values con las tareas reservadas.
+     *
+     * @param values Arreglo de entrada
+     * @return La suma de los recíprocos del arreglo de entrada
+     */
+    public double sum(final double[] values) {
+        final KernelEvent event = KernelEvent.start("ReciprocalSumReducer", values.length, numTasks, pool);
+        for (Node node : nodes) {
+            node.reinitialize();
+            node.value = 0.0;
+        }
+        input = values;
+        pool.invoke(root);
+        input = null;
+        event.finish();
+        return root.value;
+    }
+
+    /**
+     * Crea el subárbol de las tareas hoja begin..end, dividiendo por la mitad
+     * igual que ReciprocalArraySumTask.
+     *
+     * @param begin Primera tarea hoja (incluida)
+     * @param end Última tarea hoja (incluida)
+     * @param count Número de nodos creados hasta ahora
+     * @return La raíz del subárbol
+     */
+    private Node build(final int begin, final int end, final int[] count) {
+        final Node node;
+        if (begin < end) {
+            final int middle = (begin + end) / 2;
+            node = new Node(begin, build(begin, middle, count), build(middle + 1, end, count));
+        } else {
+            node = new Node(begin, null, null);
+        }
+        nodes[count[0]++] = node;
+        return node;
+    }
+
+    /**
+     * Tarea del árbol: un nodo interno suma las de sus dos hijos y una hoja
+     * suma los recíprocos de su trozo.
+     */
+    private final class Node extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Índice de la tarea hoja, si el nodo es una hoja.
+         */
+        private final int task;
+        /**
+         * Hijo izquierdo, o null si el nodo es una hoja.
+         */
+        private final Node left;
+        /**
+         * Hijo derecho, o null si el nodo es una hoja.
+         */
+        private final Node right;
+        /**
+         * Suma calculada por esta tarea.
+         */
+        private double value;
+
+        /**
+         * Constructor.
+         *
+         * @param task Índice de la tarea hoja
+         * @param left Hijo izquierdo, o null
+         * @param right Hijo derecho, o null
+         */
+        Node(final int task, final Node left, final Node right) {
+            this.task = task;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected void compute() {
+            if (left != null) {
+                invokeAll(left, right);
+                value = left.value + right.value;
+                return;
+            }
+            final double[] values = input;
+            final int interval = values.length / numTasks;
+            final int begin = task * interval;
+            final int end = task + 1 == numTasks ? values.length : interval * (task + 1);
+            double sum = 0.0;
+            for (int i = begin; i < end; i++) {
+                sum += 1 / values[i];
+            }
+            value = sum;
+        }
+    }
+}
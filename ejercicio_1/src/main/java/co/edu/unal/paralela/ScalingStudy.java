@@ -0,0 +1,95 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Estudio de escalabilidad fuerte y débil de parManyTaskArraySum. Para cada
+ * número de hilos se usa un ForkJoinPool dedicado con ese paralelismo y una
+ * tarea por hilo.
+ *
+ * Uso: ScalingStudy [directorio de salida] [máximo de hilos] [repeticiones].
+ * Por defecto escribe en scaling-report, recorre hasta el número de núcleos
+ * disponibles y toma el mejor de 5 tiempos.
+ */
+public final class ScalingStudy {
+    /**
+     * Nombre del kernel en el reporte.
+     */
+    private static final String KERNEL = "parManyTaskArraySum";
+    /**
+     * Tamaños del arreglo para escalabilidad fuerte.
+     */
+    private static final int[] STRONG_SIZES = {1 << 20, 1 << 23, 1 << 25};
+    /**
+     * Elementos por hilo para escalabilidad débil.
+     */
+    private static final int WEAK_SIZE_PER_THREAD = 1 << 21;
+
+    /**
+     * Constructor.
+     */
+    private ScalingStudy() {
+    }
+
+    /**
+     * Ejecuta el estudio y escribe ejercicio_1-scaling.csv y
+     * ejercicio_1-scaling.md.
+     *
+     * @param args Directorio de salida, máximo de hilos y repeticiones,
+     *        todos opcionales
+     * @throws IOException Si no se puede escribir el reporte
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path out = Paths.get(args.length > 0 ? args[0] : "scaling-report");
+        final int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final int[] threadCounts = ScalingReport.threadCounts(maxThreads);
+        final ScalingReport report = new ScalingReport();
+
+        for (int size : STRONG_SIZES) {
+            final double[] input = createArray(size);
+            for (int threads : threadCounts) {
+                report.add(KERNEL, ScalingReport.STRONG, size, threads, measure(input, threads, repeats));
+            }
+        }
+        for (int threads : threadCounts) {
+            final int size = ScalingReport.weakSize(WEAK_SIZE_PER_THREAD, threads, Double.BYTES);
+            report.add(KERNEL, ScalingReport.WEAK, size, threads, measure(createArray(size), threads, repeats));
+        }
+
+        report.write(out, "ejercicio_1");
+        report.writeMarkdown(System.out);
+    }
+
+    /**
+     * Mide parManyTaskArraySum con threads hilos.
+     *
+     * @param input El arreglo de entrada
+     * @param threads El número de hilos y de tareas
+     * @param repeats El número de ejecuciones medidas
+     * @return El menor tiempo en nanosegundos
+     */
+    private static long measure(final double[] input, final int threads, final int repeats) {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return ScalingReport.measure(repeats, () -> ReciprocalArraySum.parManyTaskArraySum(input, threads, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param n El tamaño del arreglo
+     * @return Un arreglo de n valores entre 1 y 100
+     */
+    private static double[] createArray(final int n) {
+        final double[] input = new double[n];
+        for (int i = 0; i < n; i++) {
+            input[i] = i % 100 + 1;
+        }
+        return input;
+    }
+}
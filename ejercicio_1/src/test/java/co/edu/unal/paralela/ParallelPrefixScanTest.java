@@ -0,0 +1,118 @@
+package co.edu.unal.paralela;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+public class ParallelPrefixScanTest extends TestCase {
+
+    /**
+     * Crea un arreglo sin ceros para las pruebas.
+     */
+    private static double[] createArray(final int n, final long seed) {
+        final double[] input = new double[n];
+        final Random rand = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            input[i] = rand.nextInt(100) + 1;
+        }
+        return input;
+    }
+
+    private static void assertClose(final double[] expected, final double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            final double tolerance = 1e-12 * Math.max(1.0, Math.abs(expected[i]));
+            assertEquals("at index " + i, expected[i], actual[i], tolerance);
+        }
+    }
+
+    /**
+     * Prueba la suma acumulada de recíprocos con la secuencial, para varios largos y números de tareas.
+     */
+    public void testReciprocalScan() {
+        for (int n : new int[] {1, 2, 7, 1000, 1_000_003}) {
+            final double[] input = createArray(n, n);
+            final double[] expected = new double[n];
+            ParallelPrefixScan.seqReciprocalScan(input, expected);
+            for (int tasks : new int[] {1, 2, 3, 16, 100, 2 * n}) {
+                final double[] output = new double[n];
+                ParallelPrefixScan.parReciprocalScan(input, output, tasks);
+                assertClose(expected, output);
+            }
+            assertEquals(ReciprocalArraySum.seqArraySum(input), expected[n - 1], 1e-9 * expected[n - 1]);
+        }
+    }
+
+    /**
+     * Prueba que el recorrido en el mismo arreglo da el mismo resultado.
+     */
+    public void testInPlace() {
+        final double[] input = createArray(500_000, 1);
+        final double[] expected = new double[input.length];
+        ParallelPrefixScan.seqReciprocalScan(input, expected);
+        final double[] data = input.clone();
+        ParallelPrefixScan.parReciprocalScan(data, 13);
+        assertClose(expected, data);
+
+        final double[] max = input.clone();
+        final double[] expectedMax = new double[input.length];
+        ParallelPrefixScan.seqScan(input, expectedMax, Math::max);
+        ParallelPrefixScan.parScan(max, Math::max, 13);
+        assertClose(expectedMax, max);
+    }
+
+    /**
+     * Prueba operadores asociativos generales, incluido uno no conmutativo.
+     */
+    public void testGeneralOperators() {
+        final double[] input = createArray(300_001, 7);
+        for (int tasks : new int[] {1, 4, 37}) {
+            final double[] expected = new double[input.length];
+            final double[] output = new double[input.length];
+
+            ParallelPrefixScan.seqScan(input, expected, Double::sum);
+            ParallelPrefixScan.parScan(input, output, Double::sum, tasks);
+            assertClose(expected, output);
+
+            ParallelPrefixScan.seqScan(input, expected, Math::min);
+            ParallelPrefixScan.parScan(input, output, Math::min, tasks);
+            assertClose(expected, output);
+
+            // "Quedarse con el de la derecha" es asociativo pero no conmutativo: el resultado es la entrada
+            ParallelPrefixScan.parScan(input, output, (a, b) -> b, tasks);
+            assertClose(input, output);
+        }
+    }
+
+    /**
+     * Prueba el recorrido en un pool propio y los errores de los argumentos.
+     */
+    public void testPoolAndArguments() {
+        final double[] input = createArray(10_000, 3);
+        final double[] expected = new double[input.length];
+        ParallelPrefixScan.seqReciprocalScan(input, expected);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final double[] output = new double[input.length];
+            ParallelPrefixScan.scan("parReciprocalScan", input, output, null, 8, pool);
+            assertClose(expected, output);
+        } finally {
+            pool.shutdown();
+        }
+
+        ParallelPrefixScan.parReciprocalScan(new double[0], new double[0], 4);
+        try {
+            ParallelPrefixScan.parReciprocalScan(input, new double[input.length - 1], 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            ParallelPrefixScan.parScan(input, Double::sum, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package co.edu.unal.paralela;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
 
 import junit.framework.TestCase;
 
@@ -8,6 +17,19 @@ public class ReciprocalArraySumTest extends TestCase {
     // Número de veces que se debe repetir cada prueba, para la consistencia de los resultados de en el tiempo.
     final static private int REPEATS = 60;
 
+    // Perfil del Autotuner de cada prueba, para no escribir en el de la máquina.
+    private TemporaryProfile profile;
+
+    @Override
+    protected void setUp() throws IOException {
+        profile = TemporaryProfile.open();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        profile.close();
+    }
+
     private static int getNCores() {
         return Runtime.getRuntime().availableProcessors() / 2;
     }
@@ -128,7 +150,7 @@ public class ReciprocalArraySumTest extends TestCase {
     public void testParManyTaskTwoMillion() {
         final int ncores = getNCores();
         final double minimalExpectedSpeedup = (double)ncores * 0.6;
-        final double speedup = parTestHelper(2_000_000, true, ncores);
+        final double speedup = parTestHelper(2_000_000, true, ReciprocalArraySum.tunedTaskCount());
         final String errMsg = String.format("Se esperaba que la implmentación de muchas tareas en paralelo pudiera ejecutarse " +
                 "%fx veces más rápido, pero solo alcanzo a mejorar la rapidez (speedup) %fx veces", minimalExpectedSpeedup, speedup);
         assertTrue(errMsg, speedup >= minimalExpectedSpeedup);
@@ -139,10 +161,74 @@ public class ReciprocalArraySumTest extends TestCase {
      */
     public void testParManyTaskTwoHundredMillion() {
         final int ncores = getNCores();
-        final double speedup = parTestHelper(200_000_000, true, ncores);
+        final double speedup = parTestHelper(200_000_000, true, ReciprocalArraySum.tunedTaskCount());
         final double minimalExpectedSpeedup = (double)ncores * 0.8;
         final String errMsg = String.format("Se esperaba que la implmentación de muchas tareas en paralelo pudiera ejecutarse " +
                 " %fx veces más rápido, pero solo alcanzo a mejorar la rapidez (speedup) %fx veces", minimalExpectedSpeedup, speedup);
         assertTrue(errMsg, speedup >= minimalExpectedSpeedup);
     }
+
+    /**
+     * Prueba que parManyTaskArraySum emite un evento de JFR para el kernel y uno por cada tarea hoja.
+     */
+    public void testJfrKernelEvents() throws InterruptedException {
+        final int N = 1_000_000;
+        final int ntasks = 8;
+        final double[] input = createArray(N);
+        final List<RecordedEvent> kernels = new CopyOnWriteArrayList<>();
+        final List<RecordedEvent> leaves = new CopyOnWriteArrayList<>();
+        final CountDownLatch kernelSeen = new CountDownLatch(1);
+        final CountDownLatch leavesSeen = new CountDownLatch(ntasks);
+
+        try (RecordingStream stream = new RecordingStream()) {
+            // Los eventos se leen después de cerrar el flujo, así que no se pueden reutilizar
+            stream.setReuse(false);
+            stream.enable(KernelEvent.class);
+            stream.enable(LeafTaskEvent.class);
+            stream.onEvent("co.edu.unal.paralela.Kernel", event -> {
+                if ("parManyTaskArraySum".equals(event.getString("kernel"))) {
+                    kernels.add(event);
+                    kernelSeen.countDown();
+                }
+            });
+            stream.onEvent("co.edu.unal.paralela.LeafTask", event -> {
+                if ("parManyTaskArraySum".equals(event.getString("kernel"))) {
+                    leaves.add(event);
+                    leavesSeen.countDown();
+                }
+            });
+            stream.startAsync();
+
+            final double sum = ReciprocalArraySum.parManyTaskArraySum(input, ntasks);
+            assertEquals(seqArraySum(input), sum, 1E-2);
+            assertTrue("No kernel event was recorded", kernelSeen.await(30, TimeUnit.SECONDS));
+            assertTrue("Missing leaf task events", leavesSeen.await(30, TimeUnit.SECONDS));
+        }
+
+        final RecordedEvent kernel = kernels.get(0);
+        assertEquals(N, kernel.getLong("inputSize"));
+        assertEquals(ntasks, kernel.getInt("tasks"));
+        assertTrue(kernel.getLong("steals") >= 0);
+        assertTrue(kernel.getDuration().toNanos() > 0);
+
+        long covered = 0;
+        for (RecordedEvent leaf : leaves) {
+            covered += leaf.getLong("size");
+        }
+        assertEquals(ntasks, leaves.size());
+        assertEquals(N, covered);
+    }
+
+    /**
+     * Prueba que parTunedArraySum calcula la suma correcta y deja el número de tareas en el perfil.
+     */
+    public void testTunedArraySum() throws IOException {
+        final double[] input = createArray(1_000_000);
+        assertEquals(seqArraySum(input), ReciprocalArraySum.parTunedArraySum(input), 1E-2);
+
+        final int tasks = ReciprocalArraySum.tunedTaskCount();
+        assertTrue(tasks >= Runtime.getRuntime().availableProcessors());
+        final String saved = new String(Files.readAllBytes(Autotuner.shared().getFile()), "UTF-8");
+        assertTrue(saved.contains("parManyTaskArraySum.tasks=" + tasks));
+    }
 }
@@ -0,0 +1,72 @@
+package co.edu.unal.paralela;
+
+import junit.framework.TestCase;
+
+public class ReciprocalSumReducerTest extends TestCase {
+    // Bytes por llamada que se toleran, por ejemplo el nodo con que el hilo que llama espera al pool
+    final static private long BUDGET = 512;
+    final static private int CALLS = 2000;
+
+    private static double[] createArray(final int n) {
+        final double[] input = new double[n];
+        for (int i = 0; i < n; i++) {
+            input[i] = i % 100 + 1;
+        }
+        return input;
+    }
+
+    /**
+     * Prueba que el resultado es idéntico bit a bit al de parManyTaskArraySum, con trozos desiguales.
+     */
+    public void testMatchesParManyTaskArraySum() {
+        for (int n : new int[] {1_000_003, 100, 7}) {
+            final double[] input = createArray(n);
+            for (int tasks : new int[] {1, 2, 7, 16}) {
+                final ReciprocalSumReducer reducer = new ReciprocalSumReducer(tasks);
+                final double expected = ReciprocalArraySum.parManyTaskArraySum(input, tasks);
+                assertEquals(expected, reducer.sum(input), 0.0);
+                // Se reutiliza con otra entrada
+                assertEquals(0.0, reducer.sum(new double[0]), 0.0);
+                assertEquals(expected, reducer.sum(input), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Prueba que, una vez caliente, cada suma reserva menos de BUDGET bytes entre el hilo que llama y los
+     * trabajadores del pool, mientras que parManyTaskArraySum reserva sus tareas en cada llamada.
+     */
+    public void testAllocationBudget() {
+        final double[] input = createArray(1 << 14);
+        final int tasks = 64;
+        try (ExecutionContext context = ExecutionContext.dedicated("alloc-reducer", 4)) {
+            final ReciprocalSumReducer reducer = new ReciprocalSumReducer(tasks, context);
+            // Calentamiento: compila el código y arranca los trabajadores
+            double sink = 0;
+            for (int i = 0; i < 20_000; i++) {
+                sink += reducer.sum(input);
+                sink += ReciprocalArraySum.parManyTaskArraySum(input, tasks, context);
+            }
+            final AllocationMeter meter = AllocationMeter.forCallerAndWorkers("alloc-reducer-worker");
+
+            long before = meter.allocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                sink += reducer.sum(input);
+            }
+            final long reducerBytes = (meter.allocatedBytes() - before) / CALLS;
+
+            before = meter.allocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                sink += ReciprocalArraySum.parManyTaskArraySum(input, tasks, context);
+            }
+            final long taskBytes = (meter.allocatedBytes() - before) / CALLS;
+
+            // Usar la suma evita que el compilador descarte las llamadas
+            assertTrue(sink > 0);
+            final String allocated = "Allocated bytes per call with " + tasks + " tasks: ReciprocalSumReducer "
+                    + reducerBytes + ", parManyTaskArraySum " + taskBytes;
+            assertTrue(allocated, reducerBytes < BUDGET);
+            assertTrue(allocated, taskBytes > reducerBytes);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+public class ReductionIsolationTest extends TestCase {
+
+    private static double[] createArray(final int n) {
+        final double[] input = new double[n];
+        for (int i = 0; i < n; i++) {
+            input[i] = i % 100 + 1;
+        }
+        return input;
+    }
+
+    /**
+     * Ocupa todos los hilos del pool con tareas que esperan el latch.
+     */
+    private static void saturate(final ForkJoinPool pool, final CountDownLatch release) {
+        for (int i = 0; i < pool.getParallelism() + 4; i++) {
+            pool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    /**
+     * Prueba que una reducción en un pool dedicado termina aunque el pool común esté saturado.
+     */
+    public void testDedicatedPoolIgnoresSaturatedCommonPool() throws Exception {
+        final double[] input = createArray(1_000_000);
+        final double expected = ReciprocalArraySum.seqArraySum(input);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService caller = Executors.newSingleThreadExecutor();
+        try (ExecutionContext context = ExecutionContext.dedicated("reduction", 2)) {
+            saturate(ForkJoinPool.commonPool(), release);
+            final Future<Double> isolated = caller.submit(
+                    () -> ReciprocalArraySum.parManyTaskArraySum(input, 16, context));
+            assertEquals(expected, isolated.get(30, TimeUnit.SECONDS), 1e-6);
+
+            final double[] output = new double[input.length];
+            caller.submit(() -> ParallelPrefixScan.parReciprocalScan(input, output, 16, context))
+                    .get(30, TimeUnit.SECONDS);
+            assertEquals(expected, output[output.length - 1], 1e-6);
+        } finally {
+            release.countDown();
+            caller.shutdown();
+        }
+    }
+
+    /**
+     * Prueba que un pool saturado detiene sus propias reducciones pero no las de otro contexto.
+     */
+    public void testSaturatedPoolDoesNotStallOtherContext() throws Exception {
+        final double[] input = createArray(1_000_000);
+        final double expected = ReciprocalArraySum.seqArraySum(input);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService callers = Executors.newFixedThreadPool(2);
+        try (ExecutionContext busy = ExecutionContext.dedicated("busy", 1);
+                ExecutionContext free = ExecutionContext.dedicated("free", 1)) {
+            saturate(busy.getPool(), release);
+            final Future<Double> stalled = callers.submit(
+                    () -> ReciprocalArraySum.parManyTaskArraySum(input, 8, busy));
+            final Future<Double> isolated = callers.submit(
+                    () -> ReciprocalArraySum.parManyTaskArraySum(input, 8, free));
+
+            assertEquals(expected, isolated.get(30, TimeUnit.SECONDS), 1e-6);
+            try {
+                stalled.get(200, TimeUnit.MILLISECONDS);
+                fail("The saturated pool should not have run the reduction yet");
+            } catch (TimeoutException e) {
+                // Esperado
+            }
+            release.countDown();
+            assertEquals(expected, stalled.get(30, TimeUnit.SECONDS), 1e-6);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+}
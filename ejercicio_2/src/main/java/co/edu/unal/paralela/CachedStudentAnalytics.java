@@ -0,0 +1,346 @@
+package co.edu.unal.paralela;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Caché de resultados delante de StudentAnalytics para servicios que repiten
+ * las mismas consultas sobre el mismo grupo de estudiantes.
+ *
+ * Cada resultado se guarda bajo el nombre de la consulta y una versión del
+ * grupo. Quien ya lleva un número de versión (por ejemplo, lo incrementa cada
+ * vez que modifica el arreglo) usa las sobrecargas con version, que no
+ * recorren el arreglo; las demás calculan una huella del contenido con
+ * fingerprint, que cuesta un recorrido paralelo del arreglo pero es mucho más
+ * barata que, por ejemplo, agrupar por nombre. Al cambiar la versión los
+ * resultados anteriores dejan de usarse y salen del caché por LRU.
+ *
+ * El caché tiene un número máximo de entradas y descarta la usada hace más
+ * tiempo. Es seguro con varios hilos: si varios piden a la vez una consulta
+ * que no está, sólo uno la calcula y los demás esperan su resultado.
+ */
+public final class CachedStudentAnalytics {
+    /**
+     * Clave de una entrada del caché.
+     */
+    private static final class Key {
+        /**
+         * Nombre de la consulta.
+         */
+        private final String query;
+        /**
+         * Versión o huella del grupo de estudiantes.
+         */
+        private final long version;
+
+        /**
+         * Constructor.
+         *
+         * @param query Nombre de la consulta
+         * @param version Versión o huella del grupo de estudiantes
+         */
+        Key(final String query, final long version) {
+            this.query = query;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return version == key.version && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * query.hashCode() + Long.hashCode(version);
+        }
+    }
+
+    /**
+     * Las consultas que se delegan.
+     */
+    private final StudentAnalytics analytics;
+    /**
+     * Número máximo de entradas.
+     */
+    private final int capacity;
+    /**
+     * Entradas en orden de acceso; se protege con su propio monitor.
+     */
+    private final LinkedHashMap<Key, CompletableFuture<Object>> entries;
+    /**
+     * Consultas respondidas desde el caché.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Consultas que hubo que calcular.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * Entradas descartadas por falta de espacio.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param analytics Las consultas que se delegan
+     * @param capacity El número máximo de resultados guardados
+     */
+    public CachedStudentAnalytics(final StudentAnalytics analytics, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity = " + capacity);
+        }
+        this.analytics = analytics;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, CompletableFuture<Object>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, CompletableFuture<Object>> eldest) {
+                if (size() > CachedStudentAnalytics.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Calcula una huella del contenido de un grupo de estudiantes: un hash de
+     * 64 bits de todos sus campos que depende del orden. Dos arreglos con el
+     * mismo contenido tienen la misma huella.
+     *
+     * @param studentArray Los estudiantes
+     * @return La huella
+     */
+    public static long fingerprint(final Student[] studentArray) {
+        final long[] partial = new long[(studentArray.length + 4095) / 4096];
+        IntStream.range(0, partial.length).parallel().forEach(c -> {
+            long h = 0;
+            final int end = Math.min(studentArray.length, (c + 1) * 4096);
+            for (int i = c * 4096; i < end; i++) {
+                final Student s = studentArray[i];
+                long e = s.getFirstName().hashCode();
+                e = 31 * e + s.getLastName().hashCode();
+                e = 31 * e + Double.hashCode(s.getAge());
+                e = 31 * e + s.getGrade();
+                e = 31 * e + (s.checkIsCurrent() ? 1 : 0);
+                h = mix(h * 0x9E3779B97F4A7C15L + e);
+            }
+            partial[c] = h;
+        });
+        long h = studentArray.length;
+        for (long p : partial) {
+            h = mix(h * 0x9E3779B97F4A7C15L + p);
+        }
+        return h;
+    }
+
+    /**
+     * Mezcla los bits de un valor (función final de SplitMix64).
+     *
+     * @param z El valor
+     * @return El valor mezclado
+     */
+    private static long mix(final long z) {
+        long x = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @param version La versión del grupo de estudiantes
+     * @return La edad promedio de los estudiantes activos
+     */
+    public double averageAgeOfEnrolledStudents(final Student[] studentArray, final long version) {
+        return (Double) get("averageAgeOfEnrolledStudents", version,
+            () -> analytics.averageAgeOfEnrolledStudentsParallelStream(studentArray));
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @return La edad promedio de los estudiantes activos
+     */
+    public double averageAgeOfEnrolledStudents(final Student[] studentArray) {
+        return averageAgeOfEnrolledStudents(studentArray, fingerprint(studentArray));
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @param version La versión del grupo de estudiantes
+     * @return El nombre más común de los estudiantes inactivos
+     */
+    public String mostCommonFirstNameOfInactiveStudents(final Student[] studentArray, final long version) {
+        return (String) get("mostCommonFirstNameOfInactiveStudents", version,
+            () -> analytics.mostCommonFirstNameOfInactiveStudentsParallelStream(studentArray));
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @return El nombre más común de los estudiantes inactivos
+     */
+    public String mostCommonFirstNameOfInactiveStudents(final Student[] studentArray) {
+        return mostCommonFirstNameOfInactiveStudents(studentArray, fingerprint(studentArray));
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @param version La versión del grupo de estudiantes
+     * @return El número de estudiantes inactivos mayores de 20 años que perdieron
+     */
+    public int countNumberOfFailedStudentsOlderThan20(final Student[] studentArray, final long version) {
+        return (Integer) get("countNumberOfFailedStudentsOlderThan20", version,
+            () -> analytics.countNumberOfFailedStudentsOlderThan20ParallelStream(studentArray));
+    }
+
+    /**
+     * @param studentArray Los estudiantes
+     * @return El número de estudiantes inactivos mayores de 20 años que perdieron
+     */
+    public int countNumberOfFailedStudentsOlderThan20(final Student[] studentArray) {
+        return countNumberOfFailedStudentsOlderThan20(studentArray, fingerprint(studentArray));
+    }
+
+    /**
+     * Devuelve el resultado guardado para (query, version), o lo calcula con
+     * compute si no existe. Si otro hilo ya lo está calculando, espera ese
+     * resultado. Si el cálculo falla, la entrada se elimina para que el
+     * siguiente intento lo repita, y la excepción se propaga a todos los que
+     * esperaban.
+     *
+     * @param query El nombre de la consulta
+     * @param version La versión del grupo de estudiantes
+     * @param compute El cálculo de la consulta
+     * @return El resultado de la consulta
+     */
+    Object get(final String query, final long version, final Supplier<?> compute) {
+        final Key key = new Key(query, version);
+        final CompletableFuture<Object> future;
+        final boolean owner;
+        synchronized (entries) {
+            final CompletableFuture<Object> existing = entries.get(key);
+            if (existing != null) {
+                future = existing;
+                owner = false;
+            } else {
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            hits.increment();
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        misses.increment();
+        try {
+            final Object value = compute.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                entries.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @param e La excepción de un CompletableFuture
+     * @return La excepción original del cálculo
+     */
+    private static RuntimeException unwrap(final CompletionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+
+    /**
+     * Elimina todos los resultados de una versión del grupo de estudiantes.
+     *
+     * @param version La versión
+     */
+    public void invalidate(final long version) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.version == version);
+        }
+    }
+
+    /**
+     * Elimina todos los resultados.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return El número de resultados guardados
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return El número máximo de resultados guardados
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return El número de consultas respondidas desde el caché
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return El número de consultas que hubo que calcular
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return El número de resultados descartados por falta de espacio
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return La fracción de consultas respondidas desde el caché
+     */
+    public double getHitRate() {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
@@ -0,0 +1,80 @@
+package co.edu.unal.paralela;
+
+/**
+ * Regla para combinar un atributo de varios registros del mismo estudiante
+ * en RosterMerge. "Primero" y "último" se refieren al orden en el arreglo
+ * de entrada. Sobre isCurrent, MIN exige que el estudiante esté activo en
+ * todos los registros y MAX en al menos uno.
+ */
+public enum ConflictRule {
+    /**
+     * Se conserva el valor del primer registro.
+     */
+    FIRST,
+    /**
+     * Se conserva el valor del último registro.
+     */
+    LAST,
+    /**
+     * Se conserva el menor valor.
+     */
+    MIN,
+    /**
+     * Se conserva el mayor valor.
+     */
+    MAX;
+
+    /**
+     * @param current El valor acumulado
+     * @param incoming El valor del siguiente registro
+     * @return El valor combinado
+     */
+    double apply(final double current, final double incoming) {
+        switch (this) {
+            case FIRST:
+                return current;
+            case LAST:
+                return incoming;
+            case MIN:
+                return Math.min(current, incoming);
+            default:
+                return Math.max(current, incoming);
+        }
+    }
+
+    /**
+     * @param current El valor acumulado
+     * @param incoming El valor del siguiente registro
+     * @return El valor combinado
+     */
+    int apply(final int current, final int incoming) {
+        switch (this) {
+            case FIRST:
+                return current;
+            case LAST:
+                return incoming;
+            case MIN:
+                return Math.min(current, incoming);
+            default:
+                return Math.max(current, incoming);
+        }
+    }
+
+    /**
+     * @param current El valor acumulado
+     * @param incoming El valor del siguiente registro
+     * @return El valor combinado
+     */
+    boolean apply(final boolean current, final boolean incoming) {
+        switch (this) {
+            case FIRST:
+                return current;
+            case LAST:
+                return incoming;
+            case MIN:
+                return current && incoming;
+            default:
+                return current || incoming;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de conteo de nombres con direccionamiento abierto, pensada para
+ * reutilizarse entre llamadas sin reservar memoria.
+ *
+ * Un HashMap&lt;String, Integer&gt; crea un nodo por nombre nuevo y un Integer
+ * por incremento (fuera del caché de -128 a 127), y Collectors.counting crea
+ * un Long por elemento. Aquí los nombres y los conteos se guardan en dos
+ * arreglos paralelos con sondeo lineal, y String.hashCode queda guardado en
+ * cada String después del primer uso, así que contar no reserva memoria.
+ * Las posiciones usadas se recuerdan para que clear sólo recorra esas. La
+ * tabla sólo crece cuando se llena más de la mitad; después de eso
+ * conserva su capacidad.
+ *
+ * No es segura para usarse desde varios hilos a la vez: cada tarea usa su
+ * propia tabla y al final se combinan con addAll.
+ */
+public final class NameCountTable {
+    /**
+     * Nombres, o null en las posiciones libres.
+     */
+    private String[] names;
+    /**
+     * Conteo de cada nombre.
+     */
+    private int[] counts;
+    /**
+     * Posiciones usadas, en orden de inserción.
+     */
+    private int[] used;
+    /**
+     * Número de nombres distintos.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedNames El número de nombres distintos que se espera
+     *        contar; con más la tabla crece
+     */
+    public NameCountTable(final int expectedNames) {
+        if (expectedNames < 0) {
+            throw new IllegalArgumentException("expectedNames = " + expectedNames);
+        }
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expectedNames)) << 2));
+    }
+
+    /**
+     * @return El número de nombres distintos
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return El número de posiciones de la tabla
+     */
+    public int getCapacity() {
+        return names.length;
+    }
+
+    /**
+     * Suma uno al conteo de name.
+     *
+     * @param name El nombre
+     * @return El nuevo conteo
+     */
+    public int increment(final String name) {
+        return add(name, 1);
+    }
+
+    /**
+     * Suma delta al conteo de name.
+     *
+     * @param name El nombre
+     * @param delta Cuánto sumar
+     * @return El nuevo conteo
+     */
+    public int add(final String name, final int delta) {
+        final int slot = slotFor(name);
+        if (names[slot] == null) {
+            names[slot] = name;
+            used[size++] = slot;
+            counts[slot] = delta;
+            if (2 * size > names.length) {
+                grow();
+            }
+            return delta;
+        }
+        counts[slot] += delta;
+        return counts[slot];
+    }
+
+    /**
+     * @param name El nombre
+     * @return El conteo de name, o 0 si no se ha contado
+     */
+    public int get(final String name) {
+        final int slot = slotFor(name);
+        return names[slot] == null ? 0 : counts[slot];
+    }
+
+    /**
+     * Suma a esta tabla todos los conteos de other.
+     *
+     * @param other La otra tabla
+     */
+    public void addAll(final NameCountTable other) {
+        for (int i = 0; i < other.size; i++) {
+            final int slot = other.used[i];
+            add(other.names[slot], other.counts[slot]);
+        }
+    }
+
+    /**
+     * Devuelve el nombre con el mayor conteo. Entre nombres con el mismo
+     * conteo elige el menor según String.compareTo, de modo que el resultado
+     * no depende del orden en que se contaron.
+     *
+     * @return El nombre más común, o null si la tabla está vacía
+     */
+    public String mostCommon() {
+        String best = null;
+        int bestCount = 0;
+        for (int i = 0; i < size; i++) {
+            final int slot = used[i];
+            final int count = counts[slot];
+            if (best == null || count > bestCount || (count == bestCount && names[slot].compareTo(best) < 0)) {
+                best = names[slot];
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Vacía la tabla conservando su capacidad.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            names[used[i]] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @param name El nombre
+     * @return La posición de name, o la posición libre en que iría
+     */
+    private int slotFor(final String name) {
+        final int mask = names.length - 1;
+        // Mezcla los bits altos para que nombres con hash parecido no se agrupen
+        final int hash = name.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (names[slot] != null && !names[slot].equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Duplica la capacidad y vuelve a insertar los nombres.
+     */
+    private void grow() {
+        final String[] oldNames = names;
+        final int[] oldCounts = counts;
+        final int[] oldUsed = used;
+        final int oldSize = size;
+        allocate(2 * oldNames.length);
+        for (int i = 0; i < oldSize; i++) {
+            final int oldSlot = oldUsed[i];
+            final int slot = slotFor(oldNames[oldSlot]);
+            names[slot] = oldNames[oldSlot];
+            counts[slot] = oldCounts[oldSlot];
+            used[size++] = slot;
+        }
+    }
+
+    /**
+     * Reserva arreglos vacíos de la capacidad indicada.
+     *
+     * @param capacity Una potencia de dos
+     */
+    private void allocate(final int capacity) {
+        names = new String[capacity];
+        counts = new int[capacity];
+        used = new int[capacity / 2 + 1];
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        final String[] sorted = new String[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = names[used[i]] + "=" + counts[used[i]];
+        }
+        Arrays.sort(sorted);
+        return Arrays.toString(sorted);
+    }
+}
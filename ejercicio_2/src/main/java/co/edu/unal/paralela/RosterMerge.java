@@ -0,0 +1,484 @@
+package co.edu.unal.paralela;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Eliminación de duplicados y reunión (equi-join) de listas de estudiantes
+ * por (firstName, lastName), en paralelo.
+ *
+ * Ambas operaciones particionan primero los índices por los bits altos del
+ * hash del nombre: cada trozo del arreglo cuenta cuántos estudiantes van a
+ * cada partición, una suma de prefijos da la posición de cada par (trozo,
+ * partición) y cada trozo copia sus índices a esas posiciones. La copia es
+ * estable, así que dentro de una partición los índices quedan en orden
+ * creciente. Después cada partición, de unos miles de estudiantes en
+ * promedio, construye y consulta su propia tabla hash con
+ * direccionamiento abierto sin compartir nada con las demás.
+ *
+ * El resultado no depende del número de hilos: dedup conserva el orden de
+ * la primera aparición de cada nombre y join ordena los pares por índice
+ * izquierdo y luego derecho.
+ */
+public final class RosterMerge {
+    /**
+     * Número de estudiantes por trozo en el particionado.
+     */
+    private static final int CHUNK_SIZE = 1 << 14;
+    /**
+     * Número de estudiantes que se busca tener en cada partición.
+     */
+    private static final int PARTITION_SIZE = 1 << 12;
+    /**
+     * Máximo de bits de partición.
+     */
+    private static final int MAX_PARTITION_BITS = 10;
+
+    /**
+     * Constructor.
+     */
+    private RosterMerge() {
+    }
+
+    /**
+     * Elimina los duplicados con las reglas por defecto: la edad del último
+     * registro, la mayor nota, y activo si lo está en algún registro.
+     *
+     * @param students Los estudiantes, por ejemplo varias listas concatenadas
+     * @return Un estudiante por nombre, en el orden de su primera aparición
+     */
+    public static Student[] dedup(final Student[] students) {
+        return dedup(students, ConflictRule.LAST, ConflictRule.MAX, ConflictRule.MAX);
+    }
+
+    /**
+     * Elimina en paralelo los estudiantes con el mismo (firstName,
+     * lastName), combinando sus atributos con las reglas indicadas. Si un
+     * nombre aparece una sola vez se devuelve el mismo objeto.
+     *
+     * @param students Los estudiantes, por ejemplo varias listas concatenadas
+     * @param age Regla para la edad
+     * @param grade Regla para la nota
+     * @param current Regla para isCurrent
+     * @return Un estudiante por nombre, en el orden de su primera aparición
+     */
+    public static Student[] dedup(final Student[] students, final ConflictRule age, final ConflictRule grade,
+            final ConflictRule current) {
+        final int n = students.length;
+        final KernelEvent event = KernelEvent.start("RosterMerge.dedup", n,
+                currentPool().getParallelism(), currentPool());
+        final Partitions partitions = new Partitions(students, partitionBits(n));
+        // slots[i] es el estudiante combinado si i es la primera aparición de su nombre
+        final Student[] slots = new Student[n];
+        IntStream.range(0, partitions.count()).parallel().forEach(p -> {
+            final int start = partitions.starts[p];
+            final int size = partitions.starts[p + 1] - start;
+            final int[] table = new int[tableSize(size)];
+            final int mask = table.length - 1;
+            final int[] firsts = new int[size];
+            final double[] ages = new double[size];
+            final int[] grades = new int[size];
+            final boolean[] currents = new boolean[size];
+            final int[] sizes = new int[size];
+            int groups = 0;
+            for (int k = start; k < start + size; k++) {
+                final int i = partitions.order[k];
+                final Student s = students[i];
+                int slot = partitions.hashes[i] & mask;
+                int group = -1;
+                while (table[slot] != 0) {
+                    final int g = table[slot] - 1;
+                    if (sameName(partitions.hashes, students, firsts[g], i)) {
+                        group = g;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                if (group < 0) {
+                    group = groups++;
+                    table[slot] = group + 1;
+                    firsts[group] = i;
+                    ages[group] = s.getAge();
+                    grades[group] = s.getGrade();
+                    currents[group] = s.checkIsCurrent();
+                } else {
+                    ages[group] = age.apply(ages[group], s.getAge());
+                    grades[group] = grade.apply(grades[group], s.getGrade());
+                    currents[group] = current.apply(currents[group], s.checkIsCurrent());
+                }
+                sizes[group]++;
+            }
+            for (int g = 0; g < groups; g++) {
+                slots[firsts[g]] = combined(students[firsts[g]], sizes[g], ages[g], grades[g], currents[g]);
+            }
+        });
+
+        final Student[] result = compact(slots);
+        event.finish();
+        return result;
+    }
+
+    /**
+     * Elimina secuencialmente los duplicados con un LinkedHashMap, con las
+     * mismas reglas y el mismo orden que dedup.
+     *
+     * @param students Los estudiantes
+     * @param age Regla para la edad
+     * @param grade Regla para la nota
+     * @param current Regla para isCurrent
+     * @return Un estudiante por nombre, en el orden de su primera aparición
+     */
+    public static Student[] seqDedup(final Student[] students, final ConflictRule age, final ConflictRule grade,
+            final ConflictRule current) {
+        final Map<Name, Student> merged = new LinkedHashMap<>();
+        for (Student s : students) {
+            final Name name = new Name(s.getFirstName(), s.getLastName());
+            final Student previous = merged.get(name);
+            if (previous == null) {
+                merged.put(name, s);
+            } else {
+                merged.put(name, new Student(s.getFirstName(), s.getLastName(),
+                        age.apply(previous.getAge(), s.getAge()), grade.apply(previous.getGrade(), s.getGrade()),
+                        current.apply(previous.checkIsCurrent(), s.checkIsCurrent())));
+            }
+        }
+        return merged.values().toArray(new Student[0]);
+    }
+
+    /**
+     * Reúne en paralelo left y right por (firstName, lastName): devuelve los
+     * índices de todos los pares de estudiantes con el mismo nombre.
+     *
+     * @param left Los estudiantes de la izquierda
+     * @param right Los estudiantes de la derecha
+     * @return Dos arreglos del mismo largo: result[0][k] es el índice en left
+     *         y result[1][k] el índice en right del par k. Los pares están
+     *         ordenados por índice izquierdo y luego derecho.
+     */
+    public static int[][] joinIndices(final Student[] left, final Student[] right) {
+        final KernelEvent event = KernelEvent.start("RosterMerge.join", (long) left.length + right.length,
+                currentPool().getParallelism(), currentPool());
+        final int bits = partitionBits(Math.max(left.length, right.length));
+        final Partitions leftPartitions = new Partitions(left, bits);
+        final Partitions rightPartitions = new Partitions(right, bits);
+
+        // next[r] es el siguiente índice derecho con el mismo nombre que r
+        final int[] next = new int[right.length];
+        // heads[l] es el primer índice derecho con el nombre de l, y counts[l] cuántos hay
+        final int[] heads = new int[left.length];
+        final int[] counts = new int[left.length];
+        IntStream.range(0, leftPartitions.count()).parallel().forEach(p -> {
+            final int rightStart = rightPartitions.starts[p];
+            final int rightEnd = rightPartitions.starts[p + 1];
+            final int[] table = new int[tableSize(rightEnd - rightStart)];
+            final int mask = table.length - 1;
+            // De atrás hacia adelante, para que cada cadena quede en orden creciente
+            for (int k = rightEnd - 1; k >= rightStart; k--) {
+                final int r = rightPartitions.order[k];
+                final int slot = find(table, mask, rightPartitions.hashes, right, rightPartitions.hashes[r],
+                        right[r]);
+                next[r] = table[slot] - 1;
+                table[slot] = r + 1;
+            }
+            for (int k = leftPartitions.starts[p]; k < leftPartitions.starts[p + 1]; k++) {
+                final int l = leftPartitions.order[k];
+                final int slot = find(table, mask, rightPartitions.hashes, right, leftPartitions.hashes[l],
+                        left[l]);
+                int count = 0;
+                for (int r = table[slot] - 1; r >= 0; r = next[r]) {
+                    count++;
+                }
+                heads[l] = table[slot] - 1;
+                counts[l] = count;
+            }
+        });
+
+        // Posición de los pares de cada índice izquierdo: suma de prefijos por trozos
+        final int chunks = (left.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final long[] chunkTotals = new long[chunks + 1];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            long total = 0;
+            for (int l = c * CHUNK_SIZE; l < Math.min(left.length, (c + 1) * CHUNK_SIZE); l++) {
+                total += counts[l];
+            }
+            chunkTotals[c + 1] = total;
+        });
+        for (int c = 0; c < chunks; c++) {
+            chunkTotals[c + 1] += chunkTotals[c];
+        }
+        if (chunkTotals[chunks] > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The join has " + chunkTotals[chunks] + " pairs");
+        }
+        final int[][] result = new int[2][(int) chunkTotals[chunks]];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int position = (int) chunkTotals[c];
+            for (int l = c * CHUNK_SIZE; l < Math.min(left.length, (c + 1) * CHUNK_SIZE); l++) {
+                for (int r = heads[l]; r >= 0; r = next[r]) {
+                    result[0][position] = l;
+                    result[1][position] = r;
+                    position++;
+                }
+            }
+        });
+        event.finish();
+        return result;
+    }
+
+    /**
+     * Igual que joinIndices, devolviendo los estudiantes en lugar de los
+     * índices.
+     *
+     * @param left Los estudiantes de la izquierda
+     * @param right Los estudiantes de la derecha
+     * @return Los pares: result[k][0] es de left y result[k][1] de right
+     */
+    public static Student[][] join(final Student[] left, final Student[] right) {
+        final int[][] indices = joinIndices(left, right);
+        final Student[][] result = new Student[indices[0].length][];
+        IntStream.range(0, result.length).parallel()
+                .forEach(k -> result[k] = new Student[] {left[indices[0][k]], right[indices[1][k]]});
+        return result;
+    }
+
+    /**
+     * Busca en una tabla de índices derechos (más uno) la posición del
+     * nombre de s, o la posición libre en que iría.
+     *
+     * @param table La tabla
+     * @param mask El tamaño de la tabla menos uno
+     * @param hashes Los hashes de los estudiantes de la tabla
+     * @param students Los estudiantes de la tabla
+     * @param hash El hash del nombre de s
+     * @param s El estudiante que se busca
+     * @return La posición
+     */
+    private static int find(final int[] table, final int mask, final int[] hashes, final Student[] students,
+            final int hash, final Student s) {
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            final int i = table[slot] - 1;
+            if (hashes[i] == hash && students[i].getFirstName().equals(s.getFirstName())
+                    && students[i].getLastName().equals(s.getLastName())) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param hashes Los hashes de los nombres
+     * @param students Los estudiantes
+     * @param a Un índice
+     * @param b Otro índice
+     * @return Si los estudiantes a y b tienen el mismo nombre
+     */
+    private static boolean sameName(final int[] hashes, final Student[] students, final int a, final int b) {
+        return hashes[a] == hashes[b] && students[a].getFirstName().equals(students[b].getFirstName())
+                && students[a].getLastName().equals(students[b].getLastName());
+    }
+
+    /**
+     * @param first El primer registro del grupo
+     * @param size Cuántos registros tiene el grupo
+     * @param age La edad combinada
+     * @param grade La nota combinada
+     * @param current El estado combinado
+     * @return first si no cambió nada, o un estudiante nuevo con los valores combinados
+     */
+    private static Student combined(final Student first, final int size, final double age, final int grade,
+            final boolean current) {
+        if (size == 1 || (Double.compare(age, first.getAge()) == 0 && grade == first.getGrade()
+                && current == first.checkIsCurrent())) {
+            return first;
+        }
+        return new Student(first.getFirstName(), first.getLastName(), age, grade, current);
+    }
+
+    /**
+     * Copia en orden los elementos no nulos de slots, contando y copiando
+     * por trozos en paralelo.
+     *
+     * @param slots El arreglo con huecos
+     * @return Los elementos no nulos
+     */
+    private static Student[] compact(final Student[] slots) {
+        final int chunks = (slots.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final int[] offsets = new int[chunks + 1];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int count = 0;
+            for (int i = c * CHUNK_SIZE; i < Math.min(slots.length, (c + 1) * CHUNK_SIZE); i++) {
+                if (slots[i] != null) {
+                    count++;
+                }
+            }
+            offsets[c + 1] = count;
+        });
+        for (int c = 0; c < chunks; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        final Student[] result = new Student[offsets[chunks]];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int position = offsets[c];
+            for (int i = c * CHUNK_SIZE; i < Math.min(slots.length, (c + 1) * CHUNK_SIZE); i++) {
+                if (slots[i] != null) {
+                    result[position++] = slots[i];
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param n El número de estudiantes
+     * @return Los bits de partición para que cada una tenga unos
+     *         PARTITION_SIZE estudiantes
+     */
+    private static int partitionBits(final int n) {
+        final int wanted = Math.max(1, n / PARTITION_SIZE);
+        return Math.min(MAX_PARTITION_BITS, 31 - Integer.numberOfLeadingZeros(wanted));
+    }
+
+    /**
+     * @param size El número de elementos
+     * @return Una potencia de dos de al menos el doble de size
+     */
+    private static int tableSize(final int size) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, size)) << 2);
+    }
+
+    /**
+     * @return El pool en que correrán los streams paralelos lanzados desde aquí
+     */
+    private static ForkJoinPool currentPool() {
+        final ForkJoinPool pool = ForkJoinTask.getPool();
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Índices de un arreglo de estudiantes agrupados por partición.
+     */
+    private static final class Partitions {
+        /**
+         * Hash mezclado del nombre de cada estudiante.
+         */
+        private final int[] hashes;
+        /**
+         * Índices ordenados por partición y, dentro de cada una, crecientes.
+         */
+        private final int[] order;
+        /**
+         * starts[p] es la posición en order de la partición p; tiene una
+         * posición extra con el total.
+         */
+        private final int[] starts;
+
+        /**
+         * Calcula los hashes y particiona los índices.
+         *
+         * @param students Los estudiantes
+         * @param bits Los bits de partición
+         */
+        Partitions(final Student[] students, final int bits) {
+            final int n = students.length;
+            final int count = 1 << bits;
+            final int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            hashes = new int[n];
+            order = new int[n];
+            starts = new int[count + 1];
+
+            // Histograma de cada trozo: histogram[c * count + p]
+            final int[] histogram = new int[chunks * count];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                for (int i = c * CHUNK_SIZE; i < Math.min(n, (c + 1) * CHUNK_SIZE); i++) {
+                    hashes[i] = hash(students[i]);
+                    histogram[c * count + partition(hashes[i], bits)]++;
+                }
+            });
+            // Posición inicial de cada par (trozo, partición), primero por partición
+            int position = 0;
+            for (int p = 0; p < count; p++) {
+                starts[p] = position;
+                for (int c = 0; c < chunks; c++) {
+                    final int size = histogram[c * count + p];
+                    histogram[c * count + p] = position;
+                    position += size;
+                }
+            }
+            starts[count] = position;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                for (int i = c * CHUNK_SIZE; i < Math.min(n, (c + 1) * CHUNK_SIZE); i++) {
+                    order[histogram[c * count + partition(hashes[i], bits)]++] = i;
+                }
+            });
+        }
+
+        /**
+         * @return El número de particiones
+         */
+        int count() {
+            return starts.length - 1;
+        }
+
+        /**
+         * @param hash Un hash mezclado
+         * @param bits Los bits de partición
+         * @return La partición, según los bits altos del hash
+         */
+        private static int partition(final int hash, final int bits) {
+            return bits == 0 ? 0 : hash >>> (32 - bits);
+        }
+
+        /**
+         * @param s Un estudiante
+         * @return El hash de su nombre, mezclado para que los bits altos y
+         *         bajos dependan de todos los bits
+         */
+        private static int hash(final Student s) {
+            final int h = (31 * s.getFirstName().hashCode() + s.getLastName().hashCode()) * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Clave de seqDedup.
+     */
+    private static final class Name {
+        /**
+         * Nombre.
+         */
+        private final String first;
+        /**
+         * Apellido.
+         */
+        private final String last;
+
+        /**
+         * Constructor.
+         *
+         * @param first Nombre
+         * @param last Apellido
+         */
+        Name(final String first, final String last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Name)) {
+                return false;
+            }
+            final Name name = (Name) other;
+            return first.equals(name.first) && last.equals(name.last);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * first.hashCode() + last.hashCode();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Estudio de escalabilidad fuerte y débil de los métodos con streams
+ * paralelos de StudentAnalytics. Un stream paralelo iniciado desde un hilo de
+ * un ForkJoinPool se ejecuta en ese pool, así que cada medición corre dentro
+ * de un pool dedicado con el número de hilos deseado.
+ *
+ * Uso: ScalingStudy [directorio de salida] [máximo de hilos] [repeticiones].
+ * Por defecto escribe en scaling-report, recorre hasta el número de núcleos
+ * disponibles y toma el mejor de 5 tiempos.
+ */
+public final class ScalingStudy {
+    /**
+     * Número de estudiantes para escalabilidad fuerte.
+     */
+    private static final int[] STRONG_SIZES = {1 << 18, 1 << 20, 1 << 21};
+    /**
+     * Estudiantes por hilo para escalabilidad débil.
+     */
+    private static final int WEAK_SIZE_PER_THREAD = 1 << 19;
+    /**
+     * Bytes aproximados de un estudiante generado y su referencia en el
+     * arreglo; los nombres se comparten.
+     */
+    private static final long STUDENT_BYTES = 48;
+    /**
+     * Nombres de los estudiantes generados.
+     */
+    private static final String[] FIRST_NAMES = {"Sanjay", "Yunming", "John", "Vivek", "Shams", "Max"};
+    /**
+     * Apellidos de los estudiantes generados.
+     */
+    private static final String[] LAST_NAMES = {"Chatterjee", "Zhang", "Smith", "Sarkar", "Imam", "Grossman"};
+
+    /**
+     * Constructor.
+     */
+    private ScalingStudy() {
+    }
+
+    /**
+     * Ejecuta el estudio y escribe ejercicio_2-scaling.csv y
+     * ejercicio_2-scaling.md.
+     *
+     * @param args Directorio de salida, máximo de hilos y repeticiones,
+     *        todos opcionales
+     * @throws IOException Si no se puede escribir el reporte
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path out = Paths.get(args.length > 0 ? args[0] : "scaling-report");
+        final int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final int[] threadCounts = ScalingReport.threadCounts(maxThreads);
+        final ScalingReport report = new ScalingReport();
+        final StudentAnalytics analytics = new StudentAnalytics();
+
+        study(report, "averageAgeOfEnrolledStudentsParallelStream",
+                analytics::averageAgeOfEnrolledStudentsParallelStream, threadCounts, repeats);
+        study(report, "mostCommonFirstNameOfInactiveStudentsParallelStream",
+                analytics::mostCommonFirstNameOfInactiveStudentsParallelStream, threadCounts, repeats);
+        study(report, "countNumberOfFailedStudentsOlderThan20ParallelStream",
+                analytics::countNumberOfFailedStudentsOlderThan20ParallelStream, threadCounts, repeats);
+
+        report.write(out, "ejercicio_2");
+        report.writeMarkdown(System.out);
+    }
+
+    /**
+     * Mide un kernel en escalabilidad fuerte y débil.
+     *
+     * @param report El reporte donde se agregan las mediciones
+     * @param kernel El nombre del kernel
+     * @param body El kernel
+     * @param threadCounts Los números de hilos a recorrer
+     * @param repeats El número de ejecuciones medidas
+     */
+    private static void study(final ScalingReport report, final String kernel, final Consumer<Student[]> body,
+            final int[] threadCounts, final int repeats) {
+        for (int size : STRONG_SIZES) {
+            final Student[] students = createStudents(size);
+            for (int threads : threadCounts) {
+                report.add(kernel, ScalingReport.STRONG, size, threads, measure(students, body, threads, repeats));
+            }
+        }
+        for (int threads : threadCounts) {
+            final int size = ScalingReport.weakSize(WEAK_SIZE_PER_THREAD, threads, STUDENT_BYTES);
+            report.add(kernel, ScalingReport.WEAK, size, threads,
+                    measure(createStudents(size), body, threads, repeats));
+        }
+    }
+
+    /**
+     * Mide un kernel dentro de un pool de threads hilos.
+     *
+     * @param students Los estudiantes de entrada
+     * @param body El kernel
+     * @param threads El número de hilos
+     * @param repeats El número de ejecuciones medidas
+     * @return El menor tiempo en nanosegundos
+     */
+    private static long measure(final Student[] students, final Consumer<Student[]> body, final int threads,
+            final int repeats) {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return ScalingReport.measure(repeats, () -> pool.submit(() -> body.accept(students)).join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Genera n estudiantes con datos aleatorios reproducibles; el 30% está
+     * activo.
+     *
+     * @param n El número de estudiantes
+     * @return Los estudiantes
+     */
+    private static Student[] createStudents(final int n) {
+        final Student[] students = new Student[n];
+        final Random r = new Random(123);
+        for (int s = 0; s < n; s++) {
+            students[s] = new Student(FIRST_NAMES[r.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[r.nextInt(LAST_NAMES.length)], r.nextDouble() * 100.0, 1 + r.nextInt(100),
+                    s < n * 3 / 10);
+        }
+        return students;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Arrays;
 import java.util.stream.Stream;
 import java.util.stream.Collectors;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
 
 /**
@@ -48,6 +50,8 @@ public final class StudentAnalytics {
      * @return Edad promedio de los estudiantes registrados
      */
     public double averageAgeOfEnrolledStudentsParallelStream(final Student[] studentArray) {
+        final KernelEvent event = KernelEvent.start("averageAgeOfEnrolledStudentsParallelStream",
+                studentArray.length, currentPool().getParallelism(), currentPool());
         final Stream<Student> students = Arrays.stream(studentArray).parallel();
         final double answer = students
                                 .filter(Student::checkIsCurrent)
@@ -55,6 +59,7 @@ public final class StudentAnalytics {
                                 .average()
                                 .getAsDouble();
 
+        event.finish();
         return answer;
     }
 
@@ -107,10 +112,13 @@ public final class StudentAnalytics {
      * @return Nombre más comun de los estudiantes inactivos.
      */
     public String mostCommonFirstNameOfInactiveStudentsParallelStream(final Student[] studentArray) {
+        final KernelEvent event = KernelEvent.start("mostCommonFirstNameOfInactiveStudentsParallelStream",
+                studentArray.length, currentPool().getParallelism(), currentPool());
         final Stream<Student> students = Arrays.stream(studentArray).parallel();
         final Stream<String> names = students.filter(s -> !s.checkIsCurrent()).map(Student::getFirstName);
         final Map<String, Long> repeats = names.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
         final String answer = repeats.entrySet().parallelStream().max(Comparator.comparingLong(Map.Entry::getValue)).get().getKey();
+        event.finish();
         return answer;
     }
 
@@ -145,8 +153,61 @@ public final class StudentAnalytics {
      * @return Cantidad de calificacione sperdidas de estudiantes mayores de 20 años de edad.
      */
     public int countNumberOfFailedStudentsOlderThan20ParallelStream(final Student[] studentArray) {
+        final KernelEvent event = KernelEvent.start("countNumberOfFailedStudentsOlderThan20ParallelStream",
+                studentArray.length, currentPool().getParallelism(), currentPool());
         final Stream<Student> students = Arrays.stream(studentArray).parallel();
         final long answer = (int)students.filter(s -> !s.checkIsCurrent() && s.getAge() > 20 && s.getGrade() < 65).count();
+        event.finish();
         return (int)answer;
     }
+
+    /**
+     * Igual que averageAgeOfEnrolledStudentsParallelStream, ejecutando el
+     * stream en el pool del contexto en lugar del pool común.
+     *
+     * @param studentArray Datos del estudiante para esta clase.
+     * @param context El contexto de ejecución
+     * @return Edad promedio de los estudiantes registrados
+     */
+    public double averageAgeOfEnrolledStudentsParallelStream(final Student[] studentArray,
+            final ExecutionContext context) {
+        return context.invoke(() -> averageAgeOfEnrolledStudentsParallelStream(studentArray));
+    }
+
+    /**
+     * Igual que mostCommonFirstNameOfInactiveStudentsParallelStream,
+     * ejecutando el stream en el pool del contexto en lugar del pool común.
+     *
+     * @param studentArray Datos de estudiantes para la clase.
+     * @param context El contexto de ejecución
+     * @return Nombre más comun de los estudiantes inactivos.
+     */
+    public String mostCommonFirstNameOfInactiveStudentsParallelStream(final Student[] studentArray,
+            final ExecutionContext context) {
+        return context.invoke(() -> mostCommonFirstNameOfInactiveStudentsParallelStream(studentArray));
+    }
+
+    /**
+     * Igual que countNumberOfFailedStudentsOlderThan20ParallelStream,
+     * ejecutando el stream en el pool del contexto en lugar del pool común.
+     *
+     * @param studentArray Datos del estudiante para la clase.
+     * @param context El contexto de ejecución
+     * @return Cantidad de calificacione sperdidas de estudiantes mayores de 20 años de edad.
+     */
+    public int countNumberOfFailedStudentsOlderThan20ParallelStream(final Student[] studentArray,
+            final ExecutionContext context) {
+        return context.invoke(() -> countNumberOfFailedStudentsOlderThan20ParallelStream(studentArray));
+    }
+
+    /**
+     * Un stream paralelo usa el pool del hilo que lo ejecuta si ese hilo es
+     * un trabajador de ForkJoin, y el pool común en otro caso.
+     *
+     * @return El pool en que correrá un stream paralelo lanzado desde aquí
+     */
+    private static ForkJoinPool currentPool() {
+        final ForkJoinPool pool = ForkJoinTask.getPool();
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
 }
@@ -0,0 +1,247 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Versiones de las consultas de StudentAnalytics que no reservan memoria en
+ * cada llamada, para usarse muchas veces seguidas sobre arreglos grandes.
+ *
+ * Los streams paralelos de StudentAnalytics crean en cada llamada
+ * spliterators, lambdas, nodos del pipeline y, en
+ * mostCommonFirstNameOfInactiveStudentsParallelStream, un Long por
+ * estudiante inactivo más los mapas de cada trozo. Aquí las tareas de cada
+ * trozo se crean una sola vez en el constructor, cada una con su propia
+ * NameCountTable, y antes de cada consulta se reinician con
+ * ForkJoinTask.reinitialize. Los conteos de los trozos se combinan en otra
+ * tabla reservada de antemano.
+ *
+ * Los resultados coinciden con las versiones imperativas, salvo que entre
+ * nombres igual de comunes se devuelve el menor alfabéticamente. Una
+ * instancia no se debe usar desde varios hilos a la vez.
+ */
+public final class StudentAnalyticsReducer {
+    /**
+     * Consulta de la edad promedio de los estudiantes activos.
+     */
+    private static final int AVERAGE_AGE = 0;
+    /**
+     * Consulta del nombre más común de los estudiantes inactivos.
+     */
+    private static final int COMMON_NAME = 1;
+    /**
+     * Consulta del número de estudiantes que perdieron el curso.
+     */
+    private static final int FAILED = 2;
+    /**
+     * Nombres distintos que se esperan por trozo antes de que las tablas
+     * crezcan.
+     */
+    private static final int EXPECTED_NAMES = 64;
+
+    /**
+     * Pool en que se ejecutan las tareas.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Tareas de cada trozo.
+     */
+    private final Chunk[] chunks;
+    /**
+     * Tarea raíz, que ejecuta todos los trozos.
+     */
+    private final RecursiveAction root;
+    /**
+     * Tabla en que se combinan los conteos de los trozos.
+     */
+    private final NameCountTable merged = new NameCountTable(EXPECTED_NAMES);
+    /**
+     * Estudiantes de la consulta en curso.
+     */
+    private Student[] students;
+    /**
+     * Consulta en curso.
+     */
+    private int query;
+
+    /**
+     * Constructor, con las tareas en el pool común.
+     *
+     * @param numChunks El número de trozos en que se divide el arreglo
+     */
+    public StudentAnalyticsReducer(final int numChunks) {
+        this(numChunks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor, con las tareas en el pool del contexto.
+     *
+     * @param numChunks El número de trozos en que se divide el arreglo
+     * @param context El contexto de ejecución
+     */
+    public StudentAnalyticsReducer(final int numChunks, final ExecutionContext context) {
+        this(numChunks, context.getPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numChunks El número de trozos en que se divide el arreglo
+     * @param pool El pool en que se ejecutan las tareas
+     */
+    private StudentAnalyticsReducer(final int numChunks, final ForkJoinPool pool) {
+        if (numChunks <= 0) {
+            throw new IllegalArgumentException("numChunks = " + numChunks);
+        }
+        this.pool = pool;
+        this.chunks = new Chunk[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            chunks[i] = new Chunk(i);
+        }
+        this.root = new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        };
+    }
+
+    /**
+     * @return El número de trozos en que se divide el arreglo
+     */
+    public int getNumChunks() {
+        return chunks.length;
+    }
+
+    /**
+     * Igual que averageAgeOfEnrolledStudentsImperative.
+     *
+     * @param studentArray Datos del estudiante para esta clase.
+     * @return Edad promedio de los estudiantes registrados
+     */
+    public double averageAgeOfEnrolledStudents(final Student[] studentArray) {
+        run("StudentAnalyticsReducer.averageAgeOfEnrolledStudents", studentArray, AVERAGE_AGE);
+        double ageSum = 0.0;
+        long count = 0;
+        for (Chunk chunk : chunks) {
+            ageSum += chunk.ageSum;
+            count += chunk.count;
+        }
+        return ageSum / (double) count;
+    }
+
+    /**
+     * Igual que mostCommonFirstNameOfInactiveStudentsImperative.
+     *
+     * @param studentArray Datos de estudiantes para la clase.
+     * @return Nombre más común de los estudiantes inactivos, o null si no hay
+     */
+    public String mostCommonFirstNameOfInactiveStudents(final Student[] studentArray) {
+        run("StudentAnalyticsReducer.mostCommonFirstNameOfInactiveStudents", studentArray, COMMON_NAME);
+        merged.clear();
+        for (Chunk chunk : chunks) {
+            merged.addAll(chunk.names);
+        }
+        return merged.mostCommon();
+    }
+
+    /**
+     * Igual que countNumberOfFailedStudentsOlderThan20Imperative.
+     *
+     * @param studentArray Datos del estudiante para la clase.
+     * @return Cantidad de calificaciones perdidas de estudiantes mayores de 20 años de edad.
+     */
+    public int countNumberOfFailedStudentsOlderThan20(final Student[] studentArray) {
+        run("StudentAnalyticsReducer.countNumberOfFailedStudentsOlderThan20", studentArray, FAILED);
+        long count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.count;
+        }
+        return (int) count;
+    }
+
+    /**
+     * Reinicia las tareas y ejecuta la consulta sobre todos los trozos.
+     *
+     * @param kernel El nombre de la consulta, para el KernelEvent
+     * @param studentArray Los estudiantes
+     * @param newQuery La consulta
+     */
+    private void run(final String kernel, final Student[] studentArray, final int newQuery) {
+        final KernelEvent event = KernelEvent.start(kernel, studentArray.length, chunks.length, pool);
+        for (Chunk chunk : chunks) {
+            chunk.reinitialize();
+        }
+        root.reinitialize();
+        students = studentArray;
+        query = newQuery;
+        pool.invoke(root);
+        students = null;
+        event.finish();
+    }
+
+    /**
+     * Tarea de un trozo del arreglo de estudiantes.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Índice del trozo.
+         */
+        private final int index;
+        /**
+         * Conteo de nombres de los estudiantes inactivos del trozo.
+         */
+        private final NameCountTable names = new NameCountTable(EXPECTED_NAMES);
+        /**
+         * Suma de edades de los estudiantes activos del trozo.
+         */
+        private double ageSum;
+        /**
+         * Estudiantes del trozo que cumplen la consulta.
+         */
+        private long count;
+
+        /**
+         * Constructor.
+         *
+         * @param index Índice del trozo
+         */
+        Chunk(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            final Student[] array = students;
+            final int begin = (int) ((long) index * array.length / chunks.length);
+            final int end = (int) ((long) (index + 1) * array.length / chunks.length);
+            ageSum = 0.0;
+            count = 0;
+            names.clear();
+            if (query == AVERAGE_AGE) {
+                for (int i = begin; i < end; i++) {
+                    if (array[i].checkIsCurrent()) {
+                        ageSum += array[i].getAge();
+                        count++;
+                    }
+                }
+            } else if (query == COMMON_NAME) {
+                for (int i = begin; i < end; i++) {
+                    if (!array[i].checkIsCurrent()) {
+                        names.increment(array[i].getFirstName());
+                    }
+                }
+            } else {
+                for (int i = begin; i < end; i++) {
+                    final Student s = array[i];
+                    if (!s.checkIsCurrent() && s.getAge() > 20 && s.getGrade() < 65) {
+                        count++;
+                    }
+                }
+            }
+        }
+    }
+}
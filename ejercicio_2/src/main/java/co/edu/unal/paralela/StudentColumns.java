@@ -0,0 +1,108 @@
+package co.edu.unal.paralela;
+
+import java.util.stream.IntStream;
+
+/**
+ * Datos de estudiantes en forma de columnas: un arreglo por atributo en
+ * lugar de un objeto Student por registro. Ocupa menos memoria y se recorre
+ * de forma secuencial en memoria, lo que conviene con cientos de millones de
+ * registros. Los arreglos se comparten con quien los obtiene, no se copian.
+ */
+public final class StudentColumns {
+    /**
+     * Nombres.
+     */
+    private final String[] firstNames;
+    /**
+     * Apellidos.
+     */
+    private final String[] lastNames;
+    /**
+     * Edades.
+     */
+    private final double[] ages;
+    /**
+     * Notas.
+     */
+    private final int[] grades;
+    /**
+     * Si cada estudiante está activo.
+     */
+    private final boolean[] current;
+
+    /**
+     * Constructor.
+     *
+     * @param firstNames Nombres
+     * @param lastNames Apellidos
+     * @param ages Edades
+     * @param grades Notas
+     * @param current Si cada estudiante está activo
+     */
+    public StudentColumns(final String[] firstNames, final String[] lastNames, final double[] ages,
+            final int[] grades, final boolean[] current) {
+        final int n = firstNames.length;
+        if (lastNames.length != n || ages.length != n || grades.length != n || current.length != n) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.ages = ages;
+        this.grades = grades;
+        this.current = current;
+    }
+
+    /**
+     * @return El número de estudiantes
+     */
+    public int size() {
+        return firstNames.length;
+    }
+
+    /**
+     * @return La columna de nombres
+     */
+    public String[] getFirstNames() {
+        return firstNames;
+    }
+
+    /**
+     * @return La columna de apellidos
+     */
+    public String[] getLastNames() {
+        return lastNames;
+    }
+
+    /**
+     * @return La columna de edades
+     */
+    public double[] getAges() {
+        return ages;
+    }
+
+    /**
+     * @return La columna de notas
+     */
+    public int[] getGrades() {
+        return grades;
+    }
+
+    /**
+     * @return La columna que indica si cada estudiante está activo
+     */
+    public boolean[] getCurrent() {
+        return current;
+    }
+
+    /**
+     * Crea en paralelo un objeto Student por registro.
+     *
+     * @return Los estudiantes
+     */
+    public Student[] toStudents() {
+        final Student[] students = new Student[size()];
+        IntStream.range(0, students.length).parallel().forEach(i ->
+            students[i] = new Student(firstNames[i], lastNames[i], ages[i], grades[i], current[i]));
+        return students;
+    }
+}
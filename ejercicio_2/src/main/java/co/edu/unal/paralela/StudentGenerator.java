@@ -0,0 +1,409 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generador paralelo y reproducible de estudiantes sintéticos para medir
+ * StudentAnalytics con millones de registros.
+ *
+ * El arreglo se divide en trozos de tamaño fijo y cada trozo usa su propio
+ * SplittableRandom, obtenido con split() en orden a partir de la semilla. Así
+ * el resultado sólo depende de la semilla y de la configuración, no del
+ * número de hilos ni del orden en que se procesan los trozos.
+ *
+ * Es inmutable: cada método with* devuelve una copia con la opción cambiada,
+ * por ejemplo StudentGenerator.defaults().withSeed(7).withNameSkew(1.2).
+ * Por defecto reproduce la distribución de StudentAnalyticsTest: nombres
+ * uniformes, edad uniforme en [0, 100), nota uniforme en 1..100 y un 30% de
+ * estudiantes activos.
+ */
+public final class StudentGenerator {
+    /**
+     * Número de estudiantes generados con el mismo SplittableRandom.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+    /**
+     * Nombres por defecto.
+     */
+    private static final String[] FIRST_NAMES = {"Sanjay", "Yunming", "John", "Vivek", "Shams", "Max"};
+    /**
+     * Apellidos por defecto.
+     */
+    private static final String[] LAST_NAMES = {"Chatterjee", "Zhang", "Smith", "Sarkar", "Imam", "Grossman"};
+    /**
+     * Nota mínima.
+     */
+    private static final int MIN_GRADE = 1;
+    /**
+     * Nota máxima.
+     */
+    private static final int MAX_GRADE = 100;
+    /**
+     * Configuración por defecto.
+     */
+    private static final StudentGenerator DEFAULTS = new StudentGenerator(123L, FIRST_NAMES, LAST_NAMES, 0.0,
+            0.3, 0.0, 100.0, 0.0, 0.0, 0.0, 0.0);
+
+    /**
+     * Semilla de la generación.
+     */
+    private final long seed;
+    /**
+     * Nombres posibles, del más al menos frecuente.
+     */
+    private final String[] firstNames;
+    /**
+     * Apellidos posibles, del más al menos frecuente.
+     */
+    private final String[] lastNames;
+    /**
+     * Exponente de Zipf de la frecuencia de nombres; 0 es uniforme.
+     */
+    private final double nameSkew;
+    /**
+     * Probabilidad de que un estudiante esté activo.
+     */
+    private final double activeRatio;
+    /**
+     * Edad mínima.
+     */
+    private final double minAge;
+    /**
+     * Edad máxima (excluida en la distribución uniforme).
+     */
+    private final double maxAge;
+    /**
+     * Media de la edad, si la edad es normal.
+     */
+    private final double ageMean;
+    /**
+     * Desviación estándar de la edad, o 0 para una edad uniforme.
+     */
+    private final double ageStdDev;
+    /**
+     * Media de la nota, si la nota es normal.
+     */
+    private final double gradeMean;
+    /**
+     * Desviación estándar de la nota, o 0 para una nota uniforme.
+     */
+    private final double gradeStdDev;
+    /**
+     * Distribución acumulada de la posición de un nombre.
+     */
+    private final double[] firstNameCdf;
+    /**
+     * Distribución acumulada de la posición de un apellido.
+     */
+    private final double[] lastNameCdf;
+
+    /**
+     * Constructor.
+     *
+     * @param seed Semilla de la generación
+     * @param firstNames Nombres posibles
+     * @param lastNames Apellidos posibles
+     * @param nameSkew Exponente de Zipf de la frecuencia de nombres
+     * @param activeRatio Probabilidad de que un estudiante esté activo
+     * @param minAge Edad mínima
+     * @param maxAge Edad máxima
+     * @param ageMean Media de la edad
+     * @param ageStdDev Desviación estándar de la edad, o 0 si es uniforme
+     * @param gradeMean Media de la nota
+     * @param gradeStdDev Desviación estándar de la nota, o 0 si es uniforme
+     */
+    private StudentGenerator(final long seed, final String[] firstNames, final String[] lastNames,
+            final double nameSkew, final double activeRatio, final double minAge, final double maxAge,
+            final double ageMean, final double ageStdDev, final double gradeMean, final double gradeStdDev) {
+        this.seed = seed;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.nameSkew = nameSkew;
+        this.activeRatio = activeRatio;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.ageMean = ageMean;
+        this.ageStdDev = ageStdDev;
+        this.gradeMean = gradeMean;
+        this.gradeStdDev = gradeStdDev;
+        this.firstNameCdf = zipfCdf(firstNames.length, nameSkew);
+        this.lastNameCdf = zipfCdf(lastNames.length, nameSkew);
+    }
+
+    /**
+     * @return La configuración por defecto
+     */
+    public static StudentGenerator defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param newSeed La semilla
+     * @return Una copia de este generador con la semilla indicada
+     */
+    public StudentGenerator withSeed(final long newSeed) {
+        return new StudentGenerator(newSeed, firstNames, lastNames, nameSkew, activeRatio, minAge, maxAge,
+                ageMean, ageStdDev, gradeMean, gradeStdDev);
+    }
+
+    /**
+     * Cambia los nombres y apellidos posibles. Con sesgo de Zipf, el primero
+     * de cada arreglo es el más frecuente.
+     *
+     * @param newFirstNames Los nombres posibles, al menos uno
+     * @param newLastNames Los apellidos posibles, al menos uno
+     * @return Una copia de este generador con los nombres indicados
+     */
+    public StudentGenerator withNames(final String[] newFirstNames, final String[] newLastNames) {
+        if (newFirstNames.length == 0 || newLastNames.length == 0) {
+            throw new IllegalArgumentException("At least one first name and one last name are required");
+        }
+        return new StudentGenerator(seed, newFirstNames.clone(), newLastNames.clone(), nameSkew, activeRatio,
+                minAge, maxAge, ageMean, ageStdDev, gradeMean, gradeStdDev);
+    }
+
+    /**
+     * Hace que la frecuencia de nombres y apellidos siga una ley de Zipf: el
+     * de posición r aparece con probabilidad proporcional a 1 / r^skew.
+     *
+     * @param skew El exponente, 0 para frecuencias uniformes
+     * @return Una copia de este generador con el sesgo indicado
+     */
+    public StudentGenerator withNameSkew(final double skew) {
+        if (skew < 0 || Double.isNaN(skew)) {
+            throw new IllegalArgumentException("skew = " + skew);
+        }
+        return new StudentGenerator(seed, firstNames, lastNames, skew, activeRatio, minAge, maxAge,
+                ageMean, ageStdDev, gradeMean, gradeStdDev);
+    }
+
+    /**
+     * @param ratio La probabilidad de que un estudiante esté activo, entre 0 y 1
+     * @return Una copia de este generador con la proporción indicada
+     */
+    public StudentGenerator withActiveRatio(final double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("ratio = " + ratio);
+        }
+        return new StudentGenerator(seed, firstNames, lastNames, nameSkew, ratio, minAge, maxAge,
+                ageMean, ageStdDev, gradeMean, gradeStdDev);
+    }
+
+    /**
+     * Hace que la edad sea uniforme en [min, max).
+     *
+     * @param min La edad mínima
+     * @param max La edad máxima, mayor que min
+     * @return Una copia de este generador con la distribución indicada
+     */
+    public StudentGenerator withUniformAge(final double min, final double max) {
+        if (!(min < max)) {
+            throw new IllegalArgumentException("min = " + min + ", max = " + max);
+        }
+        return new StudentGenerator(seed, firstNames, lastNames, nameSkew, activeRatio, min, max, 0.0, 0.0,
+                gradeMean, gradeStdDev);
+    }
+
+    /**
+     * Hace que la edad sea normal con la media y desviación indicadas,
+     * truncada al intervalo [min, max].
+     *
+     * @param mean La media
+     * @param stdDev La desviación estándar, positiva
+     * @param min La edad mínima
+     * @param max La edad máxima, mayor que min
+     * @return Una copia de este generador con la distribución indicada
+     */
+    public StudentGenerator withNormalAge(final double mean, final double stdDev, final double min,
+            final double max) {
+        if (!(stdDev > 0) || !(min < max)) {
+            throw new IllegalArgumentException("stdDev = " + stdDev + ", min = " + min + ", max = " + max);
+        }
+        return new StudentGenerator(seed, firstNames, lastNames, nameSkew, activeRatio, min, max, mean,
+                stdDev, gradeMean, gradeStdDev);
+    }
+
+    /**
+     * Hace que la nota sea uniforme en 1..100.
+     *
+     * @return Una copia de este generador con la distribución indicada
+     */
+    public StudentGenerator withUniformGrade() {
+        return new StudentGenerator(seed, firstNames, lastNames, nameSkew, activeRatio, minAge, maxAge,
+                ageMean, ageStdDev, 0.0, 0.0);
+    }
+
+    /**
+     * Hace que la nota sea normal con la media y desviación indicadas,
+     * redondeada y truncada a 1..100.
+     *
+     * @param mean La media
+     * @param stdDev La desviación estándar, positiva
+     * @return Una copia de este generador con la distribución indicada
+     */
+    public StudentGenerator withNormalGrade(final double mean, final double stdDev) {
+        if (!(stdDev > 0)) {
+            throw new IllegalArgumentException("stdDev = " + stdDev);
+        }
+        return new StudentGenerator(seed, firstNames, lastNames, nameSkew, activeRatio, minAge, maxAge,
+                ageMean, ageStdDev, mean, stdDev);
+    }
+
+    /**
+     * Genera n estudiantes en paralelo.
+     *
+     * @param n El número de estudiantes
+     * @return Los estudiantes generados
+     */
+    public Student[] generate(final int n) {
+        final Student[] students = new Student[n];
+        fill(n, (i, first, last, age, grade, current) ->
+            students[i] = new Student(firstNames[first], lastNames[last], age, grade, current));
+        return students;
+    }
+
+    /**
+     * Genera n estudiantes en paralelo en forma de columnas, sin crear un
+     * objeto por estudiante. Los valores coinciden con los de generate(n).
+     *
+     * @param n El número de estudiantes
+     * @return Las columnas generadas
+     */
+    public StudentColumns generateColumns(final int n) {
+        final String[] first = new String[n];
+        final String[] last = new String[n];
+        final double[] ages = new double[n];
+        final int[] grades = new int[n];
+        final boolean[] current = new boolean[n];
+        fill(n, (i, f, l, age, grade, isCurrent) -> {
+            first[i] = firstNames[f];
+            last[i] = lastNames[l];
+            ages[i] = age;
+            grades[i] = grade;
+            current[i] = isCurrent;
+        });
+        return new StudentColumns(first, last, ages, grades, current);
+    }
+
+    /**
+     * Destino de los valores generados para cada estudiante.
+     */
+    @FunctionalInterface
+    private interface Sink {
+        /**
+         * Recibe los datos del estudiante i.
+         *
+         * @param i El índice del estudiante
+         * @param firstName La posición del nombre
+         * @param lastName La posición del apellido
+         * @param age La edad
+         * @param grade La nota
+         * @param current Si está activo
+         */
+        void accept(int i, int firstName, int lastName, double age, int grade, boolean current);
+    }
+
+    /**
+     * Genera n estudiantes en paralelo, un trozo de CHUNK_SIZE por tarea.
+     *
+     * @param n El número de estudiantes
+     * @param sink El destino de los valores
+     */
+    private void fill(final int n, final Sink sink) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n = " + n);
+        }
+        final int chunks = (int) (((long) n + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            final SplittableRandom r = randoms[c];
+            final int end = (int) Math.min(n, (long) (c + 1) * CHUNK_SIZE);
+            for (int i = c * CHUNK_SIZE; i < end; i++) {
+                final int first = sample(firstNameCdf, r);
+                final int last = sample(lastNameCdf, r);
+                final double age = nextAge(r);
+                final int grade = nextGrade(r);
+                final boolean current = r.nextDouble() < activeRatio;
+                sink.accept(i, first, last, age, grade, current);
+            }
+        });
+    }
+
+    /**
+     * @param r El generador del trozo
+     * @return Una edad según la distribución configurada
+     */
+    private double nextAge(final SplittableRandom r) {
+        if (ageStdDev == 0.0) {
+            return minAge + r.nextDouble() * (maxAge - minAge);
+        }
+        return Math.max(minAge, Math.min(maxAge, ageMean + ageStdDev * gaussian(r)));
+    }
+
+    /**
+     * @param r El generador del trozo
+     * @return Una nota según la distribución configurada
+     */
+    private int nextGrade(final SplittableRandom r) {
+        if (gradeStdDev == 0.0) {
+            return MIN_GRADE + r.nextInt(MAX_GRADE - MIN_GRADE + 1);
+        }
+        final long grade = Math.round(gradeMean + gradeStdDev * gaussian(r));
+        return (int) Math.max(MIN_GRADE, Math.min(MAX_GRADE, grade));
+    }
+
+    /**
+     * Genera un valor normal estándar con el método de Box-Muller.
+     *
+     * @param r El generador del trozo
+     * @return El valor generado
+     */
+    private static double gaussian(final SplittableRandom r) {
+        final double u = 1.0 - r.nextDouble();
+        final double v = r.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+
+    /**
+     * Elige una posición según una distribución acumulada.
+     *
+     * @param cdf La distribución acumulada; el último valor es 1
+     * @param r El generador del trozo
+     * @return La posición elegida
+     */
+    private static int sample(final double[] cdf, final SplittableRandom r) {
+        if (cdf.length == 1) {
+            return 0;
+        }
+        final int found = Arrays.binarySearch(cdf, r.nextDouble());
+        return Math.min(cdf.length - 1, found >= 0 ? found + 1 : -found - 1);
+    }
+
+    /**
+     * Calcula la distribución acumulada de Zipf sobre k posiciones.
+     *
+     * @param k El número de posiciones
+     * @param skew El exponente
+     * @return La distribución acumulada
+     */
+    private static double[] zipfCdf(final int k, final double skew) {
+        final double[] cdf = new double[k];
+        double total = 0.0;
+        for (int r = 0; r < k; r++) {
+            total += 1.0 / Math.pow(r + 1, skew);
+            cdf[r] = total;
+        }
+        for (int r = 0; r < k; r++) {
+            cdf[r] /= total;
+        }
+        cdf[k - 1] = 1.0;
+        return cdf;
+    }
+}
@@ -0,0 +1,410 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Consultas paralelas de los N mejores (o peores) estudiantes según una clave
+ * numérica, por ejemplo la nota o la edad, y ordenamiento completo por clave.
+ *
+ * Ambas operaciones trabajan sobre claves primitivas 'double' extraídas una
+ * sola vez, no con un Comparator sobre objetos, y el orden es estable: entre
+ * estudiantes con la misma clave va primero el de menor índice en el arreglo
+ * original.
+ *
+ * Para los N primeros cada trozo del arreglo conserva sus N mejores en un
+ * montículo acotado, y al final se mezclan los montículos de todos los
+ * trozos, así que el costo es O(largo * log N) y no el de ordenar todo.
+ */
+public final class StudentRanking {
+    /**
+     * Número de estudiantes por trozo en las consultas de N primeros.
+     */
+    private static final int CHUNK_SIZE = 1 << 14;
+    /**
+     * Tamaño a partir del cual el ordenamiento deja de dividirse en tareas.
+     */
+    private static final int SORT_THRESHOLD = 1 << 13;
+
+    /**
+     * Constructor.
+     */
+    private StudentRanking() {
+    }
+
+    /**
+     * @param students Los estudiantes
+     * @param n El número de estudiantes a devolver
+     * @param activeOnly true para considerar sólo estudiantes activos, false
+     *        para sólo inactivos
+     * @return Los n estudiantes con mejor nota, de mayor a menor
+     */
+    public static Student[] bestByGrade(final Student[] students, final int n, final boolean activeOnly) {
+        return topN(students, n, Student::getGrade, true, s -> s.checkIsCurrent() == activeOnly);
+    }
+
+    /**
+     * @param students Los estudiantes
+     * @param n El número de estudiantes a devolver
+     * @param activeOnly true para considerar sólo estudiantes activos, false
+     *        para sólo inactivos
+     * @return Los n estudiantes con peor nota, de menor a mayor
+     */
+    public static Student[] worstByGrade(final Student[] students, final int n, final boolean activeOnly) {
+        return topN(students, n, Student::getGrade, false, s -> s.checkIsCurrent() == activeOnly);
+    }
+
+    /**
+     * Devuelve los n primeros estudiantes según key.
+     *
+     * @param students Los estudiantes
+     * @param n El número de estudiantes a devolver
+     * @param key La clave del orden
+     * @param highest true para los de mayor clave, false para los de menor
+     * @param filter Los estudiantes que participan
+     * @return Los estudiantes, del primero al último del orden
+     */
+    public static Student[] topN(final Student[] students, final int n, final ToDoubleFunction<Student> key,
+            final boolean highest, final Predicate<Student> filter) {
+        final int[] indices = topNIndices(students, n, key, highest, filter);
+        final Student[] result = new Student[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            result[i] = students[indices[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve los índices de los n primeros estudiantes según key.
+     *
+     * @param students Los estudiantes
+     * @param n El número de estudiantes a devolver
+     * @param key La clave del orden
+     * @param highest true para los de mayor clave, false para los de menor
+     * @param filter Los estudiantes que participan
+     * @return Los índices, del primero al último del orden; puede tener menos
+     *         de n si no hay suficientes estudiantes que pasen el filtro
+     */
+    public static int[] topNIndices(final Student[] students, final int n, final ToDoubleFunction<Student> key,
+            final boolean highest, final Predicate<Student> filter) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n = " + n);
+        }
+        if (n == 0 || students.length == 0) {
+            return new int[0];
+        }
+        final int chunks = (students.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final BoundedHeap[] heaps = new BoundedHeap[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            final BoundedHeap heap = new BoundedHeap(n);
+            final int end = Math.min(students.length, (c + 1) * CHUNK_SIZE);
+            for (int i = c * CHUNK_SIZE; i < end; i++) {
+                final Student s = students[i];
+                if (filter.test(s)) {
+                    heap.offer(signed(key.applyAsDouble(s), highest), i);
+                }
+            }
+            heaps[c] = heap;
+        });
+
+        final BoundedHeap merged = new BoundedHeap(n);
+        for (BoundedHeap heap : heaps) {
+            for (int e = 0; e < heap.size; e++) {
+                merged.offer(heap.keys[e], heap.indices[e]);
+            }
+        }
+        return merged.drainBestFirst();
+    }
+
+    /**
+     * Ordena de forma estable y en paralelo los índices de los estudiantes
+     * que pasan el filtro según key.
+     *
+     * @param students Los estudiantes
+     * @param key La clave del orden
+     * @param descending true para ordenar de mayor a menor clave
+     * @param filter Los estudiantes que participan
+     * @return Los índices ordenados
+     */
+    public static int[] sortedIndices(final Student[] students, final ToDoubleFunction<Student> key,
+            final boolean descending, final Predicate<Student> filter) {
+        final int[] indices = IntStream.range(0, students.length).parallel()
+                .filter(i -> filter.test(students[i])).toArray();
+        final double[] keys = new double[indices.length];
+        IntStream.range(0, indices.length).parallel()
+                .forEach(i -> keys[i] = signed(key.applyAsDouble(students[indices[i]]), descending));
+        // invoke() usa el pool del hilo actual, así que ExecutionContext.invoke también aplica aquí
+        new MergeSortTask(keys, indices, new double[keys.length], new int[indices.length], 0, indices.length)
+                .invoke();
+        return indices;
+    }
+
+    /**
+     * Ordena de forma estable y en paralelo los estudiantes que pasan el
+     * filtro según key.
+     *
+     * @param students Los estudiantes
+     * @param key La clave del orden
+     * @param descending true para ordenar de mayor a menor clave
+     * @param filter Los estudiantes que participan
+     * @return Los estudiantes ordenados
+     */
+    public static Student[] sorted(final Student[] students, final ToDoubleFunction<Student> key,
+            final boolean descending, final Predicate<Student> filter) {
+        final int[] indices = sortedIndices(students, key, descending, filter);
+        final Student[] result = new Student[indices.length];
+        IntStream.range(0, indices.length).parallel().forEach(i -> result[i] = students[indices[i]]);
+        return result;
+    }
+
+    /**
+     * Convierte una clave para que "mejor" sea siempre "mayor".
+     *
+     * @param key La clave
+     * @param highest true si las claves mayores van primero
+     * @return La clave con signo ajustado
+     */
+    private static double signed(final double key, final boolean highest) {
+        return highest ? key : -key;
+    }
+
+    /**
+     * @param keyA Clave del primer elemento
+     * @param indexA Índice del primer elemento
+     * @param keyB Clave del segundo elemento
+     * @param indexB Índice del segundo elemento
+     * @return Si el primer elemento va antes que el segundo
+     */
+    private static boolean before(final double keyA, final int indexA, final double keyB, final int indexB) {
+        final int cmp = Double.compare(keyA, keyB);
+        return cmp > 0 || (cmp == 0 && indexA < indexB);
+    }
+
+    /**
+     * Montículo de a lo sumo capacity elementos (clave, índice) que conserva
+     * los mejores. La raíz es el peor de los conservados, para poder
+     * reemplazarlo en O(log capacity).
+     */
+    private static final class BoundedHeap {
+        /**
+         * Claves de los elementos.
+         */
+        private final double[] keys;
+        /**
+         * Índices de los elementos.
+         */
+        private final int[] indices;
+        /**
+         * Número de elementos.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity El número máximo de elementos
+         */
+        BoundedHeap(final int capacity) {
+            this.keys = new double[capacity];
+            this.indices = new int[capacity];
+        }
+
+        /**
+         * Agrega un elemento si está entre los mejores vistos.
+         *
+         * @param key La clave con signo ajustado
+         * @param index El índice del estudiante
+         */
+        void offer(final double key, final int index) {
+            if (size < keys.length) {
+                int child = size++;
+                while (child > 0) {
+                    final int parent = (child - 1) / 2;
+                    if (!before(keys[parent], indices[parent], key, index)) {
+                        break;
+                    }
+                    keys[child] = keys[parent];
+                    indices[child] = indices[parent];
+                    child = parent;
+                }
+                keys[child] = key;
+                indices[child] = index;
+            } else if (before(key, index, keys[0], indices[0])) {
+                siftDown(key, index, size);
+            }
+        }
+
+        /**
+         * Coloca (key, index) en la raíz y lo baja hasta su lugar.
+         *
+         * @param key La clave
+         * @param index El índice
+         * @param limit El número de elementos del montículo
+         */
+        private void siftDown(final double key, final int index, final int limit) {
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= limit) {
+                    break;
+                }
+                // El hijo peor es el que debe subir
+                if (child + 1 < limit && before(keys[child], indices[child], keys[child + 1], indices[child + 1])) {
+                    child++;
+                }
+                if (!before(key, index, keys[child], indices[child])) {
+                    break;
+                }
+                keys[parent] = keys[child];
+                indices[parent] = indices[child];
+                parent = child;
+            }
+            keys[parent] = key;
+            indices[parent] = index;
+        }
+
+        /**
+         * Vacía el montículo.
+         *
+         * @return Los índices del mejor al peor
+         */
+        int[] drainBestFirst() {
+            final int[] result = new int[size];
+            for (int out = size - 1; out >= 0; out--) {
+                result[out] = indices[0];
+                final int last = out;
+                siftDown(keys[last], indices[last], last);
+            }
+            size = 0;
+            return result;
+        }
+    }
+
+    /**
+     * Ordenamiento por mezcla, estable y paralelo, de los índices según sus
+     * claves: las claves mayores van primero.
+     */
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Claves a ordenar.
+         */
+        private final double[] keys;
+        /**
+         * Índices que acompañan a cada clave.
+         */
+        private final int[] indices;
+        /**
+         * Espacio auxiliar para las claves.
+         */
+        private final double[] keyBuffer;
+        /**
+         * Espacio auxiliar para los índices.
+         */
+        private final int[] indexBuffer;
+        /**
+         * Inicio del rango (incluido).
+         */
+        private final int from;
+        /**
+         * Fin del rango (excluido).
+         */
+        private final int to;
+
+        /**
+         * Constructor.
+         *
+         * @param keys Claves a ordenar
+         * @param indices Índices que acompañan a cada clave
+         * @param keyBuffer Espacio auxiliar para las claves
+         * @param indexBuffer Espacio auxiliar para los índices
+         * @param from Inicio del rango (incluido)
+         * @param to Fin del rango (excluido)
+         */
+        MergeSortTask(final double[] keys, final int[] indices, final double[] keyBuffer,
+                final int[] indexBuffer, final int from, final int to) {
+            this.keys = keys;
+            this.indices = indices;
+            this.keyBuffer = keyBuffer;
+            this.indexBuffer = indexBuffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SORT_THRESHOLD) {
+                sortSequential(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(keys, indices, keyBuffer, indexBuffer, from, middle),
+                    new MergeSortTask(keys, indices, keyBuffer, indexBuffer, middle, to));
+            merge(from, middle, to);
+        }
+
+        /**
+         * Ordena un rango pequeño por mezcla sin crear tareas.
+         *
+         * @param lo Inicio del rango (incluido)
+         * @param hi Fin del rango (excluido)
+         */
+        private void sortSequential(final int lo, final int hi) {
+            if (hi - lo <= 32) {
+                // Inserción: estable porque sólo mueve elementos estrictamente peores
+                for (int i = lo + 1; i < hi; i++) {
+                    final double key = keys[i];
+                    final int index = indices[i];
+                    int j = i - 1;
+                    while (j >= lo && Double.compare(key, keys[j]) > 0) {
+                        keys[j + 1] = keys[j];
+                        indices[j + 1] = indices[j];
+                        j--;
+                    }
+                    keys[j + 1] = key;
+                    indices[j + 1] = index;
+                }
+                return;
+            }
+            final int middle = (lo + hi) >>> 1;
+            sortSequential(lo, middle);
+            sortSequential(middle, hi);
+            merge(lo, middle, hi);
+        }
+
+        /**
+         * Mezcla los rangos ordenados [lo, middle) y [middle, hi). Ante claves
+         * iguales toma primero el de la izquierda, lo que mantiene la
+         * estabilidad.
+         *
+         * @param lo Inicio del primer rango
+         * @param middle Fin del primer rango e inicio del segundo
+         * @param hi Fin del segundo rango
+         */
+        private void merge(final int lo, final int middle, final int hi) {
+            if (Double.compare(keys[middle - 1], keys[middle]) >= 0) {
+                return;
+            }
+            System.arraycopy(keys, lo, keyBuffer, lo, middle - lo);
+            System.arraycopy(indices, lo, indexBuffer, lo, middle - lo);
+            int left = lo;
+            int right = middle;
+            int out = lo;
+            while (left < middle && right < hi) {
+                if (Double.compare(keys[right], keyBuffer[left]) > 0) {
+                    keys[out] = keys[right];
+                    indices[out++] = indices[right++];
+                } else {
+                    keys[out] = keyBuffer[left];
+                    indices[out++] = indexBuffer[left++];
+                }
+            }
+            while (left < middle) {
+                keys[out] = keyBuffer[left];
+                indices[out++] = indexBuffer[left++];
+            }
+        }
+    }
+}
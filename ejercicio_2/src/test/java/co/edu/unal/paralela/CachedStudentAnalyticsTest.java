@@ -0,0 +1,133 @@
+package co.edu.unal.paralela;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class CachedStudentAnalyticsTest extends TestCase {
+    private final Student[] students = StudentGenerator.defaults().withSeed(5).generate(200_000);
+
+    /**
+     * Prueba que el caché devuelve los mismos resultados que StudentAnalytics y cuenta aciertos y fallos.
+     */
+    public void testResultsAndCounters() {
+        final StudentAnalytics analytics = new StudentAnalytics();
+        final CachedStudentAnalytics cache = new CachedStudentAnalytics(analytics, 16);
+
+        for (int r = 0; r < 3; r++) {
+            assertEquals(analytics.averageAgeOfEnrolledStudentsImperative(students),
+                    cache.averageAgeOfEnrolledStudents(students, 1), 1E-9);
+            assertEquals(analytics.mostCommonFirstNameOfInactiveStudentsImperative(students),
+                    cache.mostCommonFirstNameOfInactiveStudents(students, 1));
+            assertEquals(analytics.countNumberOfFailedStudentsOlderThan20Imperative(students),
+                    cache.countNumberOfFailedStudentsOlderThan20(students, 1));
+        }
+        assertEquals(3, cache.getMissCount());
+        assertEquals(6, cache.getHitCount());
+        assertEquals(3, cache.size());
+        assertEquals(6.0 / 9.0, cache.getHitRate(), 1E-9);
+
+        // Una versión nueva se calcula de nuevo; invalidar la anterior libera sus entradas
+        cache.averageAgeOfEnrolledStudents(students, 2);
+        assertEquals(4, cache.getMissCount());
+        cache.invalidate(1);
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Prueba que la huella identifica el contenido y no la identidad del arreglo.
+     */
+    public void testFingerprint() {
+        final Student[] copy = students.clone();
+        assertEquals(CachedStudentAnalytics.fingerprint(students), CachedStudentAnalytics.fingerprint(copy));
+
+        final Student first = copy[0];
+        copy[0] = new Student(first.getFirstName(), first.getLastName(), first.getAge(), first.getGrade() + 1,
+                first.checkIsCurrent());
+        assertFalse(CachedStudentAnalytics.fingerprint(students) == CachedStudentAnalytics.fingerprint(copy));
+
+        final CachedStudentAnalytics cache = new CachedStudentAnalytics(new StudentAnalytics(), 16);
+        cache.countNumberOfFailedStudentsOlderThan20(students);
+        cache.countNumberOfFailedStudentsOlderThan20(students.clone());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Prueba que se descarta la entrada usada hace más tiempo.
+     */
+    public void testLruEviction() {
+        final CachedStudentAnalytics cache = new CachedStudentAnalytics(new StudentAnalytics(), 2);
+        cache.get("q", 1, () -> "one");
+        cache.get("q", 2, () -> "two");
+        // Acceder a la versión 1 hace que la 2 sea la usada hace más tiempo
+        cache.get("q", 1, () -> "unused");
+        cache.get("q", 3, () -> "three");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("one", cache.get("q", 1, () -> "recomputed"));
+        assertEquals("recomputed two", cache.get("q", 2, () -> "recomputed two"));
+    }
+
+    /**
+     * Prueba que con muchos hilos pidiendo la misma clave el cálculo se hace una sola vez.
+     */
+    public void testSingleComputationUnderContention() throws Exception {
+        final CachedStudentAnalytics cache = new CachedStudentAnalytics(new StudentAnalytics(), 4);
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final int callers = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Future<Object>> results = new ArrayList<>(callers);
+            for (int c = 0; c < callers; c++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("slow", 7, () -> {
+                        computations.incrementAndGet();
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return 42;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                assertEquals(42, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(callers - 1, cache.getHitCount());
+    }
+
+    /**
+     * Prueba que un cálculo fallido no queda guardado.
+     */
+    public void testFailedComputationIsRetried() {
+        final CachedStudentAnalytics cache = new CachedStudentAnalytics(new StudentAnalytics(), 4);
+        try {
+            cache.get("q", 1, () -> {
+                throw new IllegalStateException("boom");
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(0, cache.size());
+        assertEquals("ok", cache.get("q", 1, () -> "ok"));
+    }
+}
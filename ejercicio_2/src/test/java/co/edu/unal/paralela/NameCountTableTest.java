@@ -0,0 +1,72 @@
+package co.edu.unal.paralela;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class NameCountTableTest extends TestCase {
+
+    /**
+     * Prueba los conteos contra un HashMap, con suficientes nombres para que la tabla crezca.
+     */
+    public void testCountsMatchHashMap() {
+        final NameCountTable table = new NameCountTable(4);
+        final int initialCapacity = table.getCapacity();
+        final Map<String, Integer> expected = new HashMap<>();
+        final Random rand = new Random(17);
+        for (int i = 0; i < 100_000; i++) {
+            final String name = "name" + rand.nextInt(1000);
+            expected.merge(name, 1, Integer::sum);
+            assertEquals((int) expected.get(name), table.increment(name));
+        }
+        assertEquals(expected.size(), table.size());
+        assertTrue(table.getCapacity() > initialCapacity);
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), table.get(entry.getKey()));
+        }
+        assertEquals(0, table.get("missing"));
+    }
+
+    /**
+     * Prueba que mostCommon desempata por orden alfabético y que addAll combina los conteos.
+     */
+    public void testMostCommonAndAddAll() {
+        final NameCountTable left = new NameCountTable(8);
+        final NameCountTable right = new NameCountTable(8);
+        assertNull(left.mostCommon());
+        left.add("Vivek", 3);
+        left.add("John", 2);
+        right.add("John", 1);
+        right.add("Max", 3);
+        assertEquals("Max", right.mostCommon());
+
+        left.addAll(right);
+        assertEquals(3, left.get("John"));
+        assertEquals("[John=3, Max=3, Vivek=3]", left.toString());
+        // Los tres empatan: gana el menor alfabéticamente
+        assertEquals("John", left.mostCommon());
+    }
+
+    /**
+     * Prueba que clear conserva la capacidad y deja la tabla lista para reutilizarse.
+     */
+    public void testClearKeepsCapacity() {
+        final NameCountTable table = new NameCountTable(2);
+        for (int i = 0; i < 100; i++) {
+            table.increment("n" + i);
+        }
+        final int capacity = table.getCapacity();
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(0, table.get("n5"));
+        assertNull(table.mostCommon());
+        for (int i = 0; i < 100; i++) {
+            table.increment("n" + (i % 10));
+        }
+        assertEquals(capacity, table.getCapacity());
+        assertEquals(10, table.size());
+        assertEquals(10, table.get("n3"));
+    }
+}
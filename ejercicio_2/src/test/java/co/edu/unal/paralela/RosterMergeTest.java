@@ -0,0 +1,138 @@
+package co.edu.unal.paralela;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class RosterMergeTest extends TestCase {
+    final static int REPEATS = 3;
+
+    /**
+     * Crea n registros con distinctNames nombres distintos repartidos al azar, como varias listas concatenadas.
+     */
+    private static Student[] createRoster(final int n, final int distinctNames, final long seed) {
+        final Random r = new Random(seed);
+        final Student[] students = new Student[n];
+        for (int i = 0; i < n; i++) {
+            final int name = r.nextInt(distinctNames);
+            students[i] = new Student("First" + (name % 1000), "Last" + (name / 1000), r.nextDouble() * 100.0,
+                    1 + r.nextInt(100), r.nextInt(4) == 0);
+        }
+        return students;
+    }
+
+    private static void assertSameStudents(final Student[] expected, final Student[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getFirstName(), actual[i].getFirstName());
+            assertEquals(expected[i].getLastName(), actual[i].getLastName());
+            assertEquals(expected[i].getAge(), actual[i].getAge(), 0.0);
+            assertEquals(expected[i].getGrade(), actual[i].getGrade());
+            assertEquals(expected[i].checkIsCurrent(), actual[i].checkIsCurrent());
+        }
+    }
+
+    /**
+     * Prueba dedup contra seqDedup con todas las reglas, con pocos y con muchos nombres repetidos.
+     */
+    public void testDedupMatchesSequential() {
+        for (int distinct : new int[] {10, 50_000, 1_000_000}) {
+            final Student[] students = createRoster(300_000, distinct, distinct);
+            for (ConflictRule rule : ConflictRule.values()) {
+                assertSameStudents(RosterMerge.seqDedup(students, rule, rule, rule),
+                        RosterMerge.dedup(students, rule, rule, rule));
+            }
+        }
+        assertEquals(0, RosterMerge.dedup(new Student[0]).length);
+    }
+
+    /**
+     * Prueba las reglas de conflicto sobre un caso pequeño.
+     */
+    public void testConflictRules() {
+        final Student only = new Student("Max", "Grossman", 30.0, 70, false);
+        final Student[] students = {
+            new Student("John", "Smith", 20.0, 80, true),
+            only,
+            new Student("John", "Smith", 25.0, 60, false),
+            new Student("John", "Zhang", 40.0, 90, false),
+            new Student("John", "Smith", 22.0, 95, false),
+        };
+        final Student[] merged = RosterMerge.dedup(students);
+        assertEquals(3, merged.length);
+        // Primera aparición: Smith, Grossman, Zhang
+        assertEquals("Smith", merged[0].getLastName());
+        assertEquals(22.0, merged[0].getAge(), 0.0);
+        assertEquals(95, merged[0].getGrade());
+        assertTrue(merged[0].checkIsCurrent());
+        assertSame(only, merged[1]);
+        assertEquals("Zhang", merged[2].getLastName());
+
+        final Student smith = RosterMerge.dedup(students, ConflictRule.FIRST, ConflictRule.MIN, ConflictRule.MIN)[0];
+        assertEquals(20.0, smith.getAge(), 0.0);
+        assertEquals(60, smith.getGrade());
+        assertFalse(smith.checkIsCurrent());
+        assertSame(students[0], RosterMerge.dedup(students, ConflictRule.FIRST, ConflictRule.FIRST,
+                ConflictRule.FIRST)[0]);
+    }
+
+    /**
+     * Prueba joinIndices contra una reunión secuencial con HashMap, incluido el orden de los pares.
+     */
+    public void testJoinMatchesSequential() {
+        final Student[] left = createRoster(200_000, 150_000, 1);
+        final Student[] right = createRoster(120_000, 150_000, 2);
+        final Map<String, List<Integer>> byName = new HashMap<>();
+        for (int r = 0; r < right.length; r++) {
+            byName.computeIfAbsent(right[r].getFirstName() + " " + right[r].getLastName(), k -> new ArrayList<>())
+                    .add(r);
+        }
+        final List<int[]> expected = new ArrayList<>();
+        for (int l = 0; l < left.length; l++) {
+            final List<Integer> matches = byName.get(left[l].getFirstName() + " " + left[l].getLastName());
+            if (matches != null) {
+                for (int r : matches) {
+                    expected.add(new int[] {l, r});
+                }
+            }
+        }
+
+        final int[][] pairs = RosterMerge.joinIndices(left, right);
+        assertEquals(expected.size(), pairs[0].length);
+        assertEquals(pairs[0].length, pairs[1].length);
+        for (int k = 0; k < expected.size(); k++) {
+            assertEquals(expected.get(k)[0], pairs[0][k]);
+            assertEquals(expected.get(k)[1], pairs[1][k]);
+        }
+
+        final Student[][] students = RosterMerge.join(left, right);
+        assertEquals(expected.size(), students.length);
+        assertSame(left[pairs[0][7]], students[7][0]);
+        assertSame(right[pairs[1][7]], students[7][1]);
+        assertEquals(0, RosterMerge.joinIndices(left, new Student[0])[0].length);
+    }
+
+    /**
+     * Compara dedup con seqDedup sobre un millón de registros.
+     */
+    public void testDedupPerformance() {
+        final Student[] students = createRoster(1_000_000, 500_000, 9);
+        long seqTime = Long.MAX_VALUE;
+        long parTime = Long.MAX_VALUE;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.nanoTime();
+            RosterMerge.seqDedup(students, ConflictRule.LAST, ConflictRule.MAX, ConflictRule.MAX);
+            seqTime = Math.min(seqTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            RosterMerge.dedup(students);
+            parTime = Math.min(parTime, System.nanoTime() - start);
+        }
+        assertTrue("Expected dedup of " + students.length + " students to beat seqDedup, got " + parTime / 1_000_000
+                + " vs " + seqTime / 1_000_000 + " ms", parTime < seqTime);
+    }
+}
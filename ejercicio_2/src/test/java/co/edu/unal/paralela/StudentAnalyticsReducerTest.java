@@ -0,0 +1,91 @@
+package co.edu.unal.paralela;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StudentAnalyticsReducerTest extends TestCase {
+    // Bytes por consulta que se toleran, por ejemplo el nodo con que el hilo que llama espera al pool
+    final static private long BUDGET = 512;
+    final static private int CALLS = 200;
+    private final static String[] firstNames = {"Sanjay", "Yunming", "John", "Vivek", "Shams", "Max"};
+    private final static String[] lastNames = {"Chatterjee", "Zhang", "Smith", "Sarkar", "Imam", "Grossman"};
+
+    private static Student[] generateStudentData(final int n, final int nCurrent) {
+        final Student[] students = new Student[n];
+        final Random r = new Random(123);
+        for (int s = 0; s < n; s++) {
+            final String firstName = firstNames[r.nextInt(firstNames.length)];
+            final String lastName = lastNames[r.nextInt(lastNames.length)];
+            students[s] = new Student(firstName, lastName, r.nextDouble() * 100.0, 1 + r.nextInt(100), s < nCurrent);
+        }
+        return students;
+    }
+
+    /**
+     * Prueba que las tres consultas coinciden con las versiones imperativas, también al reutilizar la instancia.
+     */
+    public void testMatchesImperative() {
+        final StudentAnalytics analytics = new StudentAnalytics();
+        final StudentAnalyticsReducer reducer = new StudentAnalyticsReducer(7);
+        for (int n : new int[] {200_000, 1000, 5}) {
+            final Student[] students = generateStudentData(n, n / 3);
+            for (int r = 0; r < 2; r++) {
+                assertEquals(analytics.averageAgeOfEnrolledStudentsImperative(students),
+                        reducer.averageAgeOfEnrolledStudents(students), 1e-9);
+                assertEquals(analytics.mostCommonFirstNameOfInactiveStudentsImperative(students),
+                        reducer.mostCommonFirstNameOfInactiveStudents(students));
+                assertEquals(analytics.countNumberOfFailedStudentsOlderThan20Imperative(students),
+                        reducer.countNumberOfFailedStudentsOlderThan20(students));
+            }
+        }
+        assertNull(reducer.mostCommonFirstNameOfInactiveStudents(generateStudentData(10, 10)));
+    }
+
+    /**
+     * Prueba que, una vez caliente, cada consulta reserva menos de BUDGET bytes entre el hilo que llama y
+     * los trabajadores del pool, frente a lo que reservan los streams paralelos.
+     */
+    public void testAllocationBudget() {
+        final Student[] students = generateStudentData(50_000, 15_000);
+        final StudentAnalytics analytics = new StudentAnalytics();
+        try (ExecutionContext context = ExecutionContext.dedicated("alloc-students", 4)) {
+            final StudentAnalyticsReducer reducer = new StudentAnalyticsReducer(16, context);
+            long sink = 0;
+            // Calentamiento: compila el código y arranca los trabajadores
+            for (int i = 0; i < 2000; i++) {
+                sink += query(reducer, students);
+                sink += analytics.mostCommonFirstNameOfInactiveStudentsParallelStream(students, context).length();
+            }
+            final AllocationMeter meter = AllocationMeter.forCallerAndWorkers("alloc-students-worker");
+
+            long before = meter.allocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                sink += query(reducer, students);
+            }
+            final long reducerBytes = (meter.allocatedBytes() - before) / (3 * CALLS);
+
+            before = meter.allocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                sink += analytics.mostCommonFirstNameOfInactiveStudentsParallelStream(students, context).length();
+            }
+            final long streamBytes = (meter.allocatedBytes() - before) / CALLS;
+
+            // Usar los resultados evita que el compilador descarte las consultas
+            assertTrue(sink > 0);
+            final String allocated = "Allocated bytes per query: StudentAnalyticsReducer " + reducerBytes
+                    + ", mostCommonFirstNameOfInactiveStudentsParallelStream " + streamBytes;
+            assertTrue(allocated, reducerBytes < BUDGET);
+            assertTrue(allocated, streamBytes > 100 * BUDGET);
+        }
+    }
+
+    /**
+     * Ejecuta las tres consultas.
+     */
+    private static long query(final StudentAnalyticsReducer reducer, final Student[] students) {
+        return (long) reducer.averageAgeOfEnrolledStudents(students)
+                + reducer.mostCommonFirstNameOfInactiveStudents(students).length()
+                + reducer.countNumberOfFailedStudentsOlderThan20(students);
+    }
+}
@@ -1,6 +1,17 @@
 package co.edu.unal.paralela;
 
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
 
 import junit.framework.TestCase;
 
@@ -160,4 +171,82 @@ public class StudentAnalyticsTest extends TestCase {
         assertTrue(msg, speedup > 1.2);
     }
 
+
+    /**
+     * Prueba que cada método con streams paralelos emite un evento de JFR con su tamaño de entrada.
+     */
+    public void testJfrKernelEvents() throws InterruptedException {
+        final Student[] students = generateStudentData();
+        final List<RecordedEvent> kernels = new CopyOnWriteArrayList<>();
+        final CountDownLatch kernelsSeen = new CountDownLatch(3);
+
+        try (RecordingStream stream = new RecordingStream()) {
+            // Los eventos se leen después de cerrar el flujo, así que no se pueden reutilizar
+            stream.setReuse(false);
+            stream.enable(KernelEvent.class);
+            stream.onEvent("co.edu.unal.paralela.Kernel", event -> {
+                if (event.getString("kernel").endsWith("ParallelStream")) {
+                    kernels.add(event);
+                    kernelsSeen.countDown();
+                }
+            });
+            stream.startAsync();
+
+            final StudentAnalytics analytics = new StudentAnalytics();
+            analytics.averageAgeOfEnrolledStudentsParallelStream(students);
+            analytics.mostCommonFirstNameOfInactiveStudentsParallelStream(students);
+            analytics.countNumberOfFailedStudentsOlderThan20ParallelStream(students);
+            assertTrue("Missing kernel events", kernelsSeen.await(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals(3, kernels.size());
+        for (RecordedEvent kernel : kernels) {
+            assertEquals(students.length, kernel.getLong("inputSize"));
+            assertTrue(kernel.getInt("tasks") >= 1);
+            assertTrue(kernel.getLong("steals") >= 0);
+        }
+    }
+
+    /**
+     * Prueba que las consultas en un pool dedicado terminan aunque el pool común esté saturado,
+     * y que corren en los hilos de ese pool.
+     */
+    public void testExecutionContextIsolation() throws Exception {
+        final Student[] students = generateStudentData();
+        final StudentAnalytics analytics = new StudentAnalytics();
+        final double expectedAge = analytics.averageAgeOfEnrolledStudentsImperative(students);
+        final String expectedName = analytics.mostCommonFirstNameOfInactiveStudentsImperative(students);
+        final int expectedFailed = analytics.countNumberOfFailedStudentsOlderThan20Imperative(students);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService caller = Executors.newSingleThreadExecutor();
+        try (ExecutionContext context = ExecutionContext.dedicated("analytics", 2)) {
+            final ForkJoinPool common = ForkJoinPool.commonPool();
+            for (int i = 0; i < common.getParallelism() + 4; i++) {
+                common.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            final Future<Double> age = caller.submit(
+                    () -> analytics.averageAgeOfEnrolledStudentsParallelStream(students, context));
+            assertEquals(expectedAge, age.get(60, TimeUnit.SECONDS), 1e-9);
+            final Future<String> name = caller.submit(
+                    () -> analytics.mostCommonFirstNameOfInactiveStudentsParallelStream(students, context));
+            assertEquals(expectedName, name.get(60, TimeUnit.SECONDS));
+            final Future<Integer> failed = caller.submit(
+                    () -> analytics.countNumberOfFailedStudentsOlderThan20ParallelStream(students, context));
+            assertEquals(expectedFailed, (int) failed.get(60, TimeUnit.SECONDS));
+
+            final String thread = context.invoke(() -> Thread.currentThread().getName());
+            assertTrue(thread, thread.startsWith("analytics-worker-"));
+        } finally {
+            release.countDown();
+            caller.shutdown();
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package co.edu.unal.paralela;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+public class StudentGeneratorTest extends TestCase {
+    /**
+     * Prueba que la misma semilla produce los mismos estudiantes, sin importar el número de hilos.
+     */
+    public void testReproducibleAcrossParallelism() {
+        final int n = 3 * StudentGenerator.CHUNK_SIZE + 17;
+        final StudentGenerator generator = StudentGenerator.defaults().withSeed(42).withNameSkew(1.1);
+        final Student[] parallel = generator.generate(n);
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final Student[] sequential;
+        try {
+            sequential = single.submit(() -> generator.generate(n)).join();
+        } finally {
+            single.shutdown();
+        }
+
+        assertEquals(n, parallel.length);
+        for (int i = 0; i < n; i++) {
+            assertSameStudent(sequential[i], parallel[i]);
+        }
+
+        final Student[] otherSeed = generator.withSeed(43).generate(n);
+        int equalAges = 0;
+        for (int i = 0; i < n; i++) {
+            if (otherSeed[i].getAge() == parallel[i].getAge()) {
+                equalAges++;
+            }
+        }
+        assertTrue(equalAges < n / 100);
+    }
+
+    /**
+     * Prueba que las columnas contienen los mismos valores que el arreglo de estudiantes.
+     */
+    public void testColumnsMatchStudents() {
+        final int n = 100_000;
+        final StudentGenerator generator = StudentGenerator.defaults().withSeed(7);
+        final Student[] students = generator.generate(n);
+        final StudentColumns columns = generator.generateColumns(n);
+
+        assertEquals(n, columns.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(students[i].getFirstName(), columns.getFirstNames()[i]);
+            assertEquals(students[i].getLastName(), columns.getLastNames()[i]);
+            assertEquals(students[i].getAge(), columns.getAges()[i]);
+            assertEquals(students[i].getGrade(), columns.getGrades()[i]);
+            assertEquals(students[i].checkIsCurrent(), columns.getCurrent()[i]);
+        }
+        final Student[] rebuilt = columns.toStudents();
+        for (int i = 0; i < n; i += 997) {
+            assertSameStudent(students[i], rebuilt[i]);
+        }
+    }
+
+    /**
+     * Prueba la proporción de activos y los rangos por defecto de edad y nota.
+     */
+    public void testDefaultDistributions() {
+        final int n = 500_000;
+        final Student[] students = StudentGenerator.defaults().generate(n);
+        int active = 0;
+        for (Student s : students) {
+            if (s.checkIsCurrent()) {
+                active++;
+            }
+            assertTrue(s.getAge() >= 0.0 && s.getAge() < 100.0);
+            assertTrue(s.getGrade() >= 1 && s.getGrade() <= 100);
+        }
+        assertEquals(0.3, (double) active / n, 0.01);
+    }
+
+    /**
+     * Prueba que con sesgo de Zipf la frecuencia de cada nombre es proporcional a 1 / r^s.
+     */
+    public void testZipfNameSkew() {
+        final int n = 1_000_000;
+        final String[] names = {"A", "B", "C", "D"};
+        final Student[] students = StudentGenerator.defaults().withNames(names, names).withNameSkew(1.0)
+                .generate(n);
+        final int[] counts = new int[names.length];
+        for (Student s : students) {
+            counts[s.getFirstName().charAt(0) - 'A']++;
+        }
+        // Con s = 1 las probabilidades son (1, 1/2, 1/3, 1/4) / (25/12)
+        final double total = 25.0 / 12.0;
+        for (int r = 0; r < names.length; r++) {
+            assertEquals(1.0 / (r + 1) / total, (double) counts[r] / n, 0.005);
+        }
+        assertEquals("A", new StudentAnalytics().mostCommonFirstNameOfInactiveStudentsParallelStream(students));
+    }
+
+    /**
+     * Prueba las distribuciones normales truncadas de edad y nota.
+     */
+    public void testNormalDistributions() {
+        final int n = 500_000;
+        final Student[] students = StudentGenerator.defaults().withNormalAge(22.0, 3.0, 16.0, 60.0)
+                .withNormalGrade(70.0, 10.0).withActiveRatio(1.0).generate(n);
+        double ageSum = 0.0;
+        double gradeSum = 0.0;
+        for (Student s : students) {
+            assertTrue(s.checkIsCurrent());
+            assertTrue(s.getAge() >= 16.0 && s.getAge() <= 60.0);
+            assertTrue(s.getGrade() >= 1 && s.getGrade() <= 100);
+            ageSum += s.getAge();
+            gradeSum += s.getGrade();
+        }
+        assertEquals(22.0, ageSum / n, 0.05);
+        assertEquals(70.0, gradeSum / n, 0.1);
+    }
+
+    /**
+     * Compara el generador paralelo con la generación secuencial con Random de StudentAnalyticsTest.
+     */
+    public void testGeneratorPerf() {
+        final int n = 4_000_000;
+        final StudentGenerator generator = StudentGenerator.defaults();
+        generator.generate(n);
+
+        final long parallelStart = System.nanoTime();
+        generator.generate(n);
+        final long parallelTime = System.nanoTime() - parallelStart;
+
+        final long sequentialStart = System.nanoTime();
+        final Random r = new Random(123);
+        final String[] names = {"Sanjay", "Yunming", "John", "Vivek", "Shams", "Max"};
+        final Student[] students = new Student[n];
+        for (int s = 0; s < n; s++) {
+            students[s] = new Student(names[r.nextInt(names.length)], names[r.nextInt(names.length)],
+                    r.nextDouble() * 100.0, 1 + r.nextInt(100), s < n * 3 / 10);
+        }
+        final long sequentialTime = System.nanoTime() - sequentialStart;
+
+        final double expected = 0.5;
+        final double speedup = (double) sequentialTime / parallelTime;
+        final String errMsg = String.format("It was expected that the parallel generator would be at least %fx "
+                + "as fast as sequential generation, but it only achieved %fx", expected, speedup);
+        assertTrue(errMsg, speedup >= expected);
+    }
+
+    private static void assertSameStudent(final Student expected, final Student actual) {
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getAge(), actual.getAge());
+        assertEquals(expected.getGrade(), actual.getGrade());
+        assertEquals(expected.checkIsCurrent(), actual.checkIsCurrent());
+    }
+}
@@ -0,0 +1,148 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import junit.framework.TestCase;
+
+public class StudentRankingTest extends TestCase {
+    final static int REPEATS = 5;
+
+    /**
+     * Calcula el orden esperado con un ordenamiento secuencial y estable.
+     */
+    private static int[] expectedOrder(final Student[] students, final ToDoubleFunction<Student> key,
+            final boolean highest, final Predicate<Student> filter) {
+        final Integer[] boxed = IntStream.range(0, students.length).filter(i -> filter.test(students[i]))
+                .boxed().toArray(Integer[]::new);
+        Comparator<Integer> byKey = Comparator.comparingDouble(i -> key.applyAsDouble(students[i]));
+        if (highest) {
+            byKey = byKey.reversed();
+        }
+        // Arrays.sort sobre objetos es estable: los empates conservan el índice creciente
+        Arrays.sort(boxed, byKey);
+        final int[] result = new int[boxed.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    /**
+     * Prueba los N primeros por nota y por edad, entre activos e inactivos, con el resultado secuencial.
+     */
+    public void testTopNMatchesSequential() {
+        final Student[] students = StudentGenerator.defaults().withSeed(11).generate(200_000);
+        for (boolean active : new boolean[] {true, false}) {
+            final Predicate<Student> filter = s -> s.checkIsCurrent() == active;
+            for (boolean highest : new boolean[] {true, false}) {
+                final int[] gradeOrder = expectedOrder(students, Student::getGrade, highest, filter);
+                final int[] ageOrder = expectedOrder(students, Student::getAge, highest, filter);
+                for (int n : new int[] {1, 10, 1000}) {
+                    assertTrue(Arrays.equals(Arrays.copyOf(gradeOrder, n),
+                            StudentRanking.topNIndices(students, n, Student::getGrade, highest, filter)));
+                    assertTrue(Arrays.equals(Arrays.copyOf(ageOrder, n),
+                            StudentRanking.topNIndices(students, n, Student::getAge, highest, filter)));
+                }
+            }
+        }
+
+        final Student[] best = StudentRanking.bestByGrade(students, 5, true);
+        final Student[] worst = StudentRanking.worstByGrade(students, 5, false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(best[i].checkIsCurrent());
+            assertEquals(100, best[i].getGrade());
+            assertFalse(worst[i].checkIsCurrent());
+            assertEquals(1, worst[i].getGrade());
+        }
+    }
+
+    /**
+     * Prueba que con menos estudiantes que N se devuelven todos, y con N = 0 ninguno.
+     */
+    public void testTopNSmallInputs() {
+        final Student[] students = StudentGenerator.defaults().withSeed(3).generate(50);
+        final Predicate<Student> all = s -> true;
+        assertEquals(0, StudentRanking.topNIndices(students, 0, Student::getGrade, true, all).length);
+        assertEquals(0, StudentRanking.topNIndices(new Student[0], 5, Student::getGrade, true, all).length);
+        assertTrue(Arrays.equals(expectedOrder(students, Student::getAge, false, all),
+                StudentRanking.topNIndices(students, 100, Student::getAge, false, all)));
+        try {
+            StudentRanking.topNIndices(students, -1, Student::getGrade, true, all);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+
+    /**
+     * Prueba que los empates conservan el orden original: todas las claves iguales.
+     */
+    public void testStableTies() {
+        final Student[] students = new Student[100_000];
+        for (int i = 0; i < students.length; i++) {
+            students[i] = new Student("A", "B", 20.0, 50, i % 3 != 0);
+        }
+        final Predicate<Student> active = Student::checkIsCurrent;
+        final int[] top = StudentRanking.topNIndices(students, 50, Student::getGrade, false, active);
+        final int[] sorted = StudentRanking.sortedIndices(students, Student::getGrade, true, active);
+        final int[] expected = expectedOrder(students, Student::getGrade, true, active);
+        assertTrue(Arrays.equals(Arrays.copyOf(expected, 50), top));
+        assertTrue(Arrays.equals(expected, sorted));
+    }
+
+    /**
+     * Prueba el ordenamiento completo por clave, ascendente y descendente, con el resultado secuencial.
+     */
+    public void testSortedMatchesSequential() {
+        final Student[] students = StudentGenerator.defaults().withSeed(5).generate(300_000);
+        final Predicate<Student> inactive = s -> !s.checkIsCurrent();
+        for (boolean descending : new boolean[] {true, false}) {
+            assertTrue(Arrays.equals(expectedOrder(students, Student::getGrade, descending, inactive),
+                    StudentRanking.sortedIndices(students, Student::getGrade, descending, inactive)));
+            assertTrue(Arrays.equals(expectedOrder(students, Student::getAge, descending, inactive),
+                    StudentRanking.sortedIndices(students, Student::getAge, descending, inactive)));
+        }
+        final Student[] sorted = StudentRanking.sorted(students, Student::getAge, false, inactive);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1].getAge() <= sorted[i].getAge());
+        }
+    }
+
+    /**
+     * Compara los N primeros y el ordenamiento por clave con Arrays.parallelSort y un Comparator.
+     */
+    public void testPerformanceAgainstParallelSort() {
+        final Student[] students = StudentGenerator.defaults().withSeed(17).generate(2_000_000);
+        final Predicate<Student> active = Student::checkIsCurrent;
+        final Comparator<Student> byGrade = Comparator.comparingInt(Student::getGrade).reversed();
+
+        long sortTime = 0;
+        long topTime = 0;
+        long keySortTime = 0;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.currentTimeMillis();
+            final Student[] copy = Arrays.stream(students).parallel().filter(active).toArray(Student[]::new);
+            Arrays.parallelSort(copy, byGrade);
+            final Student[] viaSort = Arrays.copyOf(copy, 100);
+            sortTime += System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final Student[] viaTop = StudentRanking.bestByGrade(students, 100, true);
+            topTime += System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            final int[] viaKeySort = StudentRanking.sortedIndices(students, Student::getGrade, true, active);
+            keySortTime += System.currentTimeMillis() - start;
+
+            assertTrue(Arrays.equals(viaSort, viaTop));
+            assertEquals(copy.length, viaKeySort.length);
+        }
+        // Los N primeros no ordenan todo el arreglo
+        assertTrue("Expected top-N to beat a full parallelSort, got top-100 = " + topTime + " ms, parallelSort = "
+                + sortTime + " ms, sort by key = " + keySortTime + " ms", topTime < sortTime);
+    }
+}
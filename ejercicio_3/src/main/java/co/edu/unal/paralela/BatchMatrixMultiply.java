@@ -0,0 +1,269 @@
+package co.edu.unal.paralela;
+
+import static co.edu.unal.paralela.AsyncFinish.forallChunked;
+import static co.edu.unal.paralela.AsyncFinish.forseq;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Multiplicación de muchas matrices pequeñas independientes (C[m] = A[m] x
+ * B[m]), todas de tamaño n x n.
+ *
+ * Con matrices de 4x4 a 64x64 una llamada a parMatrixMultiply por pareja
+ * gasta más en crear y esperar tareas que en multiplicar. Aquí el paralelismo
+ * es entre matrices del lote: cada tarea de forallChunked multiplica un
+ * grupo de matrices consecutivas de forma secuencial. Para n = 4 y n = 8 hay
+ * núcleos desenrollados; para los demás tamaños se usa el orden i-k-j, que
+ * recorre B y C por filas.
+ *
+ * El formato empaquetado guarda el lote en un solo arreglo: la matriz m
+ * ocupa las posiciones [m*n*n, (m+1)*n*n) en orden de filas. Evita un objeto
+ * por fila y mantiene cada matriz contigua en memoria.
+ *
+ * En todos los núcleos cada C[i][j] se acumula en el orden k = 0..n-1, como
+ * en seqMatrixMultiply, así que el resultado es el mismo bit a bit.
+ */
+public final class BatchMatrixMultiply {
+    /**
+     * Constructor.
+     */
+    private BatchMatrixMultiply() {
+    }
+
+    /**
+     * Multiplica en paralelo un lote empaquetado.
+     *
+     * @param a Las matrices A empaquetadas
+     * @param b Las matrices B empaquetadas
+     * @param c Las matrices de salida empaquetadas
+     * @param n Tamaño de las matrices
+     * @param count Número de matrices del lote
+     */
+    public static void parMultiplyPacked(final double[] a, final double[] b, final double[] c, final int n,
+            final int count) {
+        checkPacked(a, b, c, n, count);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("parBatchMatrixMultiply", (long) count * n * n,
+                pool.getParallelism(), pool);
+        forallChunked(0, count - 1, m -> multiplyPacked(a, b, c, n, m * n * n));
+        event.finish();
+    }
+
+    /**
+     * Multiplica secuencialmente un lote empaquetado.
+     *
+     * @param a Las matrices A empaquetadas
+     * @param b Las matrices B empaquetadas
+     * @param c Las matrices de salida empaquetadas
+     * @param n Tamaño de las matrices
+     * @param count Número de matrices del lote
+     */
+    public static void seqMultiplyPacked(final double[] a, final double[] b, final double[] c, final int n,
+            final int count) {
+        checkPacked(a, b, c, n, count);
+        forseq(0, count - 1, m -> multiplyPacked(a, b, c, n, m * n * n));
+    }
+
+    /**
+     * Multiplica en paralelo un lote de matrices bidimensionales.
+     *
+     * @param A Las matrices A
+     * @param B Las matrices B
+     * @param C Las matrices de salida
+     * @param n Tamaño de las matrices
+     */
+    public static void parMultiply(final double[][][] A, final double[][][] B, final double[][][] C, final int n) {
+        checkBatch(A, B, C);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("parBatchMatrixMultiply", (long) A.length * n * n,
+                pool.getParallelism(), pool);
+        forallChunked(0, A.length - 1, m -> multiply(A[m], B[m], C[m], n));
+        event.finish();
+    }
+
+    /**
+     * Multiplica secuencialmente un lote de matrices bidimensionales.
+     *
+     * @param A Las matrices A
+     * @param B Las matrices B
+     * @param C Las matrices de salida
+     * @param n Tamaño de las matrices
+     */
+    public static void seqMultiply(final double[][][] A, final double[][][] B, final double[][][] C, final int n) {
+        checkBatch(A, B, C);
+        forseq(0, A.length - 1, m -> multiply(A[m], B[m], C[m], n));
+    }
+
+    /**
+     * Copia un lote de matrices bidimensionales al formato empaquetado.
+     *
+     * @param matrices Las matrices
+     * @param n Tamaño de las matrices
+     * @return El lote empaquetado
+     */
+    public static double[] pack(final double[][][] matrices, final int n) {
+        final double[] packed = new double[matrices.length * n * n];
+        for (int m = 0; m < matrices.length; m++) {
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(matrices[m][i], 0, packed, (m * n + i) * n, n);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Copia un lote empaquetado a matrices bidimensionales.
+     *
+     * @param packed El lote empaquetado
+     * @param n Tamaño de las matrices
+     * @param matrices Las matrices de destino
+     */
+    public static void unpack(final double[] packed, final int n, final double[][][] matrices) {
+        for (int m = 0; m < matrices.length; m++) {
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(packed, (m * n + i) * n, matrices[m][i], 0, n);
+            }
+        }
+    }
+
+    /**
+     * Revisa los tamaños de un lote empaquetado.
+     */
+    private static void checkPacked(final double[] a, final double[] b, final double[] c, final int n,
+            final int count) {
+        if (n <= 0 || count < 0) {
+            throw new IllegalArgumentException("n = " + n + ", count = " + count);
+        }
+        final long needed = (long) count * n * n;
+        if (needed > Integer.MAX_VALUE || a.length < needed || b.length < needed || c.length < needed) {
+            throw new IllegalArgumentException("Packed arrays need " + needed + " elements, got "
+                    + a.length + ", " + b.length + ", " + c.length);
+        }
+    }
+
+    /**
+     * Revisa que los tres lotes tengan el mismo número de matrices.
+     */
+    private static void checkBatch(final double[][][] A, final double[][][] B, final double[][][] C) {
+        if (A.length != B.length || A.length != C.length) {
+            throw new IllegalArgumentException("Batch sizes differ: " + A.length + ", " + B.length + ", " + C.length);
+        }
+    }
+
+    /**
+     * Multiplica una matriz empaquetada.
+     *
+     * @param a Las matrices A empaquetadas
+     * @param b Las matrices B empaquetadas
+     * @param c Las matrices de salida empaquetadas
+     * @param n Tamaño de las matrices
+     * @param base Posición de la matriz en los tres arreglos
+     */
+    private static void multiplyPacked(final double[] a, final double[] b, final double[] c, final int n,
+            final int base) {
+        if (n == 4) {
+            multiply4(a, b, c, base);
+        } else if (n == 8) {
+            multiply8(a, b, c, base);
+        } else {
+            for (int i = 0; i < n; i++) {
+                final int row = base + i * n;
+                for (int j = 0; j < n; j++) {
+                    c[row + j] = 0.0;
+                }
+                for (int k = 0; k < n; k++) {
+                    final double aik = a[row + k];
+                    final int bRow = base + k * n;
+                    for (int j = 0; j < n; j++) {
+                        c[row + j] += aik * b[bRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplica una matriz de 4x4 empaquetada, sin ciclos.
+     */
+    private static void multiply4(final double[] a, final double[] b, final double[] c, final int o) {
+        final double b00 = b[o], b01 = b[o + 1], b02 = b[o + 2], b03 = b[o + 3];
+        final double b10 = b[o + 4], b11 = b[o + 5], b12 = b[o + 6], b13 = b[o + 7];
+        final double b20 = b[o + 8], b21 = b[o + 9], b22 = b[o + 10], b23 = b[o + 11];
+        final double b30 = b[o + 12], b31 = b[o + 13], b32 = b[o + 14], b33 = b[o + 15];
+        for (int r = o; r < o + 16; r += 4) {
+            final double a0 = a[r], a1 = a[r + 1], a2 = a[r + 2], a3 = a[r + 3];
+            c[r] = a0 * b00 + a1 * b10 + a2 * b20 + a3 * b30;
+            c[r + 1] = a0 * b01 + a1 * b11 + a2 * b21 + a3 * b31;
+            c[r + 2] = a0 * b02 + a1 * b12 + a2 * b22 + a3 * b32;
+            c[r + 3] = a0 * b03 + a1 * b13 + a2 * b23 + a3 * b33;
+        }
+    }
+
+    /**
+     * Multiplica una matriz de 8x8 empaquetada, con la fila de C en ocho
+     * acumuladores.
+     */
+    private static void multiply8(final double[] a, final double[] b, final double[] c, final int o) {
+        for (int r = o; r < o + 64; r += 8) {
+            double c0 = 0, c1 = 0, c2 = 0, c3 = 0, c4 = 0, c5 = 0, c6 = 0, c7 = 0;
+            for (int k = 0; k < 8; k++) {
+                final double aik = a[r + k];
+                final int bk = o + 8 * k;
+                c0 += aik * b[bk];
+                c1 += aik * b[bk + 1];
+                c2 += aik * b[bk + 2];
+                c3 += aik * b[bk + 3];
+                c4 += aik * b[bk + 4];
+                c5 += aik * b[bk + 5];
+                c6 += aik * b[bk + 6];
+                c7 += aik * b[bk + 7];
+            }
+            c[r] = c0;
+            c[r + 1] = c1;
+            c[r + 2] = c2;
+            c[r + 3] = c3;
+            c[r + 4] = c4;
+            c[r + 5] = c5;
+            c[r + 6] = c6;
+            c[r + 7] = c7;
+        }
+    }
+
+    /**
+     * Multiplica una matriz bidimensional.
+     *
+     * @param A Matriz de entrada
+     * @param B Matriz de entrada
+     * @param C Matriz de salida
+     * @param n Tamaño de las matrices
+     */
+    private static void multiply(final double[][] A, final double[][] B, final double[][] C, final int n) {
+        if (n == 4) {
+            final double[] b0 = B[0], b1 = B[1], b2 = B[2], b3 = B[3];
+            for (int i = 0; i < 4; i++) {
+                final double[] ai = A[i];
+                final double[] ci = C[i];
+                final double a0 = ai[0], a1 = ai[1], a2 = ai[2], a3 = ai[3];
+                ci[0] = a0 * b0[0] + a1 * b1[0] + a2 * b2[0] + a3 * b3[0];
+                ci[1] = a0 * b0[1] + a1 * b1[1] + a2 * b2[1] + a3 * b3[1];
+                ci[2] = a0 * b0[2] + a1 * b1[2] + a2 * b2[2] + a3 * b3[2];
+                ci[3] = a0 * b0[3] + a1 * b1[3] + a2 * b2[3] + a3 * b3[3];
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            final double[] ai = A[i];
+            final double[] ci = C[i];
+            for (int j = 0; j < n; j++) {
+                ci[j] = 0.0;
+            }
+            for (int k = 0; k < n; k++) {
+                final double aik = ai[k];
+                final double[] bk = B[k];
+                for (int j = 0; j < n; j++) {
+                    ci[j] += aik * bk[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package co.edu.unal.paralela;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multiplicación de matrices distribuida entre varios procesos JVM con el
+ * algoritmo de Cannon, para repartir el cómputo entre más procesos de los
+ * que usa parMatrixMultiply.
+ *
+ * Sólo escala el cómputo, no la memoria: el coordinador recibe A, B y C
+ * completas, envía los bloques iniciales y recibe los de C, así que el
+ * tamaño máximo sigue siendo el que cabe en un solo proceso. Cada
+ * trabajador guarda sólo sus bloques de b x b.
+ *
+ * El coordinador lanza q x q procesos CannonWorker en la misma máquina, que
+ * se comunican por SocketChannels de NIO sobre localhost. Las matrices se
+ * dividen en bloques de b x b, con b = n / q. El trabajador (i, j) empieza
+ * con el bloque A(i, i + j) y el bloque B(i + j, j), índices módulo q; en
+ * cada paso multiplica sus bloques, pasa A a su vecino izquierdo y B a su
+ * vecino de arriba, y tras q pasos tiene el bloque C(i, j), que devuelve al
+ * coordinador.
+ *
+ * Cada bloque de C se acumula en un orden de k distinto al de
+ * seqMatrixMultiply, así que con entradas no enteras el resultado puede
+ * diferir en el redondeo.
+ */
+public final class CannonMultiply {
+    /**
+     * Tiempo máximo de espera para que los trabajadores se conecten.
+     */
+    private static final long CONNECT_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * Constructor.
+     */
+    private CannonMultiply() {
+    }
+
+    /**
+     * Calcula C = A x B con q x q procesos trabajadores.
+     *
+     * @param A Una matriz de entrada con dimensiones NxN
+     * @param B Una matriz de entrada con dimensiones NxN
+     * @param C Matriz de salida
+     * @param n Tamaño de las matrices, múltiplo de q
+     * @param q Lado de la malla de procesos
+     * @throws IOException Si un trabajador no arranca o falla la comunicación
+     */
+    public static void multiply(final double[][] A, final double[][] B, final double[][] C, final int n,
+            final int q) throws IOException {
+        if (q <= 0 || n <= 0 || n % q != 0) {
+            throw new IllegalArgumentException("n = " + n + " must be a positive multiple of q = " + q);
+        }
+        final int b = n / q;
+        final int workers = q * q;
+        final KernelEvent event = KernelEvent.start("cannonMatrixMultiply", (long) n * n, workers, null);
+        final List<Process> processes = new ArrayList<>();
+        final SocketChannel[] controls = new SocketChannel[workers];
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            for (int rank = 0; rank < workers; rank++) {
+                processes.add(launch(server.socket().getLocalPort(), rank));
+            }
+
+            final int[] ports = new int[workers];
+            acceptWorkers(server, processes, controls, ports);
+
+            final ByteBuffer block = CannonWorker.newBlock(b);
+            for (int rank = 0; rank < workers; rank++) {
+                final int i = rank / q;
+                final int j = rank % q;
+                final int[] header = new int[2 + workers];
+                header[0] = q;
+                header[1] = b;
+                System.arraycopy(ports, 0, header, 2, workers);
+                CannonWorker.writeInts(controls[rank], header);
+
+                final int k = (i + j) % q;
+                copyBlock(A, i * b, k * b, b, block);
+                CannonWorker.writeFully(controls[rank], block);
+                copyBlock(B, k * b, j * b, b, block);
+                CannonWorker.writeFully(controls[rank], block);
+            }
+
+            for (int rank = 0; rank < workers; rank++) {
+                block.clear();
+                CannonWorker.readFully(controls[rank], block);
+                final DoubleBuffer values = block.flip().asDoubleBuffer();
+                final int row = (rank / q) * b;
+                final int col = (rank % q) * b;
+                for (int r = 0; r < b; r++) {
+                    values.get(C[row + r], col, b);
+                }
+            }
+            awaitExit(processes);
+        } finally {
+            for (SocketChannel control : controls) {
+                if (control != null) {
+                    control.close();
+                }
+            }
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+        event.finish();
+    }
+
+    /**
+     * Lanza un proceso trabajador con el mismo ejecutable de java y las
+     * clases de este proyecto.
+     *
+     * @param port El puerto del coordinador
+     * @param rank El rango del trabajador
+     * @return El proceso
+     * @throws IOException Si no se puede lanzar
+     */
+    private static Process launch(final int port, final int rank) throws IOException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", classPath(), CannonWorker.class.getName(),
+                InetAddress.getLoopbackAddress().getHostAddress(), Integer.toString(port), Integer.toString(rank))
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * @return El directorio o jar de donde se cargó CannonWorker, que basta
+     *         para el trabajador; java.class.path no sirve con lanzadores
+     *         como surefire, que usan un jar con sólo un manifiesto
+     */
+    private static String classPath() {
+        try {
+            return new File(CannonWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    .getPath();
+        } catch (URISyntaxException | SecurityException e) {
+            return System.getProperty("java.class.path");
+        }
+    }
+
+    /**
+     * Acepta la conexión de control de cada trabajador y lee su puerto.
+     *
+     * @param server El canal del coordinador
+     * @param processes Los procesos, para detectar si alguno terminó
+     * @param controls Las conexiones de control, por rango
+     * @param ports Los puertos de los trabajadores, por rango
+     * @throws IOException Si un trabajador termina o no se conecta a tiempo
+     */
+    private static void acceptWorkers(final ServerSocketChannel server, final List<Process> processes,
+            final SocketChannel[] controls, final int[] ports) throws IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        server.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            int connected = 0;
+            while (connected < controls.length) {
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("Only " + connected + " of " + controls.length + " workers connected");
+                }
+                for (Process process : processes) {
+                    if (!process.isAlive() && process.exitValue() != 0) {
+                        throw new IOException("A worker exited with code " + process.exitValue());
+                    }
+                }
+                selector.select(100);
+                selector.selectedKeys().clear();
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    channel.configureBlocking(true);
+                    final int rank = CannonWorker.readInt(channel);
+                    if (rank < 0 || rank >= controls.length || controls[rank] != null) {
+                        channel.close();
+                        throw new IOException("Unexpected worker rank " + rank);
+                    }
+                    controls[rank] = channel;
+                    ports[rank] = CannonWorker.readInt(channel);
+                    connected++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera a que todos los trabajadores terminen sin error.
+     *
+     * @param processes Los procesos
+     * @throws IOException Si alguno falla o no termina
+     */
+    private static void awaitExit(final List<Process> processes) throws IOException {
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("A worker did not exit");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("A worker exited with code " + process.exitValue());
+            }
+        }
+    }
+
+    /**
+     * Copia el bloque de b x b que empieza en (row, col) a un buffer listo
+     * para escribir.
+     *
+     * @param matrix La matriz
+     * @param row La primera fila
+     * @param col La primera columna
+     * @param b El tamaño del bloque
+     * @param block El buffer
+     */
+    private static void copyBlock(final double[][] matrix, final int row, final int col, final int b,
+            final ByteBuffer block) {
+        block.clear();
+        final DoubleBuffer values = block.asDoubleBuffer();
+        for (int r = 0; r < b; r++) {
+            values.put(matrix[row + r], col, b);
+        }
+    }
+
+    /**
+     * Multiplica dos matrices aleatorias con Cannon y verifica el resultado
+     * con seqMatrixMultiply.
+     *
+     * @param args El tamaño n (por defecto 256) y el lado q de la malla (por
+     *        defecto 2)
+     * @throws IOException Si falla la multiplicación distribuida
+     */
+    public static void main(final String[] args) throws IOException {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        final int q = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        final Random rand = new Random(314);
+        final double[][] A = new double[n][n];
+        final double[][] B = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                A[i][j] = rand.nextInt(100);
+                B[i][j] = rand.nextInt(100);
+            }
+        }
+        final double[][] C = new double[n][n];
+        long start = System.nanoTime();
+        multiply(A, B, C, n, q);
+        final long cannonMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        final double[][] ref = new double[n][n];
+        start = System.nanoTime();
+        MatrixMultiply.seqMatrixMultiply(A, B, ref, n);
+        final long seqMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int errors = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (ref[i][j] != C[i][j]) {
+                    errors++;
+                }
+            }
+        }
+        System.out.println("Cannon n=" + n + " q=" + q + ": " + cannonMillis + " ms (" + (q * q)
+                + " workers), seqMatrixMultiply: " + seqMillis + " ms, mismatches: " + errors);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+}
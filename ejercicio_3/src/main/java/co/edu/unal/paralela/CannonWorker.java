@@ -0,0 +1,297 @@
+package co.edu.unal.paralela;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Proceso trabajador del algoritmo de Cannon (ver CannonMultiply). Cada
+ * trabajador ocupa una posición (fila, columna) de la malla q x q y guarda un
+ * bloque de A, uno de B y uno de C de b x b, con b = n / q.
+ *
+ * Protocolo:
+ * <ol>
+ * <li>Se conecta al coordinador y envía su rango y el puerto en el que
+ * escucha a sus vecinos.</li>
+ * <li>Recibe q, b, la tabla de puertos de todos los trabajadores y sus
+ * bloques iniciales de A y B, ya desplazados.</li>
+ * <li>Abre una conexión hacia su vecino izquierdo (para enviarle A) y otra
+ * hacia el de arriba (para enviarle B), y acepta las de sus vecinos derecho
+ * e inferior.</li>
+ * <li>En cada uno de los q pasos acumula C += A x B y, salvo en el último,
+ * envía sus bloques y recibe los de sus vecinos al mismo tiempo con un
+ * Selector, para que los envíos no se bloqueen entre sí.</li>
+ * <li>Envía su bloque de C al coordinador y termina.</li>
+ * </ol>
+ *
+ * Los bloques viajan en ByteBuffers directos en el orden de bytes nativo
+ * (todos los procesos corren en la misma máquina): el canal escribe y lee
+ * directamente de esa memoria, sin copias intermedias en el heap, y el
+ * núcleo de multiplicación lee los bloques a través de vistas DoubleBuffer.
+ */
+public final class CannonWorker {
+    /**
+     * Tipo de conexión entre vecinos que transporta bloques de A.
+     */
+    static final int LINK_A = 0;
+    /**
+     * Tipo de conexión entre vecinos que transporta bloques de B.
+     */
+    static final int LINK_B = 1;
+
+    /**
+     * Constructor.
+     */
+    private CannonWorker() {
+    }
+
+    /**
+     * Punto de entrada del proceso trabajador.
+     *
+     * @param args El host y el puerto del coordinador, y el rango del
+     *        trabajador
+     * @throws IOException Si falla la comunicación
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: CannonWorker <host> <port> <rank>");
+            System.exit(2);
+        }
+        run(new InetSocketAddress(args[0], Integer.parseInt(args[1])), Integer.parseInt(args[2]));
+    }
+
+    /**
+     * Ejecuta el trabajador hasta entregar su bloque de C.
+     *
+     * @param coordinator La dirección del coordinador
+     * @param rank El rango del trabajador, fila * q + columna
+     * @throws IOException Si falla la comunicación
+     */
+    static void run(final InetSocketAddress coordinator, final int rank) throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+                SocketChannel control = SocketChannel.open(coordinator)) {
+            server.bind(new InetSocketAddress(coordinator.getAddress(), 0));
+            writeInts(control, rank, server.socket().getLocalPort());
+
+            final int q = readInt(control);
+            final int b = readInt(control);
+            final int[] ports = new int[q * q];
+            for (int r = 0; r < ports.length; r++) {
+                ports[r] = readInt(control);
+            }
+            ByteBuffer a = newBlock(b);
+            ByteBuffer bBlock = newBlock(b);
+            readFully(control, a);
+            readFully(control, bBlock);
+            final double[] c = new double[b * b];
+
+            final int row = rank / q;
+            final int col = rank % q;
+            final int left = row * q + (col + q - 1) % q;
+            final int up = ((row + q - 1) % q) * q + col;
+
+            // Conexiones salientes primero: connect no espera a que el vecino llame a accept
+            final SocketChannel toLeft = connect(coordinator, ports[left], LINK_A, rank);
+            final SocketChannel toUp = connect(coordinator, ports[up], LINK_B, rank);
+            SocketChannel fromRight = null;
+            SocketChannel fromDown = null;
+            for (int accepted = 0; accepted < 2; accepted++) {
+                final SocketChannel link = server.accept();
+                final int kind = readInt(link);
+                // El rango del vecino sólo sirve para depurar
+                readInt(link);
+                if (kind == LINK_A) {
+                    fromRight = link;
+                } else {
+                    fromDown = link;
+                }
+            }
+            if (fromRight == null || fromDown == null) {
+                throw new IOException("Worker " + rank + " did not get one link of each kind");
+            }
+
+            try (Selector selector = Selector.open()) {
+                final SocketChannel[] channels = {toLeft, toUp, fromRight, fromDown};
+                final SelectionKey[] keys = new SelectionKey[channels.length];
+                for (int i = 0; i < channels.length; i++) {
+                    channels[i].configureBlocking(false);
+                    keys[i] = channels[i].register(selector, 0);
+                }
+                ByteBuffer nextA = newBlock(b);
+                ByteBuffer nextB = newBlock(b);
+                for (int step = 0; step < q; step++) {
+                    // clear() sólo reinicia la posición: la vista empieza en el inicio del bloque
+                    multiplyAccumulate(a.clear().asDoubleBuffer(), bBlock.clear().asDoubleBuffer(), c, b);
+                    if (step == q - 1) {
+                        break;
+                    }
+                    nextA.clear();
+                    nextB.clear();
+                    exchange(selector, keys, new ByteBuffer[] {a, bBlock, nextA, nextB});
+                    ByteBuffer swap = a;
+                    a = nextA;
+                    nextA = swap;
+                    swap = bBlock;
+                    bBlock = nextB;
+                    nextB = swap;
+                }
+            } finally {
+                toLeft.close();
+                toUp.close();
+                fromRight.close();
+                fromDown.close();
+            }
+
+            final ByteBuffer out = newBlock(b);
+            out.asDoubleBuffer().put(c);
+            writeFully(control, out);
+        }
+    }
+
+    /**
+     * Abre una conexión hacia un vecino y envía su encabezado.
+     *
+     * @param coordinator La dirección del coordinador, para el host
+     * @param port El puerto del vecino
+     * @param kind LINK_A o LINK_B
+     * @param rank El rango de este trabajador
+     * @return La conexión
+     * @throws IOException Si falla la conexión
+     */
+    private static SocketChannel connect(final InetSocketAddress coordinator, final int port, final int kind,
+            final int rank) throws IOException {
+        final SocketChannel link = SocketChannel.open(new InetSocketAddress(coordinator.getAddress(), port));
+        writeInts(link, kind, rank);
+        return link;
+    }
+
+    /**
+     * Envía y recibe a la vez: buffers[0] y buffers[1] se escriben en los
+     * canales de keys[0] y keys[1], y buffers[2] y buffers[3] se llenan desde
+     * los de keys[2] y keys[3].
+     *
+     * @param selector El selector en que están registrados los canales
+     * @param keys Las llaves de los canales
+     * @param buffers Los buffers de cada canal
+     * @throws IOException Si falla la comunicación
+     */
+    private static void exchange(final Selector selector, final SelectionKey[] keys, final ByteBuffer[] buffers)
+            throws IOException {
+        int pending = keys.length;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i].attach(buffers[i]);
+            keys[i].interestOps(i < 2 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+        while (pending > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                final SocketChannel channel = (SocketChannel) key.channel();
+                final ByteBuffer buffer = (ByteBuffer) key.attachment();
+                if (key.isWritable()) {
+                    channel.write(buffer);
+                } else if (key.isReadable() && channel.read(buffer) < 0) {
+                    throw new EOFException("Neighbor closed the link");
+                }
+                if (!buffer.hasRemaining()) {
+                    key.interestOps(0);
+                    pending--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Acumula C += A x B con bloques de b x b en orden de filas.
+     *
+     * @param a El bloque de A
+     * @param bBlock El bloque de B
+     * @param c El bloque de C
+     * @param b El tamaño de los bloques
+     */
+    static void multiplyAccumulate(final DoubleBuffer a, final DoubleBuffer bBlock, final double[] c, final int b) {
+        for (int i = 0; i < b; i++) {
+            final int row = i * b;
+            for (int k = 0; k < b; k++) {
+                final double aik = a.get(row + k);
+                final int bRow = k * b;
+                for (int j = 0; j < b; j++) {
+                    c[row + j] += aik * bBlock.get(bRow + j);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param b El tamaño del bloque
+     * @return Un buffer directo para un bloque de b x b en orden nativo
+     */
+    static ByteBuffer newBlock(final int b) {
+        return ByteBuffer.allocateDirect(b * b * Double.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Escribe enteros en un canal bloqueante.
+     *
+     * @param channel El canal
+     * @param values Los enteros
+     * @throws IOException Si falla la escritura
+     */
+    static void writeInts(final SocketChannel channel, final int... values) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Lee un entero de un canal bloqueante.
+     *
+     * @param channel El canal
+     * @return El entero
+     * @throws IOException Si falla la lectura o el canal se cierra
+     */
+    static int readInt(final SocketChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, buffer);
+        buffer.flip();
+        return buffer.getInt();
+    }
+
+    /**
+     * Escribe todo lo que queda en buffer.
+     *
+     * @param channel Un canal bloqueante
+     * @param buffer El buffer
+     * @throws IOException Si falla la escritura
+     */
+    static void writeFully(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Llena lo que queda de buffer.
+     *
+     * @param channel Un canal bloqueante
+     * @param buffer El buffer
+     * @throws IOException Si falla la lectura o el canal se cierra antes
+     */
+    static void readFully(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Channel closed with " + buffer.remaining() + " bytes missing");
+            }
+        }
+    }
+}
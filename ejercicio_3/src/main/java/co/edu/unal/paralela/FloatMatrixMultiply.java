@@ -0,0 +1,174 @@
+package co.edu.unal.paralela;
+
+import static co.edu.unal.paralela.AsyncFinish.forall2dChunked;
+import static co.edu.unal.paralela.AsyncFinish.forseq2d;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Multiplicación de matrices en precisión simple, con la mitad de memoria y
+ * de ancho de banda que MatrixMultiply. Las matrices son arreglos float[] de
+ * n * n elementos en orden de filas: el elemento (i, j) está en i * n + j.
+ *
+ * Hay dos modos:
+ * <ul>
+ * <li>float: productos y sumas en float.</li>
+ * <li>mixto: los datos se guardan en float pero cada producto escalar se
+ * acumula en double y se redondea a float una sola vez al final. El
+ * producto de dos float es exacto en double, así que el único error, además
+ * del de guardar las entradas en float, es ese redondeo final (a lo sumo
+ * 2^-24 relativo) más el de sumar en double.</li>
+ * </ul>
+ *
+ * Error frente a seqMatrixMultiply (double) con las entradas de las pruebas,
+ * enteros aleatorios entre 0 y 99: los enteros son exactos en float, cada
+ * producto es un entero menor que 99^2 = 9801 y toda suma parcial es un
+ * entero menor que n * 9801. Mientras ese valor no pase de 2^24 = 16777216,
+ * es decir para n hasta 1711, ambos modos dan exactamente el mismo resultado
+ * que la versión double. Para n mayor el modo float empieza a perder
+ * unidades en las sumas parciales (el error crece con n), mientras que el
+ * mixto sólo redondea el resultado final a 24 bits de mantisa.
+ *
+ * Con entradas no enteras el error relativo del modo mixto está acotado por
+ * unas pocas veces 2^-24, y el del modo float crece como n * 2^-24 en el
+ * peor caso.
+ */
+public final class FloatMatrixMultiply {
+    /**
+     * Constructor.
+     */
+    private FloatMatrixMultiply() {
+    }
+
+    /**
+     * Multiplica secuencialmente en float.
+     *
+     * @param A Una matriz de entrada de n x n
+     * @param B Una matriz de entrada de n x n
+     * @param C Matriz de salida de n x n
+     * @param n Tamaño de las matrices
+     */
+    public static void seqFloatMatrixMultiply(final float[] A, final float[] B, final float[] C, final int n) {
+        check(A, B, C, n);
+        forseq2d(0, n - 1, 0, n - 1, (i, j) -> C[i * n + j] = dotFloat(A, B, n, i, j));
+    }
+
+    /**
+     * Multiplica en paralelo en float, repartiendo los elementos de C con
+     * forall2dChunked como parMatrixMultiply.
+     *
+     * @param A Una matriz de entrada de n x n
+     * @param B Una matriz de entrada de n x n
+     * @param C Matriz de salida de n x n
+     * @param n Tamaño de las matrices
+     */
+    public static void parFloatMatrixMultiply(final float[] A, final float[] B, final float[] C, final int n) {
+        check(A, B, C, n);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("parFloatMatrixMultiply", (long) n * n,
+                pool.getParallelism(), pool);
+        forall2dChunked(0, n - 1, 0, n - 1, (i, j) -> C[i * n + j] = dotFloat(A, B, n, i, j));
+        event.finish();
+    }
+
+    /**
+     * Multiplica secuencialmente en modo mixto: datos float, acumulación
+     * double.
+     *
+     * @param A Una matriz de entrada de n x n
+     * @param B Una matriz de entrada de n x n
+     * @param C Matriz de salida de n x n
+     * @param n Tamaño de las matrices
+     */
+    public static void seqMixedMatrixMultiply(final float[] A, final float[] B, final float[] C, final int n) {
+        check(A, B, C, n);
+        forseq2d(0, n - 1, 0, n - 1, (i, j) -> C[i * n + j] = (float) dotDouble(A, B, n, i, j));
+    }
+
+    /**
+     * Multiplica en paralelo en modo mixto, repartiendo los elementos de C
+     * con forall2dChunked como parMatrixMultiply.
+     *
+     * @param A Una matriz de entrada de n x n
+     * @param B Una matriz de entrada de n x n
+     * @param C Matriz de salida de n x n
+     * @param n Tamaño de las matrices
+     */
+    public static void parMixedMatrixMultiply(final float[] A, final float[] B, final float[] C, final int n) {
+        check(A, B, C, n);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("parMixedMatrixMultiply", (long) n * n,
+                pool.getParallelism(), pool);
+        forall2dChunked(0, n - 1, 0, n - 1, (i, j) -> C[i * n + j] = (float) dotDouble(A, B, n, i, j));
+        event.finish();
+    }
+
+    /**
+     * Convierte una matriz double a float en orden de filas.
+     *
+     * @param matrix La matriz de n x n
+     * @param n Tamaño de la matriz
+     * @return La matriz en float
+     */
+    public static float[] toFloat(final double[][] matrix, final int n) {
+        final float[] result = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                result[i * n + j] = (float) matrix[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convierte una matriz float en orden de filas a double.
+     *
+     * @param matrix La matriz de n x n
+     * @param n Tamaño de la matriz
+     * @return La matriz en double
+     */
+    public static double[][] toDouble(final float[] matrix, final int n) {
+        final double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                result[i][j] = matrix[i * n + j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Revisa el tamaño de los arreglos.
+     */
+    private static void check(final float[] A, final float[] B, final float[] C, final int n) {
+        final long size = (long) n * n;
+        if (n < 0 || A.length != size || B.length != size || C.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " elements, got "
+                    + A.length + ", " + B.length + ", " + C.length);
+        }
+    }
+
+    /**
+     * @return La fila i de A por la columna j de B, acumulada en float
+     */
+    private static float dotFloat(final float[] A, final float[] B, final int n, final int i, final int j) {
+        final int row = i * n;
+        float sum = 0.0f;
+        for (int k = 0; k < n; k++) {
+            sum += A[row + k] * B[k * n + j];
+        }
+        return sum;
+    }
+
+    /**
+     * @return La fila i de A por la columna j de B, acumulada en double
+     */
+    private static double dotDouble(final float[] A, final float[] B, final int n, final int i, final int j) {
+        final int row = i * n;
+        double sum = 0.0;
+        for (int k = 0; k < n; k++) {
+            sum += (double) A[row + k] * B[k * n + j];
+        }
+        return sum;
+    }
+}
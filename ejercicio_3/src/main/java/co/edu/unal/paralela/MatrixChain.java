@@ -0,0 +1,372 @@
+package co.edu.unal.paralela;
+
+import static co.edu.unal.paralela.AsyncFinish.finish;
+import static co.edu.unal.paralela.AsyncFinish.forallChunked;
+import static co.edu.unal.paralela.AsyncFinish.future;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producto de una cadena de matrices rectangulares A0 x A1 x ... x Ak.
+ *
+ * El orden de las multiplicaciones se elige con programación dinámica sobre
+ * las dimensiones (el problema clásico de la cadena de matrices), minimizando
+ * el número de multiplicaciones escalares. Con formas muy distintas, por
+ * ejemplo un vector fila al final, multiplicar de izquierda a derecha puede
+ * costar órdenes de magnitud más.
+ *
+ * Al ejecutar el plan, las dos mitades de cada división son independientes:
+ * la izquierda se calcula en un future mientras el hilo actual calcula la
+ * derecha. Cada producto parcial se reparte además por filas con
+ * forallChunked cuando es suficientemente grande.
+ *
+ * Las matrices intermedias se toman de un pool de buffers por forma y se
+ * devuelven en cuanto se consumen, así que llamadas repetidas con las mismas
+ * formas no vuelven a reservar memoria para ellas. El resultado final también
+ * sale del pool, pero pasa a ser del que llama.
+ */
+public final class MatrixChain {
+    /**
+     * Número máximo de buffers guardados por forma.
+     */
+    private static final int MAX_RETAINED = 4;
+    /**
+     * Número de multiplicaciones escalares a partir del cual un producto
+     * parcial se reparte por filas.
+     */
+    private static final long PARALLEL_FLOPS = 1L << 16;
+
+    /**
+     * Buffers libres por forma; la clave es filas << 32 | columnas.
+     */
+    private final ConcurrentMap<Long, Deque<double[][]>> buffers = new ConcurrentHashMap<>();
+    /**
+     * Buffers reservados porque el pool no tenía uno de esa forma.
+     */
+    private final AtomicLong allocated = new AtomicLong();
+    /**
+     * Buffers tomados del pool.
+     */
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * Plan de multiplicación: la división óptima de cada subcadena y su costo.
+     */
+    public static final class Plan {
+        /**
+         * Dimensiones: la matriz i es dims[i] x dims[i + 1].
+         */
+        private final int[] dims;
+        /**
+         * split[i][j] es el último índice de la mitad izquierda de Ai..Aj.
+         */
+        private final int[][] split;
+        /**
+         * Multiplicaciones escalares del plan.
+         */
+        private final long cost;
+
+        /**
+         * Constructor.
+         *
+         * @param dims Dimensiones de la cadena
+         * @param split División óptima de cada subcadena
+         * @param cost Multiplicaciones escalares del plan
+         */
+        Plan(final int[] dims, final int[][] split, final long cost) {
+            this.dims = dims;
+            this.split = split;
+            this.cost = cost;
+        }
+
+        /**
+         * @return El número de multiplicaciones escalares del plan
+         */
+        public long getCost() {
+            return cost;
+        }
+
+        /**
+         * @return El número de multiplicaciones escalares de multiplicar de
+         *         izquierda a derecha
+         */
+        public long getLeftToRightCost() {
+            long total = 0;
+            for (int j = 2; j < dims.length; j++) {
+                total += (long) dims[0] * dims[j - 1] * dims[j];
+            }
+            return total;
+        }
+
+        /**
+         * @param i El primer índice de la subcadena
+         * @param j El último índice de la subcadena, mayor que i
+         * @return El último índice de la mitad izquierda de Ai..Aj
+         */
+        public int getSplit(final int i, final int j) {
+            return split[i][j];
+        }
+
+        /**
+         * @return La parentización, por ejemplo ((A0 A1) A2)
+         */
+        @Override
+        public String toString() {
+            final StringBuilder out = new StringBuilder();
+            append(out, 0, dims.length - 2);
+            return out.toString();
+        }
+
+        /**
+         * Escribe la parentización de Ai..Aj.
+         */
+        private void append(final StringBuilder out, final int i, final int j) {
+            if (i == j) {
+                out.append('A').append(i);
+                return;
+            }
+            out.append('(');
+            append(out, i, split[i][j]);
+            out.append(' ');
+            append(out, split[i][j] + 1, j);
+            out.append(')');
+        }
+    }
+
+    /**
+     * Calcula el plan óptimo para una cadena.
+     *
+     * @param dims Dimensiones: la matriz i es dims[i] x dims[i + 1]
+     * @return El plan
+     */
+    public static Plan plan(final int... dims) {
+        if (dims.length < 2) {
+            throw new IllegalArgumentException("A chain needs at least one matrix");
+        }
+        final int n = dims.length - 1;
+        final long[][] cost = new long[n][n];
+        final int[][] split = new int[n][n];
+        for (int length = 2; length <= n; length++) {
+            for (int i = 0; i + length - 1 < n; i++) {
+                final int j = i + length - 1;
+                cost[i][j] = Long.MAX_VALUE;
+                for (int k = i; k < j; k++) {
+                    final long c = cost[i][k] + cost[k + 1][j] + (long) dims[i] * dims[k + 1] * dims[j + 1];
+                    if (c < cost[i][j]) {
+                        cost[i][j] = c;
+                        split[i][j] = k;
+                    }
+                }
+            }
+        }
+        return new Plan(dims.clone(), split, cost[0][n - 1]);
+    }
+
+    /**
+     * Multiplica la cadena siguiendo el plan óptimo.
+     *
+     * @param matrices Las matrices; las columnas de cada una deben coincidir
+     *        con las filas de la siguiente
+     * @return El producto, una matriz nueva
+     */
+    public double[][] multiply(final double[][]... matrices) {
+        final Plan plan = plan(dimensions(matrices));
+        if (matrices.length == 1) {
+            final double[][] copy = new double[matrices[0].length][];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = matrices[0][i].clone();
+            }
+            return copy;
+        }
+        final double[][][] result = new double[1][][];
+        finish(() -> result[0] = evaluate(matrices, plan, 0, matrices.length - 1));
+        return result[0];
+    }
+
+    /**
+     * Calcula las dimensiones de la cadena y revisa que sean compatibles.
+     *
+     * @param matrices Las matrices
+     * @return Las dimensiones
+     */
+    static int[] dimensions(final double[][]... matrices) {
+        if (matrices.length == 0) {
+            throw new IllegalArgumentException("A chain needs at least one matrix");
+        }
+        final int[] dims = new int[matrices.length + 1];
+        for (int m = 0; m < matrices.length; m++) {
+            final double[][] matrix = matrices[m];
+            if (matrix.length == 0 || matrix[0].length == 0) {
+                throw new IllegalArgumentException("Matrix " + m + " is empty");
+            }
+            for (double[] row : matrix) {
+                if (row.length != matrix[0].length) {
+                    throw new IllegalArgumentException("Matrix " + m + " is not rectangular");
+                }
+            }
+            if (m > 0 && matrix.length != dims[m]) {
+                throw new IllegalArgumentException("Matrix " + (m - 1) + " has " + dims[m]
+                        + " columns but matrix " + m + " has " + matrix.length + " rows");
+            }
+            dims[m] = matrix.length;
+            dims[m + 1] = matrix[0].length;
+        }
+        return dims;
+    }
+
+    /**
+     * Calcula Ai..Aj. La mitad izquierda se calcula en un future y la
+     * derecha en el hilo actual.
+     *
+     * @param matrices Las matrices de la cadena
+     * @param plan El plan
+     * @param i El primer índice
+     * @param j El último índice
+     * @return El producto; es una de las entradas si i == j
+     */
+    private double[][] evaluate(final double[][][] matrices, final Plan plan, final int i, final int j) {
+        if (i == j) {
+            return matrices[i];
+        }
+        final int k = plan.getSplit(i, j);
+        final Future<double[][]> leftFuture = k > i ? future(() -> evaluate(matrices, plan, i, k)) : null;
+        final double[][] right = evaluate(matrices, plan, k + 1, j);
+        final double[][] left = leftFuture != null ? await(leftFuture) : matrices[i];
+
+        final double[][] product = acquire(left.length, right[0].length);
+        multiplyInto(left, right, product);
+        if (k > i) {
+            release(left);
+        }
+        if (j > k + 1) {
+            release(right);
+        }
+        return product;
+    }
+
+    /**
+     * @param future Un future de evaluate
+     * @return Su resultado
+     */
+    private static double[][] await(final Future<double[][]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Calcula C = A x B con matrices rectangulares, en orden i-k-j. Si el
+     * producto es grande, las filas de C se reparten con forallChunked.
+     *
+     * @param A Matriz de p x q
+     * @param B Matriz de q x r
+     * @param C Matriz de salida de p x r
+     */
+    static void multiplyInto(final double[][] A, final double[][] B, final double[][] C) {
+        final int q = B.length;
+        final int r = B[0].length;
+        if ((long) A.length * q * r < PARALLEL_FLOPS) {
+            for (int i = 0; i < A.length; i++) {
+                multiplyRow(A[i], B, C[i], q, r);
+            }
+        } else {
+            forallChunked(0, A.length - 1, i -> multiplyRow(A[i], B, C[i], q, r));
+        }
+    }
+
+    /**
+     * Calcula una fila de C = A x B.
+     *
+     * @param ai Fila de A
+     * @param B Matriz de q x r
+     * @param ci Fila de C
+     * @param q Columnas de A
+     * @param r Columnas de B
+     */
+    private static void multiplyRow(final double[] ai, final double[][] B, final double[] ci, final int q,
+            final int r) {
+        for (int j = 0; j < r; j++) {
+            ci[j] = 0.0;
+        }
+        for (int k = 0; k < q; k++) {
+            final double aik = ai[k];
+            final double[] bk = B[k];
+            for (int j = 0; j < r; j++) {
+                ci[j] += aik * bk[j];
+            }
+        }
+    }
+
+    /**
+     * Toma del pool un buffer de rows x cols, o lo reserva si no hay.
+     *
+     * @param rows Filas
+     * @param cols Columnas
+     * @return El buffer; su contenido es indefinido
+     */
+    private double[][] acquire(final int rows, final int cols) {
+        final Deque<double[][]> free = buffers.get(key(rows, cols));
+        final double[][] buffer = free != null ? free.pollFirst() : null;
+        if (buffer != null) {
+            reused.incrementAndGet();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return new double[rows][cols];
+    }
+
+    /**
+     * Devuelve un buffer intermedio al pool.
+     *
+     * @param buffer El buffer
+     */
+    private void release(final double[][] buffer) {
+        final Deque<double[][]> free = buffers.computeIfAbsent(key(buffer.length, buffer[0].length),
+                k -> new ConcurrentLinkedDeque<>());
+        // El límite es aproximado con varios hilos, lo que basta para acotar la memoria
+        if (free.size() < MAX_RETAINED) {
+            free.addFirst(buffer);
+        }
+    }
+
+    /**
+     * @param rows Filas
+     * @param cols Columnas
+     * @return La clave de la forma en el pool
+     */
+    private static Long key(final int rows, final int cols) {
+        return ((long) rows << 32) | cols;
+    }
+
+    /**
+     * @return El número de buffers reservados porque el pool no tenía uno
+     */
+    public long getAllocatedBuffers() {
+        return allocated.get();
+    }
+
+    /**
+     * @return El número de buffers tomados del pool
+     */
+    public long getReusedBuffers() {
+        return reused.get();
+    }
+}
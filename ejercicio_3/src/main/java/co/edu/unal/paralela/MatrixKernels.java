@@ -0,0 +1,273 @@
+package co.edu.unal.paralela;
+
+import static co.edu.unal.paralela.AsyncFinish.async;
+import static co.edu.unal.paralela.AsyncFinish.finish;
+import static co.edu.unal.paralela.AsyncFinish.forallChunked;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Transpuesta y producto matriz-vector sobre la misma representación
+ * double[][] que MatrixMultiply.
+ *
+ * Las transpuestas son cache-oblivious: el bloque se parte por la mitad en
+ * su dimensión más larga hasta que mide a lo sumo LEAF x LEAF, de modo que a
+ * partir de algún nivel los bloques de origen y destino caben en cada nivel
+ * de caché, sin ajustar un tamaño de bloque a la máquina. Los niveles con
+ * suficientes elementos crean tareas async; los demás se recorren en el hilo
+ * actual.
+ *
+ * El producto matriz-vector reparte las filas con forallChunked: cada fila
+ * es un producto escalar independiente que lee A en orden.
+ */
+public final class MatrixKernels {
+    /**
+     * Lado máximo de los bloques que se recorren directamente.
+     */
+    private static final int LEAF = 32;
+    /**
+     * Número de elementos a partir del cual las mitades de un bloque se
+     * procesan en tareas separadas.
+     */
+    private static final long PARALLEL_AREA = 1L << 14;
+
+    /**
+     * Constructor.
+     */
+    private MatrixKernels() {
+    }
+
+    /**
+     * Calcula en paralelo T = A^T.
+     *
+     * @param A Matriz de entrada de rows x cols
+     * @param T Matriz de salida de cols x rows
+     */
+    public static void transpose(final double[][] A, final double[][] T) {
+        final int rows = A.length;
+        final int cols = rows == 0 ? 0 : A[0].length;
+        checkTranspose(A, T, rows, cols);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("transpose", (long) rows * cols, pool.getParallelism(), pool);
+        finish(() -> transposeBlock(A, T, 0, rows, 0, cols, true));
+        event.finish();
+    }
+
+    /**
+     * Calcula secuencialmente T = A^T con el mismo recorrido recursivo.
+     *
+     * @param A Matriz de entrada de rows x cols
+     * @param T Matriz de salida de cols x rows
+     */
+    public static void seqTranspose(final double[][] A, final double[][] T) {
+        final int rows = A.length;
+        final int cols = rows == 0 ? 0 : A[0].length;
+        checkTranspose(A, T, rows, cols);
+        transposeBlock(A, T, 0, rows, 0, cols, false);
+    }
+
+    /**
+     * Transpone en paralelo, en el mismo arreglo, una matriz cuadrada.
+     *
+     * @param A Matriz de n x n
+     * @param n Tamaño de la matriz
+     */
+    public static void transposeInPlace(final double[][] A, final int n) {
+        if (A.length != n) {
+            throw new IllegalArgumentException("Expected a square matrix of size " + n);
+        }
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final KernelEvent event = KernelEvent.start("transposeInPlace", (long) n * n, pool.getParallelism(), pool);
+        finish(() -> transposeDiagonal(A, 0, n));
+        event.finish();
+    }
+
+    /**
+     * Calcula en paralelo y = A x.
+     *
+     * @param A Matriz de rows x cols
+     * @param x Vector de cols elementos
+     * @param y Vector de salida de rows elementos
+     */
+    public static void gemv(final double[][] A, final double[] x, final double[] y) {
+        checkGemv(A, x, y);
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final long size = A.length == 0 ? 0 : (long) A.length * A[0].length;
+        final KernelEvent event = KernelEvent.start("gemv", size, pool.getParallelism(), pool);
+        forallChunked(0, A.length - 1, i -> y[i] = dot(A[i], x));
+        event.finish();
+    }
+
+    /**
+     * Calcula secuencialmente y = A x.
+     *
+     * @param A Matriz de rows x cols
+     * @param x Vector de cols elementos
+     * @param y Vector de salida de rows elementos
+     */
+    public static void seqGemv(final double[][] A, final double[] x, final double[] y) {
+        checkGemv(A, x, y);
+        for (int i = 0; i < A.length; i++) {
+            y[i] = dot(A[i], x);
+        }
+    }
+
+    /**
+     * Transpone el bloque de filas [r0, r1) y columnas [c0, c1) de A en T.
+     *
+     * @param A Matriz de entrada
+     * @param T Matriz de salida
+     * @param r0 Primera fila (incluida)
+     * @param r1 Última fila (excluida)
+     * @param c0 Primera columna (incluida)
+     * @param c1 Última columna (excluida)
+     * @param parallel Si los bloques grandes se procesan en tareas async
+     */
+    private static void transposeBlock(final double[][] A, final double[][] T, final int r0, final int r1,
+            final int c0, final int c1, final boolean parallel) {
+        final int height = r1 - r0;
+        final int width = c1 - c0;
+        if (height <= LEAF && width <= LEAF) {
+            for (int i = r0; i < r1; i++) {
+                final double[] row = A[i];
+                for (int j = c0; j < c1; j++) {
+                    T[j][i] = row[j];
+                }
+            }
+            return;
+        }
+        final boolean spawn = parallel && (long) height * width > PARALLEL_AREA;
+        if (height >= width) {
+            final int middle = (r0 + r1) >>> 1;
+            run(spawn, () -> transposeBlock(A, T, r0, middle, c0, c1, parallel));
+            transposeBlock(A, T, middle, r1, c0, c1, parallel);
+        } else {
+            final int middle = (c0 + c1) >>> 1;
+            run(spawn, () -> transposeBlock(A, T, r0, r1, c0, middle, parallel));
+            transposeBlock(A, T, r0, r1, middle, c1, parallel);
+        }
+    }
+
+    /**
+     * Transpone en el mismo arreglo el bloque diagonal [lo, hi) x [lo, hi):
+     * transpone sus dos mitades diagonales e intercambia los dos bloques
+     * fuera de la diagonal. Las tres partes tocan elementos distintos.
+     *
+     * @param A La matriz
+     * @param lo Primer índice (incluido)
+     * @param hi Último índice (excluido)
+     */
+    private static void transposeDiagonal(final double[][] A, final int lo, final int hi) {
+        if (hi - lo <= LEAF) {
+            for (int i = lo; i < hi; i++) {
+                for (int j = i + 1; j < hi; j++) {
+                    final double swap = A[i][j];
+                    A[i][j] = A[j][i];
+                    A[j][i] = swap;
+                }
+            }
+            return;
+        }
+        final int middle = (lo + hi) >>> 1;
+        final boolean spawn = (long) (hi - lo) * (hi - lo) > PARALLEL_AREA;
+        run(spawn, () -> transposeDiagonal(A, lo, middle));
+        run(spawn, () -> transposeDiagonal(A, middle, hi));
+        swapBlocks(A, lo, middle, middle, hi);
+    }
+
+    /**
+     * Intercambia A[i][j] con A[j][i] para las filas [r0, r1) y columnas
+     * [c0, c1), con r1 &lt;= c0 para que el bloque esté sobre la diagonal.
+     *
+     * @param A La matriz
+     * @param r0 Primera fila (incluida)
+     * @param r1 Última fila (excluida)
+     * @param c0 Primera columna (incluida)
+     * @param c1 Última columna (excluida)
+     */
+    private static void swapBlocks(final double[][] A, final int r0, final int r1, final int c0, final int c1) {
+        final int height = r1 - r0;
+        final int width = c1 - c0;
+        if (height <= LEAF && width <= LEAF) {
+            for (int i = r0; i < r1; i++) {
+                final double[] row = A[i];
+                for (int j = c0; j < c1; j++) {
+                    final double swap = row[j];
+                    row[j] = A[j][i];
+                    A[j][i] = swap;
+                }
+            }
+            return;
+        }
+        final boolean spawn = (long) height * width > PARALLEL_AREA;
+        if (height >= width) {
+            final int middle = (r0 + r1) >>> 1;
+            run(spawn, () -> swapBlocks(A, r0, middle, c0, c1));
+            swapBlocks(A, middle, r1, c0, c1);
+        } else {
+            final int middle = (c0 + c1) >>> 1;
+            run(spawn, () -> swapBlocks(A, r0, r1, c0, middle));
+            swapBlocks(A, r0, r1, middle, c1);
+        }
+    }
+
+    /**
+     * Ejecuta body en una tarea async si spawn, o directamente si no.
+     *
+     * @param spawn Si se crea una tarea
+     * @param body El cuerpo
+     */
+    private static void run(final boolean spawn, final Runnable body) {
+        if (spawn) {
+            async(body);
+        } else {
+            body.run();
+        }
+    }
+
+    /**
+     * @param row Una fila de A
+     * @param x El vector
+     * @return El producto escalar
+     */
+    private static double dot(final double[] row, final double[] x) {
+        double sum = 0.0;
+        for (int j = 0; j < x.length; j++) {
+            sum += row[j] * x[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Revisa las formas de una transpuesta.
+     */
+    private static void checkTranspose(final double[][] A, final double[][] T, final int rows, final int cols) {
+        if (T.length != cols) {
+            throw new IllegalArgumentException("Output has " + T.length + " rows, expected " + cols);
+        }
+        for (double[] row : T) {
+            if (row.length != rows) {
+                throw new IllegalArgumentException("Output rows must have " + rows + " columns");
+            }
+        }
+        for (double[] row : A) {
+            if (row.length != cols) {
+                throw new IllegalArgumentException("Input is not rectangular");
+            }
+        }
+    }
+
+    /**
+     * Revisa las formas de un producto matriz-vector.
+     */
+    private static void checkGemv(final double[][] A, final double[] x, final double[] y) {
+        if (y.length != A.length) {
+            throw new IllegalArgumentException("y has " + y.length + " elements, expected " + A.length);
+        }
+        for (double[] row : A) {
+            if (row.length != x.length) {
+                throw new IllegalArgumentException("x has " + x.length + " elements, expected " + row.length);
+            }
+        }
+    }
+}
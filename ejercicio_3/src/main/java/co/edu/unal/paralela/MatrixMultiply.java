@@ -1,9 +1,12 @@
 package co.edu.unal.paralela;
 
-import static edu.rice.pcdp.PCDP.forall2dChunked;
-import static edu.rice.pcdp.PCDP.forseq2d;
-import static edu.rice.pcdp.PCDP.forall;
-import static edu.rice.pcdp.PCDP.forall2d;
+import static co.edu.unal.paralela.AsyncFinish.forall2dChunked;
+import static co.edu.unal.paralela.AsyncFinish.forseq2d;
+import static co.edu.unal.paralela.AsyncFinish.forall;
+import static co.edu.unal.paralela.AsyncFinish.forall2d;
+import static co.edu.unal.paralela.AsyncFinish.numWorkerThreads;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Clase envolvente para implementar de forma eficiente la multiplicación de matrices en paralelo.
@@ -29,16 +32,20 @@ public final class MatrixMultiply {
             final double[][] C,
             final int N
         ) {
+            final KernelEvent event = KernelEvent.start("seqMatrixMultiply", (long) N * N, 1, null);
             forseq2d(0, N - 1, 0, N - 1, (i, j) -> {
                 C[i][j] = 0.0;
                 for (int k = 0; k < N; k++) {
                     C[i][j] += A[i][k] * B[k][j];
                 }
             });
+            event.finish();
     }
 
     /**
      * Realiza una multiplicación de matrices bidimensionales (A x B = C) de forma paralela.
+     * Reparte C en el número de trozos por hilo que el Autotuner eligió para esta máquina; la
+     * primera llamada en una máquina sin perfil mide los candidatos, lo que toma unos segundos.
      *
      * @param A Una matriz de entrada con dimensiones NxN
      * @param B Una matriz de entrada con dimensiones NxN
@@ -54,10 +61,101 @@ public final class MatrixMultiply {
         /*
          * PARA HACER: paralelizar el ciclo externo para mejorar el desempeño.
          */
-        forall2dChunked(0, n-1, 0, n-1, (i,j) -> {
+        parMatrixMultiply(A, B, C, n, chunkSizeFor(n, tunedChunksPerWorker()));
+    }
+
+    /**
+     * Igual que parMatrixMultiply, con un tamaño de trozo explícito.
+     *
+     * @param A Una matriz de entrada con dimensiones NxN
+     * @param B Una matriz de entrada con dimensiones NxN
+     * @param C Matriz de salida
+     * @param n Tamaño de las matrices de entrada
+     * @param chunkSize El número de elementos de C que calcula cada tarea
+     */
+    public static void parMatrixMultiply(
+            final double[][] A,
+            final double[][] B,
+            final double[][] C,
+            final int n,
+            final int chunkSize
+        ) {
+        final ForkJoinPool pool = AsyncFinish.workerPool();
+        final long total = (long) n * n;
+        final int tasks = (int) Math.min(Integer.MAX_VALUE, (total + chunkSize - 1) / chunkSize);
+        final KernelEvent event = KernelEvent.start("parMatrixMultiply", total, tasks, pool);
+        forall2dChunked(0, n - 1, 0, n - 1, chunkSize, (i, j) -> {
             C[i][j] = 0.0;
-            for (int k = 0; k < n; k++)
+            for (int k = 0; k < n; k++) {
                 C[i][j] += A[i][k] * B[k][j];
+            }
         });
+        event.finish();
+    }
+
+    /**
+     * Obtiene del perfil de la máquina cuántos trozos por hilo del pool usa
+     * parMatrixMultiply, midiendo de 1 a 32 si aún no se conoce.
+     *
+     * @return El número de trozos por hilo elegido
+     */
+    static int tunedChunksPerWorker() {
+        final int[] candidates = {1, 2, 4, 8, 16, 32};
+        return Autotuner.shared().tune("parMatrixMultiply.chunksPerWorker", candidates, chunks -> {
+            final int size = BenchmarkInput.SIZE;
+            final long start = System.nanoTime();
+            parMatrixMultiply(BenchmarkInput.A, BenchmarkInput.B, BenchmarkInput.C, size, chunkSizeFor(size, chunks));
+            return System.nanoTime() - start;
+        });
+    }
+
+    /**
+     * Calcula el tamaño de trozo para repartir C entre chunksPerWorker
+     * trozos por cada hilo del pool.
+     *
+     * @param n Tamaño de las matrices
+     * @param chunksPerWorker Número de trozos por hilo
+     * @return El tamaño de trozo, al menos 1
+     */
+    static int chunkSizeFor(final int n, final int chunksPerWorker) {
+        final long chunks = (long) numWorkerThreads() * chunksPerWorker;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, ((long) n * n + chunks - 1) / chunks));
+    }
+
+    /**
+     * Matrices de las mediciones del Autotuner, que sólo se crean si se mide.
+     */
+    private static final class BenchmarkInput {
+        /**
+         * Tamaño de las matrices de prueba.
+         */
+        private static final int SIZE = 192;
+        /**
+         * Primera matriz de entrada.
+         */
+        private static final double[][] A = new double[SIZE][SIZE];
+        /**
+         * Segunda matriz de entrada.
+         */
+        private static final double[][] B = new double[SIZE][SIZE];
+        /**
+         * Matriz de salida.
+         */
+        private static final double[][] C = new double[SIZE][SIZE];
+
+        static {
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    A[i][j] = (i + j) % 100;
+                    B[i][j] = (i * j) % 100;
+                }
+            }
+        }
+
+        /**
+         * Constructor.
+         */
+        private BenchmarkInput() {
+        }
     }
 }
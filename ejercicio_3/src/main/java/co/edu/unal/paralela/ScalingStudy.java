@@ -0,0 +1,102 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Estudio de escalabilidad fuerte y débil de parMatrixMultiply. Los async de
+ * AsyncFinish se ejecutan en el pool del hilo que abre el finish, así que
+ * cada medición corre dentro de un ForkJoinPool dedicado con el número de
+ * hilos deseado. En escalabilidad débil el lado N crece con la raíz cúbica
+ * del número de hilos, para que el trabajo (N^3) por hilo sea constante.
+ *
+ * Uso: ScalingStudy [directorio de salida] [máximo de hilos] [repeticiones].
+ * Por defecto escribe en scaling-report, recorre hasta el número de núcleos
+ * disponibles y toma el mejor de 5 tiempos.
+ */
+public final class ScalingStudy {
+    /**
+     * Nombre del kernel en el reporte.
+     */
+    private static final String KERNEL = "parMatrixMultiply";
+    /**
+     * Lados de las matrices para escalabilidad fuerte.
+     */
+    private static final int[] STRONG_SIZES = {256, 512, 768};
+    /**
+     * Lado de las matrices con un hilo en escalabilidad débil.
+     */
+    private static final int WEAK_BASE_SIZE = 256;
+
+    /**
+     * Constructor.
+     */
+    private ScalingStudy() {
+    }
+
+    /**
+     * Ejecuta el estudio y escribe ejercicio_3-scaling.csv y
+     * ejercicio_3-scaling.md.
+     *
+     * @param args Directorio de salida, máximo de hilos y repeticiones,
+     *        todos opcionales
+     * @throws IOException Si no se puede escribir el reporte
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path out = Paths.get(args.length > 0 ? args[0] : "scaling-report");
+        final int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final int[] threadCounts = ScalingReport.threadCounts(maxThreads);
+        final ScalingReport report = new ScalingReport();
+
+        for (int n : STRONG_SIZES) {
+            for (int threads : threadCounts) {
+                report.add(KERNEL, ScalingReport.STRONG, n, threads, measure(n, threads, repeats));
+            }
+        }
+        for (int threads : threadCounts) {
+            final int n = (int) Math.round(WEAK_BASE_SIZE * Math.cbrt(threads));
+            report.add(KERNEL, ScalingReport.WEAK, n, threads, measure(n, threads, repeats));
+        }
+
+        report.write(out, "ejercicio_3");
+        report.writeMarkdown(System.out);
+    }
+
+    /**
+     * Mide parMatrixMultiply de matrices NxN con threads hilos.
+     *
+     * @param n El lado de las matrices
+     * @param threads El número de hilos
+     * @param repeats El número de ejecuciones medidas
+     * @return El menor tiempo en nanosegundos
+     */
+    private static long measure(final int n, final int threads, final int repeats) {
+        final double[][] a = createMatrix(n);
+        final double[][] b = createMatrix(n);
+        final double[][] c = new double[n][n];
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return ScalingReport.measure(repeats,
+                () -> pool.submit(() -> MatrixMultiply.parMatrixMultiply(a, b, c, n)).join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param n El lado de la matriz
+     * @return Una matriz NxN con valores enteros entre 0 y 99
+     */
+    private static double[][] createMatrix(final int n) {
+        final double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = (i * 31 + j * 17) % 100;
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,127 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class BatchMatrixMultiplyTest extends TestCase {
+    final static private int REPEATS = 5;
+
+    private static double[][][] createBatch(final int count, final int n, final long seed) {
+        final Random rand = new Random(seed);
+        final double[][][] batch = new double[count][n][n];
+        for (int m = 0; m < count; m++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    batch[m][i][j] = rand.nextInt(100) - 50;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static double[][][] expected(final double[][][] A, final double[][][] B, final int n) {
+        final double[][][] C = new double[A.length][n][n];
+        for (int m = 0; m < A.length; m++) {
+            MatrixMultiply.seqMatrixMultiply(A[m], B[m], C[m], n);
+        }
+        return C;
+    }
+
+    private static void checkBatch(final double[][][] ref, final double[][][] output, final int n) {
+        for (int m = 0; m < ref.length; m++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals("Error detected on matrix " + m + ", cell (" + i + ", " + j + ")",
+                            ref[m][i][j], output[m][i][j], 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prueba las dos interfaces, secuencial y paralela, con los núcleos especializados y el general.
+     */
+    public void testMatchesSeqMatrixMultiply() {
+        for (int n : new int[] {1, 3, 4, 5, 8, 16, 64}) {
+            final int count = n <= 8 ? 1000 : 50;
+            final double[][][] A = createBatch(count, n, n);
+            final double[][][] B = createBatch(count, n, n + 1);
+            final double[][][] ref = expected(A, B, n);
+
+            final double[][][] C = new double[count][n][n];
+            BatchMatrixMultiply.parMultiply(A, B, C, n);
+            checkBatch(ref, C, n);
+            BatchMatrixMultiply.seqMultiply(A, B, C, n);
+            checkBatch(ref, C, n);
+
+            final double[] a = BatchMatrixMultiply.pack(A, n);
+            final double[] b = BatchMatrixMultiply.pack(B, n);
+            final double[] c = new double[a.length];
+            BatchMatrixMultiply.parMultiplyPacked(a, b, c, n, count);
+            final double[][][] unpacked = new double[count][n][n];
+            BatchMatrixMultiply.unpack(c, n, unpacked);
+            checkBatch(ref, unpacked, n);
+
+            Arrays.fill(c, Double.NaN);
+            BatchMatrixMultiply.seqMultiplyPacked(a, b, c, n, count);
+            BatchMatrixMultiply.unpack(c, n, unpacked);
+            checkBatch(ref, unpacked, n);
+        }
+    }
+
+    /**
+     * Prueba los errores de tamaño.
+     */
+    public void testArguments() {
+        BatchMatrixMultiply.parMultiplyPacked(new double[0], new double[0], new double[0], 4, 0);
+        try {
+            BatchMatrixMultiply.parMultiplyPacked(new double[32], new double[32], new double[31], 4, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            BatchMatrixMultiply.parMultiply(new double[2][4][4], new double[3][4][4], new double[2][4][4], 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+
+    /**
+     * Compara el lote empaquetado de 4x4 con una llamada a parMatrixMultiply por pareja.
+     */
+    public void testBatchFasterThanPerPairParMatrixMultiply() {
+        final int n = 4;
+        final int count = 20_000;
+        final double[][][] A = createBatch(count, n, 1);
+        final double[][][] B = createBatch(count, n, 2);
+        final double[][][] C = new double[count][n][n];
+        final double[] a = BatchMatrixMultiply.pack(A, n);
+        final double[] b = BatchMatrixMultiply.pack(B, n);
+        final double[] c = new double[a.length];
+
+        long perPairTime = 0;
+        long batchTime = 0;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.nanoTime();
+            for (int m = 0; m < count; m++) {
+                MatrixMultiply.parMatrixMultiply(A[m], B[m], C[m], n);
+            }
+            perPairTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BatchMatrixMultiply.parMultiplyPacked(a, b, c, n, count);
+            batchTime += System.nanoTime() - start;
+        }
+        final double[][][] unpacked = new double[count][n][n];
+        BatchMatrixMultiply.unpack(c, n, unpacked);
+        checkBatch(C, unpacked, n);
+
+        assertTrue("Expected the batch of " + count + " 4x4 products to be at least 5x faster, got per pair = "
+                + perPairTime + " ns, batch = " + batchTime + " ns",
+                batchTime * 5 < perPairTime);
+    }
+}
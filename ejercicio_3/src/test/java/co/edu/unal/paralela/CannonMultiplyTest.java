@@ -0,0 +1,77 @@
+package co.edu.unal.paralela;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class CannonMultiplyTest extends TestCase {
+
+    private static double[][] createMatrix(final int n, final long seed) {
+        final Random rand = new Random(seed);
+        final double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = rand.nextInt(100);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Prueba el producto con cuatro procesos trabajadores (q = 2) contra seqMatrixMultiply.
+     */
+    public void testFourWorkerProcesses() throws Exception {
+        final int n = 96;
+        final double[][] A = createMatrix(n, 1);
+        final double[][] B = createMatrix(n, 2);
+        final double[][] C = new double[n][n];
+        CannonMultiply.multiply(A, B, C, n, 2);
+
+        final double[][] ref = new double[n][n];
+        MatrixMultiply.seqMatrixMultiply(A, B, ref, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals("Error detected on cell (" + i + ", " + j + ")", ref[i][j], C[i][j], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Prueba el núcleo de bloques sobre buffers directos.
+     */
+    public void testBlockKernel() {
+        final int b = 5;
+        final ByteBuffer a = CannonWorker.newBlock(b);
+        final ByteBuffer bBlock = CannonWorker.newBlock(b);
+        final double[][] A = createMatrix(b, 3);
+        final double[][] B = createMatrix(b, 4);
+        for (int i = 0; i < b; i++) {
+            a.asDoubleBuffer().put(i * b, A[i]);
+            bBlock.asDoubleBuffer().put(i * b, B[i]);
+        }
+        final double[] c = new double[b * b];
+        CannonWorker.multiplyAccumulate(a.asDoubleBuffer(), bBlock.asDoubleBuffer(), c, b);
+        CannonWorker.multiplyAccumulate(a.asDoubleBuffer(), bBlock.asDoubleBuffer(), c, b);
+
+        final double[][] ref = new double[b][b];
+        MatrixMultiply.seqMatrixMultiply(A, B, ref, b);
+        for (int i = 0; i < b; i++) {
+            for (int j = 0; j < b; j++) {
+                assertEquals(2 * ref[i][j], c[i * b + j], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Prueba que n debe ser múltiplo de q.
+     */
+    public void testArguments() throws Exception {
+        try {
+            CannonMultiply.multiply(new double[5][5], new double[5][5], new double[5][5], 5, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package co.edu.unal.paralela;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class FloatMatrixMultiplyTest extends TestCase {
+
+    /**
+     * Crea una matriz con enteros entre 0 y 99, como MatrixMultiplyTest.
+     */
+    private static double[][] createIntegerMatrix(final int n, final long seed) {
+        final Random rand = new Random(seed);
+        final double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = rand.nextInt(100);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * @return El mayor error relativo de C frente a ref, con ref positiva
+     */
+    private static double maxRelativeError(final double[][] ref, final float[] C, final int n) {
+        double max = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                max = Math.max(max, Math.abs(C[i * n + j] - ref[i][j]) / ref[i][j]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Prueba que con enteros entre 0 y 99 ambos modos coinciden exactamente con seqMatrixMultiply.
+     */
+    public void testIntegerInputsAreExact() {
+        final int n = 512;
+        final double[][] A = createIntegerMatrix(n, 314);
+        final double[][] B = createIntegerMatrix(n, 315);
+        final double[][] ref = new double[n][n];
+        MatrixMultiply.seqMatrixMultiply(A, B, ref, n);
+
+        final float[] a = FloatMatrixMultiply.toFloat(A, n);
+        final float[] b = FloatMatrixMultiply.toFloat(B, n);
+        final float[] c = new float[n * n];
+        FloatMatrixMultiply.parFloatMatrixMultiply(a, b, c, n);
+        assertEquals(0.0, maxRelativeError(ref, c, n));
+        FloatMatrixMultiply.parMixedMatrixMultiply(a, b, c, n);
+        assertEquals(0.0, maxRelativeError(ref, c, n));
+        FloatMatrixMultiply.seqFloatMatrixMultiply(a, b, c, n);
+        assertEquals(0.0, maxRelativeError(ref, c, n));
+        FloatMatrixMultiply.seqMixedMatrixMultiply(a, b, c, n);
+        assertEquals(0.0, maxRelativeError(ref, c, n));
+
+        final double[][] back = FloatMatrixMultiply.toDouble(c, n);
+        assertEquals(ref[7][11], back[7][11]);
+    }
+
+    /**
+     * Prueba las cotas de error con entradas no enteras: el modo mixto queda a pocas unidades de
+     * redondeo de float, y no es peor que el modo float.
+     */
+    public void testFractionalInputsErrorBounds() {
+        final int n = 300;
+        final Random rand = new Random(7);
+        final double[][] A = new double[n][n];
+        final double[][] B = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                A[i][j] = rand.nextDouble() + 0.01;
+                B[i][j] = rand.nextDouble() + 0.01;
+            }
+        }
+        final double[][] ref = new double[n][n];
+        MatrixMultiply.seqMatrixMultiply(A, B, ref, n);
+
+        final float[] a = FloatMatrixMultiply.toFloat(A, n);
+        final float[] b = FloatMatrixMultiply.toFloat(B, n);
+        final float[] c = new float[n * n];
+        final double unit = Math.scalb(1.0, -24);
+
+        FloatMatrixMultiply.parMixedMatrixMultiply(a, b, c, n);
+        final double mixedError = maxRelativeError(ref, c, n);
+        FloatMatrixMultiply.parFloatMatrixMultiply(a, b, c, n);
+        final double floatError = maxRelativeError(ref, c, n);
+        assertTrue("mixed error " + mixedError, mixedError <= 4 * unit);
+        assertTrue("float error " + floatError, floatError <= n * unit);
+        assertTrue("mixed error " + mixedError + " vs float error " + floatError, mixedError <= floatError);
+    }
+
+    /**
+     * Prueba los errores de tamaño.
+     */
+    public void testArguments() {
+        try {
+            FloatMatrixMultiply.parFloatMatrixMultiply(new float[16], new float[16], new float[15], 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package co.edu.unal.paralela;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class MatrixChainTest extends TestCase {
+
+    private static double[][] createMatrix(final int rows, final int cols, final Random rand) {
+        final double[][] matrix = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix[i][j] = rand.nextInt(10);
+            }
+        }
+        return matrix;
+    }
+
+    private static double[][][] createChain(final int[] dims, final long seed) {
+        final Random rand = new Random(seed);
+        final double[][][] chain = new double[dims.length - 1][][];
+        for (int m = 0; m < chain.length; m++) {
+            chain[m] = createMatrix(dims[m], dims[m + 1], rand);
+        }
+        return chain;
+    }
+
+    /**
+     * Multiplica de izquierda a derecha, como se haría sin planificar.
+     */
+    private static double[][] leftToRight(final double[][][] chain) {
+        double[][] acc = chain[0];
+        for (int m = 1; m < chain.length; m++) {
+            final double[][] next = new double[acc.length][chain[m][0].length];
+            MatrixChain.multiplyInto(acc, chain[m], next);
+            acc = next;
+        }
+        return acc;
+    }
+
+    private static void checkResult(final double[][] ref, final double[][] output) {
+        assertEquals(ref.length, output.length);
+        for (int i = 0; i < ref.length; i++) {
+            assertEquals(ref[i].length, output[i].length);
+            for (int j = 0; j < ref[i].length; j++) {
+                assertEquals("Error detected on cell (" + i + ", " + j + ")", ref[i][j], output[i][j], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Prueba el plan con el ejemplo clásico de seis matrices.
+     */
+    public void testPlan() {
+        final MatrixChain.Plan plan = MatrixChain.plan(30, 35, 15, 5, 10, 20, 25);
+        assertEquals(15125, plan.getCost());
+        assertEquals("((A0 (A1 A2)) ((A3 A4) A5))", plan.toString());
+        assertEquals(40500, plan.getLeftToRightCost());
+        assertEquals("A0", MatrixChain.plan(3, 4).toString());
+        assertEquals(0, MatrixChain.plan(3, 4).getCost());
+    }
+
+    /**
+     * Prueba el producto con el de izquierda a derecha para varias formas (entradas enteras: sin redondeo).
+     */
+    public void testMultiplyMatchesLeftToRight() {
+        final int[][] shapes = {
+            {7, 3},
+            {40, 30, 20},
+            {30, 35, 15, 5, 10, 20, 25},
+            {1, 200, 5, 200, 1},
+            {200, 1, 200, 1, 200},
+        };
+        final MatrixChain chain = new MatrixChain();
+        for (int s = 0; s < shapes.length; s++) {
+            final double[][][] matrices = createChain(shapes[s], s);
+            final double[][] product = chain.multiply(matrices);
+            checkResult(leftToRight(matrices), product);
+            if (matrices.length == 1) {
+                assertNotSame(matrices[0], product);
+            }
+        }
+    }
+
+    /**
+     * Prueba que una segunda llamada con las mismas formas reutiliza los buffers intermedios.
+     */
+    public void testBufferReuse() {
+        final int[] dims = {64, 10, 80, 12, 90, 14, 100, 16};
+        final double[][][] matrices = createChain(dims, 3);
+        final MatrixChain chain = new MatrixChain();
+        final double[][] first = chain.multiply(matrices);
+        final long allocated = chain.getAllocatedBuffers();
+        // Cinco productos intermedios y el resultado
+        assertEquals(dims.length - 2, allocated);
+        assertEquals(0, chain.getReusedBuffers());
+
+        final double[][] second = chain.multiply(matrices);
+        assertEquals(allocated + 1, chain.getAllocatedBuffers());
+        assertEquals(dims.length - 3, chain.getReusedBuffers());
+        assertNotSame(first, second);
+        checkResult(first, second);
+    }
+
+    /**
+     * Prueba los errores de forma.
+     */
+    public void testShapeMismatch() {
+        final MatrixChain chain = new MatrixChain();
+        try {
+            chain.multiply(new double[3][4], new double[5][2]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            chain.multiply();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            chain.multiply(new double[][] {{1, 2}, {3}});
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+
+    /**
+     * Compara el plan óptimo con multiplicar de izquierda a derecha cuando la cadena termina en un vector.
+     */
+    public void testFasterThanLeftToRight() {
+        final int[] dims = {400, 400, 400, 400, 1};
+        final double[][][] matrices = createChain(dims, 9);
+        final MatrixChain chain = new MatrixChain();
+        checkResult(leftToRight(matrices), chain.multiply(matrices));
+
+        // Se toma la mejor de varias mediciones, para no contar la compilación JIT ni las pausas del GC
+        long leftToRightTime = Long.MAX_VALUE;
+        long chainTime = Long.MAX_VALUE;
+        for (int r = 0; r < 5; r++) {
+            long start = System.nanoTime();
+            leftToRight(matrices);
+            leftToRightTime = Math.min(leftToRightTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            chain.multiply(matrices);
+            chainTime = Math.min(chainTime, System.nanoTime() - start);
+        }
+        final MatrixChain.Plan plan = MatrixChain.plan(dims);
+        assertTrue("Expected " + plan + " to need 100x fewer flops, got " + plan.getCost() + " vs "
+                + plan.getLeftToRightCost(), plan.getCost() * 100 < plan.getLeftToRightCost());
+        assertTrue("Expected the planned chain to be at least 10x faster, got " + chainTime + " vs "
+                + leftToRightTime + " ns", chainTime * 10 < leftToRightTime);
+    }
+}
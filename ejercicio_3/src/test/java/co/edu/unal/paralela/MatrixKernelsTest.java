@@ -0,0 +1,183 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class MatrixKernelsTest extends TestCase {
+    final static private int REPEATS = 5;
+
+    private static double[][] createMatrix(final int rows, final int cols, final long seed) {
+        final Random rand = new Random(seed);
+        final double[][] matrix = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix[i][j] = rand.nextInt(100);
+            }
+        }
+        return matrix;
+    }
+
+    private static void checkTransposed(final double[][] A, final double[][] T) {
+        for (int i = 0; i < A.length; i++) {
+            for (int j = 0; j < A[i].length; j++) {
+                assertEquals("Error detected on cell (" + i + ", " + j + ")", A[i][j], T[j][i], 0.0);
+            }
+        }
+    }
+
+    /**
+     * Prueba la transpuesta fuera del arreglo con matrices rectangulares.
+     */
+    public void testTranspose() {
+        final int[][] shapes = {{1, 1}, {3, 70}, {100, 37}, {513, 257}, {64, 64}};
+        for (int[] shape : shapes) {
+            final double[][] A = createMatrix(shape[0], shape[1], shape[0]);
+            final double[][] T = new double[shape[1]][shape[0]];
+            MatrixKernels.transpose(A, T);
+            checkTransposed(A, T);
+            final double[][] S = new double[shape[1]][shape[0]];
+            MatrixKernels.seqTranspose(A, S);
+            checkTransposed(A, S);
+        }
+        MatrixKernels.transpose(new double[0][0], new double[0][0]);
+    }
+
+    /**
+     * Prueba la transpuesta en el mismo arreglo, con tamaños que no son potencias de dos.
+     */
+    public void testTransposeInPlace() {
+        for (int n : new int[] {1, 31, 33, 100, 1000}) {
+            final double[][] A = createMatrix(n, n, n);
+            final double[][] copy = createMatrix(n, n, n);
+            MatrixKernels.transposeInPlace(A, n);
+            checkTransposed(copy, A);
+        }
+    }
+
+    /**
+     * Prueba el producto matriz-vector contra el secuencial y contra seqMatrixMultiply.
+     */
+    public void testGemv() {
+        final int n = 300;
+        final double[][] A = createMatrix(n, n, 1);
+        final double[][] X = new double[n][n];
+        final Random rand = new Random(2);
+        final double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = rand.nextInt(100);
+            X[i][0] = x[i];
+        }
+        final double[] y = new double[n];
+        MatrixKernels.gemv(A, x, y);
+        final double[][] ref = new double[n][n];
+        MatrixMultiply.seqMatrixMultiply(A, X, ref, n);
+        final double[] seq = new double[n];
+        MatrixKernels.seqGemv(A, x, seq);
+        for (int i = 0; i < n; i++) {
+            assertEquals(ref[i][0], y[i], 0.0);
+            assertEquals(ref[i][0], seq[i], 0.0);
+        }
+
+        final double[][] wide = createMatrix(5, 40, 3);
+        final double[] w = new double[40];
+        Arrays.fill(w, 1.0);
+        final double[] sums = new double[5];
+        MatrixKernels.gemv(wide, w, sums);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Arrays.stream(wide[i]).sum(), sums[i], 0.0);
+        }
+    }
+
+    /**
+     * Prueba los errores de forma.
+     */
+    public void testArguments() {
+        try {
+            MatrixKernels.transpose(new double[3][4], new double[3][4]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            MatrixKernels.gemv(new double[3][4], new double[3], new double[3]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            MatrixKernels.transposeInPlace(new double[3][3], 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+
+    /**
+     * @return Gigabytes por segundo al mover bytes en nanos
+     */
+    private static double gbPerSecond(final long bytes, final long nanos) {
+        return (double) bytes / nanos;
+    }
+
+    /**
+     * Mide el ancho de banda de los kernels frente a copiar la matriz fila por fila con
+     * System.arraycopy (memcpy), y compara la transpuesta con el recorrido ingenuo.
+     */
+    public void testBandwidth() {
+        final int n = 2048;
+        final double[][] A = createMatrix(n, n, 5);
+        final double[][] T = new double[n][n];
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        Arrays.fill(x, 1.0);
+        // Leer y escribir cada elemento
+        final long moved = 2L * n * n * Double.BYTES;
+
+        long copyTime = Long.MAX_VALUE;
+        long naiveTime = Long.MAX_VALUE;
+        long transposeTime = Long.MAX_VALUE;
+        long inPlaceTime = Long.MAX_VALUE;
+        long gemvTime = Long.MAX_VALUE;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(A[i], 0, T[i], 0, n);
+            }
+            copyTime = Math.min(copyTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    T[j][i] = A[i][j];
+                }
+            }
+            naiveTime = Math.min(naiveTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MatrixKernels.transpose(A, T);
+            transposeTime = Math.min(transposeTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MatrixKernels.transposeInPlace(T, n);
+            inPlaceTime = Math.min(inPlaceTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            MatrixKernels.gemv(A, x, y);
+            gemvTime = Math.min(gemvTime, System.nanoTime() - start);
+        }
+        // La transpuesta en el mismo arreglo deshace la anterior: T vuelve a ser A
+        for (int i = 0; i < n; i++) {
+            assertTrue(Arrays.equals(A[i], T[i]));
+        }
+
+        final String bandwidth = String.format(Locale.ROOT,
+                "n=%d GB/s: arraycopy %.2f, naive transpose %.2f, transpose %.2f, in-place transpose %.2f, gemv %.2f",
+                n, gbPerSecond(moved, copyTime), gbPerSecond(moved, naiveTime), gbPerSecond(moved, transposeTime),
+                gbPerSecond(moved, inPlaceTime), gbPerSecond((long) n * n * Double.BYTES, gemvTime));
+        assertTrue("Expected the cache-oblivious transpose to beat the naive loop, got " + bandwidth,
+                transposeTime < naiveTime);
+    }
+}
@@ -1,6 +1,15 @@
 package co.edu.unal.paralela;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
 
 import junit.framework.TestCase;
 
@@ -8,6 +17,19 @@ public class MatrixMultiplyTest extends TestCase {
     // Número de veces que se repetirá cada test, para tener resultados de tiempo consistentes.
     final static private int REPEATS = 20;
 
+    // Perfil del Autotuner de cada prueba, para no escribir en el de la máquina.
+    private TemporaryProfile profile;
+
+    @Override
+    protected void setUp() throws IOException {
+        profile = TemporaryProfile.open();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        profile.close();
+    }
+
     private static int getNCores() {
         String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
         if (ncoresStr == null) {
@@ -127,4 +149,90 @@ public class MatrixMultiplyTest extends TestCase {
                 "least %fx faster, but it only achieved %fx speedup", minimalExpectedSpeedup, speedup);
         assertTrue(errMsg, speedup >= minimalExpectedSpeedup);
     }
+
+    /**
+     * Prueba que parMatrixMultiply emite un evento de JFR para el kernel y que sus tareas hoja cubren toda la salida.
+     */
+    public void testJfrKernelEvents() throws InterruptedException {
+        final int N = 128;
+        final double[][] A = createMatrix(N);
+        final double[][] B = createMatrix(N);
+        final double[][] C = new double[N][N];
+        final double[][] refC = new double[N][N];
+        final List<RecordedEvent> kernels = new CopyOnWriteArrayList<>();
+        final List<RecordedEvent> leaves = new CopyOnWriteArrayList<>();
+        final CountDownLatch kernelSeen = new CountDownLatch(1);
+        // Las mediciones del Autotuner también son kernels; se hacen antes de grabar
+        MatrixMultiply.tunedChunksPerWorker();
+
+        try (RecordingStream stream = new RecordingStream()) {
+            // Los eventos se leen después de cerrar el flujo, así que no se pueden reutilizar
+            stream.setReuse(false);
+            stream.enable(KernelEvent.class);
+            stream.enable(LeafTaskEvent.class);
+            stream.onEvent("co.edu.unal.paralela.Kernel", event -> {
+                if ("parMatrixMultiply".equals(event.getString("kernel"))) {
+                    kernels.add(event);
+                    kernelSeen.countDown();
+                }
+            });
+            stream.onEvent("co.edu.unal.paralela.LeafTask", event -> {
+                if ("forall2dChunked".equals(event.getString("kernel"))) {
+                    leaves.add(event);
+                }
+            });
+            stream.startAsync();
+
+            MatrixMultiply.parMatrixMultiply(A, B, C, N);
+            assertTrue("No kernel event was recorded", kernelSeen.await(30, TimeUnit.SECONDS));
+            // Las hojas se registran antes que el kernel; se espera a que el flujo las entregue todas
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (coveredElements(leaves) < (long) N * N && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+        }
+
+        seqMatrixMultiply(A, B, refC, N);
+        checkResult(refC, C, N);
+        final RecordedEvent kernel = kernels.get(0);
+        assertEquals((long) N * N, kernel.getLong("inputSize"));
+        assertTrue(kernel.getInt("tasks") >= 1);
+        assertTrue(kernel.getLong("steals") >= 0);
+        assertEquals((long) N * N, coveredElements(leaves));
+    }
+
+    /**
+     * Suma el tamaño de los trozos de las tareas hoja de forall2dChunked.
+     *
+     * @param leaves Eventos de tareas hoja recibidos
+     * @return El número de elementos cubiertos
+     */
+    private static long coveredElements(final List<RecordedEvent> leaves) {
+        long covered = 0;
+        for (RecordedEvent leaf : leaves) {
+            if ("forall2dChunked".equals(leaf.getString("kernel"))) {
+                covered += leaf.getLong("size");
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * Prueba que parMatrixMultiply toma del perfil los trozos por hilo, midiéndolos la primera vez.
+     */
+    public void testTunedChunksInProfile() throws IOException {
+        final int N = 100;
+        final double[][] A = createMatrix(N);
+        final double[][] B = createMatrix(N);
+        final double[][] C = new double[N][N];
+        final double[][] refC = new double[N][N];
+        MatrixMultiply.parMatrixMultiply(A, B, C, N);
+        seqMatrixMultiply(A, B, refC, N);
+        checkResult(refC, C, N);
+
+        final int chunks = MatrixMultiply.tunedChunksPerWorker();
+        assertTrue(chunks >= 1 && chunks <= 32);
+        final String saved = new String(Files.readAllBytes(Autotuner.shared().getFile()), "UTF-8");
+        assertTrue(saved.contains("parMatrixMultiply.chunksPerWorker=" + chunks));
+    }
 }
@@ -0,0 +1,53 @@
+package co.edu.unal.paralela;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de JFR con las métricas de una tarea en una ejecución de un promedio
+ * iterativo con phasers, emitido al final de la ejecución por PhaserMetrics.
+ * Los tiempos son promedios por iteración de esa ejecución.
+ */
+@Name("co.edu.unal.paralela.BarrierMetrics")
+@Label("Barrier Metrics")
+@Category({"Paralela", "Phaser"})
+@Description("Compute, barrier wait and overlap time of one stencil task")
+public final class BarrierMetricsEvent extends Event {
+    /**
+     * Variante del promedio iterativo ("barrier" o "fuzzy").
+     */
+    @Label("Mode")
+    String mode;
+    /**
+     * Índice de la tarea.
+     */
+    @Label("Task")
+    int task;
+    /**
+     * Número de iteraciones medidas en la ejecución.
+     */
+    @Label("Iterations")
+    long iterations;
+    /**
+     * Tiempo de cómputo de la tarea por iteración.
+     */
+    @Label("Compute Time per Iteration")
+    @Timespan(Timespan.NANOSECONDS)
+    long computeNanos;
+    /**
+     * Tiempo de espera en la barrera por iteración.
+     */
+    @Label("Barrier Wait Time per Iteration")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitNanos;
+    /**
+     * Tiempo de cómputo traslapado con la barrera difusa por iteración.
+     */
+    @Label("Overlap Time per Iteration")
+    @Timespan(Timespan.NANOSECONDS)
+    long overlapNanos;
+}
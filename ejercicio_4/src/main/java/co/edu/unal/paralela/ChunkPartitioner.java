@@ -0,0 +1,161 @@
+package co.edu.unal.paralela;
+
+/**
+ * Reparte los elementos 1..n de un problema de promedio iterativo entre un
+ * número fijo de tareas.
+ *
+ * Los trozos iniciales son balanceados: cuando n no es divisible por el
+ * número de tareas, los primeros n % tasks trozos tienen un elemento más, de
+ * modo que todos los elementos quedan cubiertos. Opcionalmente los límites se
+ * pueden rebalancear a partir del tiempo medido para cada tarea, lo que
+ * permite asignar trozos más grandes a los núcleos más rápidos.
+ */
+public final class ChunkPartitioner {
+    /**
+     * Tamaño del problema.
+     */
+    private final int n;
+    /**
+     * Número de tareas entre las que se reparten los elementos.
+     */
+    private final int tasks;
+    /**
+     * Límites de los trozos: la tarea i procesa los elementos
+     * bounds[i] + 1 .. bounds[i + 1].
+     */
+    private final int[] bounds;
+    /**
+     * Tiempo acumulado (en nanosegundos) por cada tarea desde el último
+     * rebalanceo.
+     */
+    private final long[] elapsed;
+    /**
+     * Espacio de trabajo para las velocidades calculadas en rebalance.
+     */
+    private final double[] speeds;
+
+    /**
+     * Constructor.
+     *
+     * @param n El tamaño del problema
+     * @param tasks El número de tareas
+     */
+    public ChunkPartitioner(final int n, final int tasks) {
+        if (n < 0 || tasks <= 0) {
+            throw new IllegalArgumentException("n = " + n + ", tasks = " + tasks);
+        }
+        this.n = n;
+        this.tasks = tasks;
+        this.bounds = new int[tasks + 1];
+        this.elapsed = new long[tasks];
+        this.speeds = new double[tasks];
+        for (int i = 0; i <= tasks; i++) {
+            bounds[i] = chunkStart(n, tasks, i) - 1;
+        }
+    }
+
+    /**
+     * Calcula el primer elemento (inclusivo) del trozo i en un reparto
+     * balanceado.
+     *
+     * @param n El tamaño del problema
+     * @param tasks El número de tareas
+     * @param i El índice de la tarea
+     * @return El primer elemento del trozo, comenzando en 1
+     */
+    public static int chunkStart(final int n, final int tasks, final int i) {
+        return (int) ((long) i * n / tasks) + 1;
+    }
+
+    /**
+     * Calcula el último elemento (inclusivo) del trozo i en un reparto
+     * balanceado.
+     *
+     * @param n El tamaño del problema
+     * @param tasks El número de tareas
+     * @param i El índice de la tarea
+     * @return El último elemento del trozo; es menor que chunkStart si el
+     *         trozo está vacío
+     */
+    public static int chunkEnd(final int n, final int tasks, final int i) {
+        return (int) ((long) (i + 1) * n / tasks);
+    }
+
+    /**
+     * @return El número de tareas
+     */
+    public int getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El primer elemento (inclusivo) asignado actualmente a la tarea
+     */
+    public int getLeft(final int i) {
+        return bounds[i] + 1;
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El último elemento (inclusivo) asignado actualmente a la tarea
+     */
+    public int getRight(final int i) {
+        return bounds[i + 1];
+    }
+
+    /**
+     * Registra el tiempo que la tarea i tardó en procesar su trozo. Cada
+     * tarea sólo escribe en su propia posición, por lo que no se necesita
+     * sincronización adicional más allá de la barrera.
+     *
+     * @param i El índice de la tarea
+     * @param nanos El tiempo medido en nanosegundos
+     */
+    public void recordTime(final int i, final long nanos) {
+        elapsed[i] += nanos;
+    }
+
+    /**
+     * Recalcula los límites de los trozos de forma que el tamaño de cada uno
+     * sea proporcional a la velocidad (elementos por nanosegundo) medida
+     * para su tarea, y reinicia los tiempos acumulados. Sólo debe llamarse
+     * cuando ninguna tarea está procesando su trozo, por ejemplo desde
+     * Phaser.onAdvance en la variante con barrera simple.
+     */
+    public void rebalance() {
+        double totalSpeed = 0.0;
+        for (int i = 0; i < tasks; i++) {
+            if (elapsed[i] <= 0) {
+                resetTimes();
+                return;
+            }
+            speeds[i] = (double) (bounds[i + 1] - bounds[i]) / elapsed[i];
+            totalSpeed += speeds[i];
+        }
+        if (totalSpeed <= 0.0) {
+            resetTimes();
+            return;
+        }
+
+        // Cada tarea conserva al menos un elemento mientras haya suficientes
+        final int minChunk = n >= tasks ? 1 : 0;
+        double accumulated = 0.0;
+        for (int i = 0; i < tasks - 1; i++) {
+            accumulated += speeds[i] / totalSpeed;
+            final int candidate = (int) Math.round(accumulated * n);
+            bounds[i + 1] = Math.max(bounds[i] + minChunk, Math.min(candidate, n - minChunk * (tasks - i - 1)));
+        }
+        bounds[tasks] = n;
+        resetTimes();
+    }
+
+    /**
+     * Reinicia los tiempos acumulados de todas las tareas.
+     */
+    private void resetTimes() {
+        for (int i = 0; i < tasks; i++) {
+            elapsed[i] = 0;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package co.edu.unal.paralela;
 
 import java.util.concurrent.Phaser;
+import java.util.function.IntConsumer;
 
 /**
  * Clase que envuelve para implementar promedio iterativo usando
  * phasers de java.
  */
 public final class OneDimAveragingPhaser {
+    /**
+     * Cantidad de valores 'double' que ocupan una línea de caché de 64 bytes.
+     */
+    private static final int CACHE_LINE_DOUBLES = 8;
+
     /**
      * Constructor por defecto.
      */
@@ -24,6 +30,7 @@ public final class OneDimAveragingPhaser {
      */
     public static void runSequential(final int iterations, final double[] myNew,
             final double[] myVal, final int n) {
+        final KernelEvent event = KernelEvent.start("runSequential", n, 1, null);
         double[] next = myNew;
         double[] curr = myVal;
 
@@ -35,6 +42,7 @@ public final class OneDimAveragingPhaser {
             curr = next;
             next = tmp;
         }
+        event.finish();
     }
 
     /**
@@ -45,47 +53,94 @@ public final class OneDimAveragingPhaser {
      * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
      * @param myVal Un arreglo 'double' que contiene la entrada inicial
      *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
      * @param tasks El número de hilos/tareas para procesar
      */
     public static void runParallelBarrier(final int iterations,
             final double[] myNew, final double[] myVal, final int n,
             final int tasks) {
-        Phaser ph = new Phaser(0);
-        ph.bulkRegister(tasks);
-
-        Thread[] threads = new Thread[tasks];
+        runParallelBarrier(iterations, myNew, myVal, n, tasks, StencilOptions.defaults());
+    }
 
-        for (int ii = 0; ii < tasks; ii++) {
-            final int i = ii;
+    /**
+     * Igual que runParallelBarrier, con opciones de ejecución; por ejemplo,
+     * con ExecutionBackend.VIRTUAL_THREADS cada tarea corre en un hilo
+     * virtual y se pueden usar decenas de miles de tareas, y con un fan-in
+     * la barrera usa un árbol de phasers en lugar de uno solo. Con
+     * StencilOptions.withMetrics se mide el tiempo de cómputo y de espera en
+     * la barrera de cada tarea. Con StencilOptions.withCheckpoint el estado
+     * se copia en Phaser.onAdvance cada cierto número de iteraciones y un
+     * hilo aparte lo escribe en un archivo (ver StencilCheckpoint); al
+     * reanudar, sólo se ejecutan las iteraciones que faltan y el resultado
+     * es idéntico bit a bit al de una ejecución sin interrupciones.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     * @param options Las opciones de ejecución
+     */
+    public static void runParallelBarrier(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int tasks, final StencilOptions options) {
+        final PhaserMetrics metrics = options.getMetrics();
+        if (metrics != null) {
+            metrics.checkTasks(tasks);
+        }
+        final StencilCheckpoint checkpoint = options.getCheckpoint();
+        final int first = checkpoint == null ? 0 : checkpoint.restore(myNew, myVal, n, iterations);
+        final Phaser root = checkpoint == null ? new Phaser(0) : new Phaser(0) {
+            @Override
+            protected boolean onAdvance(final int phase, final int registeredParties) {
+                // Todas las tareas llegaron: nadie escribe en los arreglos mientras se copian
+                final int completed = first + phase + 1;
+                if (completed % checkpoint.getInterval() == 0 && completed < iterations) {
+                    checkpoint.snapshot(completed, completed % 2 == 1 ? myNew : myVal,
+                            completed % 2 == 1 ? myVal : myNew);
+                }
+                return false;
+            }
+        };
+        final Phaser[] phasers = PhaserTree.build(root, tasks, options.getFanIn());
 
-            threads[ii] = new Thread(() -> {
-                double[] threadPrivateMyVal = myVal;
-                double[] threadPrivateMyNew = myNew;
+        runTasks("runParallelBarrier", n, tasks, options.getBackend(), i -> {
+            final Phaser ph = phasers[i];
+            // Al reanudar tras un número impar de iteraciones los papeles de los arreglos están invertidos
+            double[] threadPrivateMyVal = first % 2 == 0 ? myVal : myNew;
+            double[] threadPrivateMyNew = first % 2 == 0 ? myNew : myVal;
 
-                for (int iter = 0; iter < iterations; iter++) {
-                    final int left = i * (n / tasks) + 1;
-                    final int right = (i + 1) * (n / tasks);
+            final int left = ChunkPartitioner.chunkStart(n, tasks, i);
+            final int right = ChunkPartitioner.chunkEnd(n, tasks, i);
+            if (metrics != null) {
+                metrics.begin(i);
+            }
 
-                    for (int j = left; j <= right; j++) {
-                        threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
-                            + threadPrivateMyVal[j + 1]) / 2.0;
-                    }
+            for (int iter = first; iter < iterations; iter++) {
+                final long start = metrics == null ? 0L : System.nanoTime();
+                for (int j = left; j <= right; j++) {
+                    threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
+                        + threadPrivateMyVal[j + 1]) / 2.0;
+                }
+                if (metrics == null) {
                     ph.arriveAndAwaitAdvance();
-
-                    double[] temp = threadPrivateMyNew;
-                    threadPrivateMyNew = threadPrivateMyVal;
-                    threadPrivateMyVal = temp;
+                } else {
+                    final long computed = System.nanoTime();
+                    ph.arriveAndAwaitAdvance();
+                    metrics.record(i, computed - start, System.nanoTime() - computed, 0L);
                 }
-            });
-            threads[ii].start();
-        }
 
-        for (int ii = 0; ii < tasks; ii++) {
-            try {
-                threads[ii].join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                double[] temp = threadPrivateMyNew;
+                threadPrivateMyNew = threadPrivateMyVal;
+                threadPrivateMyVal = temp;
             }
+            if (metrics != null) {
+                metrics.emit(i, "barrier");
+            }
+        });
+        if (checkpoint != null) {
+            checkpoint.awaitWrites();
         }
     }
 
@@ -101,50 +156,403 @@ public final class OneDimAveragingPhaser {
      * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
      * @param myVal Un arreglo 'double' que contiene la entrada inicial
      *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     */
+    public static void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int tasks) {
+        runParallelFuzzyBarrier(iterations, myNew, myVal, n, tasks, StencilOptions.defaults());
+    }
+
+    /**
+     * Igual que runParallelFuzzyBarrier, con opciones de ejecución. Con
+     * StencilOptions.withMetrics se mide además cuánto del tiempo de la
+     * barrera quedó oculto por el cómputo interior de cada trozo.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     * @param options Las opciones de ejecución
+     */
+    public static void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int tasks, final StencilOptions options) {
+        if (options.getCheckpoint() != null) {
+            throw new IllegalArgumentException("Checkpoints are only supported by runParallelBarrier");
+        }
+        final Phaser[] phasers = PhaserTree.build(new Phaser(0), tasks, options.getFanIn());
+        final PhaserMetrics metrics = options.getMetrics();
+        if (metrics != null) {
+            metrics.checkTasks(tasks);
+        }
+
+        runTasks("runParallelFuzzyBarrier", n, tasks, options.getBackend(), i -> {
+            final Phaser ph = phasers[i];
+            double[] threadPrivateMyVal = myVal;
+            double[] threadPrivateMyNew = myNew;
+
+            final int left = ChunkPartitioner.chunkStart(n, tasks, i);
+            final int right = ChunkPartitioner.chunkEnd(n, tasks, i);
+            if (metrics != null) {
+                metrics.begin(i);
+            }
+
+            for (int iter = 0; iter < iterations; iter++) {
+                final long start = metrics == null ? 0L : System.nanoTime();
+                if (left <= right) {
+                    threadPrivateMyNew[left] = (threadPrivateMyVal[left - 1] + threadPrivateMyVal[left + 1]) / 2.0;
+                    threadPrivateMyNew[right] = (threadPrivateMyVal[right - 1] + threadPrivateMyVal[right + 1]) / 2.0;
+                }
+
+                int currentPhase = ph.arrive();
+                final long arrived = metrics == null ? 0L : System.nanoTime();
+                for (int j = left + 1; j <= right - 1; j++) {
+                    threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1] + threadPrivateMyVal[j + 1]) / 2.0;
+                }
+                if (metrics == null) {
+                    ph.awaitAdvance(currentPhase);
+                } else {
+                    // El cómputo interior después de arrive es el que se traslapa con la barrera
+                    final long computed = System.nanoTime();
+                    ph.awaitAdvance(currentPhase);
+                    metrics.record(i, computed - start, System.nanoTime() - computed, computed - arrived);
+                }
+
+                double[] temp = threadPrivateMyNew;
+                threadPrivateMyNew = threadPrivateMyVal;
+                threadPrivateMyVal = temp;
+            }
+            if (metrics != null) {
+                metrics.emit(i, "fuzzy");
+            }
+        });
+    }
+
+    /**
+     * Variante de runParallelBarrier que rebalancea los límites de los trozos
+     * entre iteraciones a partir del tiempo medido para cada tarea. Es útil
+     * cuando los núcleos no son homogéneos o están compartidos con otras
+     * cargas. El rebalanceo se hace dentro de Phaser.onAdvance, cuando todas
+     * las tareas ya terminaron su trozo y antes de que comiencen la siguiente
+     * iteración, por lo que el resultado es idéntico al de runSequential.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
      * @param tasks El número de hilos/tareas para procesar
+     * @param rebalanceInterval Cada cuántas iteraciones se recalculan los
+     *        límites de los trozos; 0 desactiva el rebalanceo
      */
-     public static void runParallelFuzzyBarrier(final int iterations,
-         final double[] myNew, final double[] myVal, final int n,
-         final int tasks) {
-         Phaser ph = new Phaser(0);
-         ph.bulkRegister(tasks);
-
-         Thread[] threads = new Thread[tasks];
-
-         for (int ii = 0; ii < tasks; ii++) {
-             final int i = ii;
-
-             threads[ii] = new Thread(() -> {
-                 double[] threadPrivateMyVal = myVal;
-                 double[] threadPrivateMyNew = myNew;
-
-                 for (int iter = 0; iter < iterations; iter++) {
-                     final int left = i * (n / tasks) + 1;
-                     threadPrivateMyNew[left] = (threadPrivateMyVal[left - 1] + threadPrivateMyVal[left + 1]) / 2.0;
-
-                     final int right = (i + 1) * (n / tasks);
-                     threadPrivateMyNew[right] = (threadPrivateMyVal[right - 1] + threadPrivateMyVal[right + 1]) / 2.0;
-
-                     int currentPhase = ph.arrive();
-                     for (int j = left + 1; j <= right - 1; j++) {
-                         threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1] + threadPrivateMyVal[j + 1]) / 2.0;
-                     }
-                     ph.awaitAdvance(currentPhase);
-
-                     double[] temp = threadPrivateMyNew;
-                     threadPrivateMyNew = threadPrivateMyVal;
-                     threadPrivateMyVal = temp;
-                 }
-             });
-             threads[ii].start();
-         }
-
-         for (int ii = 0; ii < tasks; ii++) {
-             try {
-                 threads[ii].join();
-             } catch (InterruptedException e) {
-                 e.printStackTrace();
-             }
-         }
+    public static void runParallelAdaptiveBarrier(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int tasks, final int rebalanceInterval) {
+        final ChunkPartitioner partitioner = new ChunkPartitioner(n, tasks);
+        Phaser ph = new Phaser(0) {
+            @Override
+            protected boolean onAdvance(final int phase, final int registeredParties) {
+                if (rebalanceInterval > 0 && (phase + 1) % rebalanceInterval == 0) {
+                    partitioner.rebalance();
+                }
+                return false;
+            }
+        };
+        ph.bulkRegister(tasks);
+
+        runTasks("runParallelAdaptiveBarrier", n, tasks, ExecutionBackend.PLATFORM_THREADS, i -> {
+            double[] threadPrivateMyVal = myVal;
+            double[] threadPrivateMyNew = myNew;
+
+            for (int iter = 0; iter < iterations; iter++) {
+                final long start = System.nanoTime();
+                final int left = partitioner.getLeft(i);
+                final int right = partitioner.getRight(i);
+
+                for (int j = left; j <= right; j++) {
+                    threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
+                        + threadPrivateMyVal[j + 1]) / 2.0;
+                }
+                partitioner.recordTime(i, System.nanoTime() - start);
+                ph.arriveAndAwaitAdvance();
+
+                double[] temp = threadPrivateMyNew;
+                threadPrivateMyNew = threadPrivateMyVal;
+                threadPrivateMyVal = temp;
+            }
+        });
+    }
+
+    /**
+     * Variante de runParallelBarrier en la que cada tarea es dueña de su
+     * trozo: los arreglos locales de cada tarea se reservan e inicializan
+     * dentro del hilo que los usa (first-touch), de modo que con
+     * -XX:+UseNUMA sus páginas quedan en el nodo NUMA de ese hilo, y se
+     * rellenan con una línea de caché a cada lado para que trozos vecinos
+     * nunca compartan líneas. Los valores de frontera se intercambian de
+     * forma explícita a través de un arreglo de halos también rellenado,
+     * con doble búfer por paridad de iteración para necesitar una sola
+     * barrera por iteración. Al terminar, cada tarea copia su trozo de
+     * vuelta a myNew y myVal, dejando ambos arreglos exactamente como los
+     * dejaría runParallelBarrier.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     */
+    public static void runParallelOwnedChunks(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int tasks) {
+        if (iterations <= 0) {
+            return;
+        }
+        // Con más tareas que elementos habría trozos vacíos sin fronteras
+        final int workers = Math.max(1, Math.min(tasks, n));
+        final double[] fixedLeft = {myVal[0], myNew[0]};
+        final double[] fixedRight = {myVal[n + 1], myNew[n + 1]};
+        // halo[paridad][(2 * i) * CACHE_LINE_DOUBLES] es el borde izquierdo de
+        // la tarea i y halo[paridad][(2 * i + 1) * CACHE_LINE_DOUBLES] el derecho
+        final double[][] halo = new double[2][(2 * workers + 1) * CACHE_LINE_DOUBLES];
+
+        Phaser ph = new Phaser(0);
+        ph.bulkRegister(workers);
+
+        runTasks("runParallelOwnedChunks", n, workers, ExecutionBackend.PLATFORM_THREADS, i -> {
+            final int left = ChunkPartitioner.chunkStart(n, workers, i);
+            final int right = ChunkPartitioner.chunkEnd(n, workers, i);
+            final int size = right - left + 1;
+            final int base = CACHE_LINE_DOUBLES;
+            final int leftSlot = 2 * i * CACHE_LINE_DOUBLES;
+            final int rightSlot = (2 * i + 1) * CACHE_LINE_DOUBLES;
+
+            // Reserva e inicialización first-touch dentro del hilo dueño
+            double[] curr = new double[size + 2 + 2 * CACHE_LINE_DOUBLES];
+            double[] next = new double[size + 2 + 2 * CACHE_LINE_DOUBLES];
+            System.arraycopy(myVal, left - 1, curr, base, size + 2);
+
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int j = base + 1; j <= base + size; j++) {
+                    next[j] = (curr[j - 1] + curr[j + 1]) / 2.0;
+                }
+                final double[] outHalo = halo[iter & 1];
+                if (size > 0) {
+                    outHalo[leftSlot] = next[base + 1];
+                    outHalo[rightSlot] = next[base + size];
+                }
+                ph.arriveAndAwaitAdvance();
+
+                final int nextParity = (iter + 1) & 1;
+                next[base] = i == 0 ? fixedLeft[nextParity]
+                    : outHalo[leftSlot - CACHE_LINE_DOUBLES];
+                next[base + size + 1] = i == workers - 1 ? fixedRight[nextParity]
+                    : outHalo[rightSlot + CACHE_LINE_DOUBLES];
+
+                double[] temp = next;
+                next = curr;
+                curr = temp;
+            }
+
+            final double[] latest = iterations % 2 == 1 ? myNew : myVal;
+            final double[] previous = iterations % 2 == 1 ? myVal : myNew;
+            System.arraycopy(curr, base + 1, latest, left, size);
+            System.arraycopy(next, base + 1, previous, left, size);
+        });
+    }
+
+    /**
+     * Implementación secuencial de Gauss-Seidel rojo-negro sobre un único
+     * arreglo. Cada iteración actualiza primero los elementos impares (rojos)
+     * y luego los pares (negros), usando en la segunda mitad los valores ya
+     * actualizados en la primera. Necesita la mitad de memoria que
+     * runSequential y converge al mismo punto fijo en menos iteraciones,
+     * aunque los valores intermedios no coinciden con los de Jacobi.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial y que
+     *        se actualiza en el mismo lugar
+     * @param n El tamaño de este problema
+     */
+    public static void runSequentialRedBlack(final int iterations,
+            final double[] myVal, final int n) {
+        final KernelEvent event = KernelEvent.start("runSequentialRedBlack", n, 1, null);
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int color = 1; color >= 0; color--) {
+                for (int j = 2 - color; j <= n; j += 2) {
+                    myVal[j] = (myVal[j - 1] + myVal[j + 1]) / 2.0;
+                }
+            }
+        }
+        event.finish();
+    }
+
+    /**
+     * Implementación paralela de Gauss-Seidel rojo-negro sobre un único
+     * arreglo. Cada iteración consta de dos medios barridos, uno por color,
+     * separados por la barrera del phaser: dentro de un medio barrido cada
+     * elemento sólo lee vecinos del otro color, así que los trozos se pueden
+     * actualizar en paralelo en el mismo lugar. El resultado es idéntico al
+     * de runSequentialRedBlack.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial y que
+     *        se actualiza en el mismo lugar
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     */
+    public static void runParallelRedBlack(final int iterations,
+            final double[] myVal, final int n, final int tasks) {
+        Phaser ph = new Phaser(0);
+        ph.bulkRegister(tasks);
+
+        runTasks("runParallelRedBlack", n, tasks, ExecutionBackend.PLATFORM_THREADS, i -> {
+            final int left = ChunkPartitioner.chunkStart(n, tasks, i);
+            final int right = ChunkPartitioner.chunkEnd(n, tasks, i);
+
+            for (int iter = 0; iter < iterations; iter++) {
+                for (int color = 1; color >= 0; color--) {
+                    // Primer elemento del color dentro del trozo: impar para rojo, par para negro
+                    final int first = (left & 1) == color ? left : left + 1;
+                    for (int j = first; j <= right; j += 2) {
+                        myVal[j] = (myVal[j - 1] + myVal[j + 1]) / 2.0;
+                    }
+                    ph.arriveAndAwaitAdvance();
+                }
+            }
+        });
+    }
+
+    /**
+     * Igual que runParallelBarrier, con el número de tareas que el Autotuner
+     * eligió para esta máquina y para problemas del tamaño de n. La primera
+     * llamada con un tamaño sin perfil mide los candidatos.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     */
+    public static void runParallelBarrierTuned(final int iterations,
+            final double[] myNew, final double[] myVal, final int n) {
+        runParallelBarrier(iterations, myNew, myVal, n, tunedBarrierTasks(n));
+    }
+
+    /**
+     * Igual que runParallelFuzzyBarrier, con el número de tareas que el
+     * Autotuner eligió para esta máquina y para problemas del tamaño de n.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     */
+    public static void runParallelFuzzyBarrierTuned(final int iterations,
+            final double[] myNew, final double[] myVal, final int n) {
+        runParallelFuzzyBarrier(iterations, myNew, myVal, n, tunedFuzzyBarrierTasks(n));
+    }
+
+    /**
+     * Obtiene del perfil de la máquina el número de tareas de
+     * runParallelBarrier para problemas de tamaño n.
+     *
+     * @param n El tamaño del problema
+     * @return El número de tareas elegido, entre 1 y n
+     */
+    static int tunedBarrierTasks(final int n) {
+        return tunedTasks("phaser.barrier.tasks.log2n", n, OneDimAveragingPhaser::runParallelBarrier);
+    }
+
+    /**
+     * Obtiene del perfil de la máquina el número de tareas de
+     * runParallelFuzzyBarrier para problemas de tamaño n.
+     *
+     * @param n El tamaño del problema
+     * @return El número de tareas elegido, entre 1 y n
+     */
+    static int tunedFuzzyBarrierTasks(final int n) {
+        return tunedTasks("phaser.fuzzy.tasks.log2n", n, OneDimAveragingPhaser::runParallelFuzzyBarrier);
+    }
+
+    /**
+     * Obtiene del perfil de la máquina el número de tareas de kernel para
+     * problemas de tamaño n. Los tamaños se agrupan por potencias de dos; si
+     * el grupo de n aún no tiene valor, se mide el mismo kernel con 1 a 8
+     * tareas por núcleo sobre un problema del tamaño del grupo (hasta 4M
+     * elementos).
+     *
+     * @param knob El prefijo del parámetro en el perfil, propio del kernel
+     * @param n El tamaño del problema
+     * @param kernel El kernel que se mide
+     * @return El número de tareas elegido, entre 1 y n
+     */
+    private static int tunedTasks(final String knob, final int n, final StencilKernel kernel) {
+        final int bucket = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        final int size = Math.max(1, Math.min(n, 1 << 22));
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int[] candidates = {cores, 2 * cores, 4 * cores, 8 * cores};
+        for (int c = 0; c < candidates.length; c++) {
+            candidates[c] = Math.max(1, Math.min(candidates[c], size));
+        }
+        final double[][] arrays = new double[2][];
+        final int tasks = Autotuner.shared().tune(knob + bucket, candidates, candidate -> {
+            if (arrays[0] == null) {
+                arrays[0] = new double[size + 2];
+                arrays[1] = new double[size + 2];
+                arrays[1][size + 1] = 1.0;
+                arrays[0][size + 1] = 1.0;
+            }
+            final long start = System.nanoTime();
+            kernel.run(20, arrays[0], arrays[1], size, candidate);
+            return System.nanoTime() - start;
+        });
+        return Math.max(1, Math.min(tasks, n));
+    }
+
+    /**
+     * Ejecuta una tarea por cada índice 0..tasks-1, cada una en su propio
+     * hilo del backend indicado, y espera a que todas terminen. Emite un
+     * KernelEvent para la ejecución completa y un LeafTaskEvent por tarea,
+     * con el trozo inicial que le corresponde.
+     *
+     * @param kernel El nombre del kernel, para los eventos de JFR
+     * @param n El tamaño del problema
+     * @param tasks El número de tareas
+     * @param backend El tipo de hilo de cada tarea
+     * @param body El cuerpo de las tareas, que recibe el índice de la tarea
+     */
+    private static void runTasks(final String kernel, final int n, final int tasks,
+            final ExecutionBackend backend, final IntConsumer body) {
+        final KernelEvent event = KernelEvent.start(kernel, n, tasks, null);
+        Thread[] threads = new Thread[tasks];
+
+        for (int ii = 0; ii < tasks; ii++) {
+            final int i = ii;
+
+            threads[ii] = backend.newThread(() -> {
+                final int left = ChunkPartitioner.chunkStart(n, tasks, i);
+                final LeafTaskEvent leaf = LeafTaskEvent.start(kernel, left,
+                        ChunkPartitioner.chunkEnd(n, tasks, i) - left + 1);
+                body.accept(i);
+                leaf.finish();
+            });
+            threads[ii].start();
+        }
+
+        for (int ii = 0; ii < tasks; ii++) {
+            try {
+                threads[ii].join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        event.finish();
     }
 }
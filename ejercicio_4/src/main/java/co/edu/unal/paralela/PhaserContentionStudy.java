@@ -0,0 +1,87 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Estudio de contención de la barrera: latencia por fase de
+ * runParallelBarrier con un phaser plano y con un árbol de phasers (ver
+ * PhaserTree) a medida que crece el número de tareas. Cada tarea tiene un
+ * solo elemento, así que el tiempo medido es casi todo barrera.
+ *
+ * Uso: PhaserContentionStudy [máximo de tareas] [fan-in] [repeticiones].
+ * Por defecto recorre de 16 a 1024 tareas en potencias de dos con fan-in 8
+ * y toma el mejor de 5 tiempos. Escribe una tabla en Markdown en la salida
+ * estándar.
+ */
+public final class PhaserContentionStudy {
+    /**
+     * Número mínimo de tareas del estudio.
+     */
+    static final int MIN_TASKS = 16;
+    /**
+     * Fases de cada medición.
+     */
+    private static final int ITERATIONS = 2000;
+
+    /**
+     * Constructor.
+     */
+    private PhaserContentionStudy() {
+    }
+
+    /**
+     * Ejecuta el estudio y escribe la tabla en la salida estándar.
+     *
+     * @param args Máximo de tareas, fan-in y repeticiones, todos opcionales
+     * @throws IOException Si no se puede escribir la tabla
+     */
+    public static void main(final String[] args) throws IOException {
+        final int maxTasks = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        final int fanIn = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        final int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        writeMarkdown(System.out, maxTasks, fanIn, repeats);
+    }
+
+    /**
+     * Mide la latencia plana y escalonada de MIN_TASKS a maxTasks tareas y
+     * escribe una fila por número de tareas.
+     *
+     * @param out Donde se escribe la tabla
+     * @param maxTasks El número máximo de tareas
+     * @param fanIn El fan-in del árbol de phasers
+     * @param repeats El número de ejecuciones medidas por celda
+     * @throws IOException Si no se puede escribir la tabla
+     */
+    static void writeMarkdown(final Appendable out, final int maxTasks, final int fanIn, final int repeats)
+            throws IOException {
+        final StencilOptions flat = StencilOptions.defaults();
+        final StencilOptions tiered = flat.withFanIn(fanIn);
+        out.append("| tasks | flat ns/phase | tiered ns/phase | flat / tiered |\n");
+        out.append("|---:|---:|---:|---:|\n");
+        for (int tasks = MIN_TASKS; tasks <= maxTasks; tasks *= 2) {
+            final double flatNanos = barrierLatencyNanos(tasks, flat, repeats);
+            final double tieredNanos = barrierLatencyNanos(tasks, tiered, repeats);
+            out.append(String.format(Locale.ROOT, "| %d | %.0f | %.0f | %.2f |\n",
+                    tasks, flatNanos, tieredNanos, flatNanos / tieredNanos));
+        }
+    }
+
+    /**
+     * Mide la latencia promedio de la barrera, en nanosegundos por fase,
+     * cuando cada una de tasks tareas tiene un solo elemento. La primera
+     * ejecución sirve de calentamiento.
+     *
+     * @param tasks El número de tareas
+     * @param options Las opciones de ejecución, con o sin árbol de phasers
+     * @param repeats El número de ejecuciones medidas
+     * @return La menor latencia por fase
+     */
+    static double barrierLatencyNanos(final int tasks, final StencilOptions options, final int repeats) {
+        final double[] myNew = new double[tasks + 2];
+        final double[] myVal = new double[tasks + 2];
+        final long nanos = ScalingReport.measure(repeats, () ->
+                OneDimAveragingPhaser.runParallelBarrier(ITERATIONS, myNew, myVal, tasks, tasks, options));
+        return (double) nanos / ITERATIONS;
+    }
+}
@@ -0,0 +1,257 @@
+package co.edu.unal.paralela;
+
+import java.util.Arrays;
+
+/**
+ * Métricas opcionales de los promedios iterativos con phasers: para cada
+ * tarea acumula el tiempo de cómputo, el tiempo de espera en la barrera y,
+ * en la barrera difusa, el tiempo de cómputo que se traslapó con la
+ * barrera (el que transcurre entre arrive y awaitAdvance).
+ *
+ * Los contadores se reservan al construir el objeto y cada tarea escribe sólo
+ * en los suyos, separados por una línea de caché de los de las demás tareas,
+ * así que medir no produce contención y cuesta, por fase, tres lecturas de
+ * System.nanoTime en la barrera simple y cuatro en la difusa. Se activan con
+ * StencilOptions.withMetrics. Los contadores se acumulan entre ejecuciones
+ * hasta llamar a reset; en cambio, el BarrierMetricsEvent de JFR que cada
+ * tarea emite al terminar, si el evento está habilitado, describe sólo esa
+ * ejecución, con los tiempos por iteración.
+ */
+public final class PhaserMetrics {
+    /**
+     * Posición del tiempo de cómputo dentro del bloque de cada tarea.
+     */
+    private static final int COMPUTE = 0;
+    /**
+     * Posición del tiempo de espera dentro del bloque de cada tarea.
+     */
+    private static final int WAIT = 1;
+    /**
+     * Posición del tiempo traslapado dentro del bloque de cada tarea.
+     */
+    private static final int OVERLAP = 2;
+    /**
+     * Posición del número de iteraciones dentro del bloque de cada tarea.
+     */
+    private static final int ITERATIONS = 3;
+    /**
+     * Distancia entre un contador y su valor al inicio de la ejecución en
+     * curso, guardado en la misma línea de caché.
+     */
+    private static final int RUN_START = 4;
+    /**
+     * Separación entre los bloques de dos tareas: 8 'long' son 64 bytes.
+     */
+    private static final int STRIDE = 8;
+
+    /**
+     * Número de tareas para el que se reservaron los contadores.
+     */
+    private final int tasks;
+    /**
+     * Contadores de todas las tareas; el bloque de la tarea i empieza en
+     * (i + 1) * STRIDE para dejar una línea de relleno al inicio.
+     */
+    private final long[] counters;
+
+    /**
+     * Constructor.
+     *
+     * @param tasks El número de tareas que se van a medir
+     */
+    public PhaserMetrics(final int tasks) {
+        if (tasks <= 0) {
+            throw new IllegalArgumentException("tasks = " + tasks);
+        }
+        this.tasks = tasks;
+        this.counters = new long[(tasks + 2) * STRIDE];
+    }
+
+    /**
+     * @return El número de tareas para el que se reservaron los contadores
+     */
+    public int getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Marca el inicio de una ejecución de la tarea i, para que emit reporte
+     * sólo lo que se registre desde ahora.
+     *
+     * @param i El índice de la tarea
+     */
+    void begin(final int i) {
+        final int base = (i + 1) * STRIDE;
+        System.arraycopy(counters, base, counters, base + RUN_START, RUN_START);
+    }
+
+    /**
+     * Registra una iteración de la tarea i.
+     *
+     * @param i El índice de la tarea
+     * @param computeNanos El tiempo de cómputo de la iteración
+     * @param waitNanos El tiempo de espera en la barrera
+     * @param overlapNanos La parte del cómputo traslapada con la barrera
+     */
+    void record(final int i, final long computeNanos, final long waitNanos, final long overlapNanos) {
+        final int base = (i + 1) * STRIDE;
+        counters[base + COMPUTE] += computeNanos;
+        counters[base + WAIT] += waitNanos;
+        counters[base + OVERLAP] += overlapNanos;
+        counters[base + ITERATIONS]++;
+    }
+
+    /**
+     * Emite el evento de JFR de la tarea i con lo registrado desde la última
+     * llamada a begin, si el evento está habilitado.
+     *
+     * @param i El índice de la tarea
+     * @param mode La variante del promedio iterativo
+     */
+    void emit(final int i, final String mode) {
+        final BarrierMetricsEvent event = new BarrierMetricsEvent();
+        if (event.isEnabled()) {
+            final int base = (i + 1) * STRIDE;
+            final long iterations = counters[base + ITERATIONS] - counters[base + RUN_START + ITERATIONS];
+            final long divisor = Math.max(1, iterations);
+            event.mode = mode;
+            event.task = i;
+            event.iterations = iterations;
+            event.computeNanos = (counters[base + COMPUTE] - counters[base + RUN_START + COMPUTE]) / divisor;
+            event.waitNanos = (counters[base + WAIT] - counters[base + RUN_START + WAIT]) / divisor;
+            event.overlapNanos = (counters[base + OVERLAP] - counters[base + RUN_START + OVERLAP]) / divisor;
+            event.commit();
+        }
+    }
+
+    /**
+     * Verifica que estas métricas sirvan para una ejecución con tasks tareas.
+     *
+     * @param runTasks El número de tareas de la ejecución
+     */
+    void checkTasks(final int runTasks) {
+        if (runTasks != tasks) {
+            throw new IllegalArgumentException("Metrics allocated for " + tasks + " tasks, run uses " + runTasks);
+        }
+    }
+
+    /**
+     * Pone todos los contadores en cero. No debe llamarse durante una
+     * ejecución.
+     */
+    public void reset() {
+        Arrays.fill(counters, 0L);
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El tiempo total de cómputo de la tarea, en nanosegundos
+     */
+    public long getComputeNanos(final int i) {
+        return counters[(i + 1) * STRIDE + COMPUTE];
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El tiempo total de espera en la barrera, en nanosegundos
+     */
+    public long getWaitNanos(final int i) {
+        return counters[(i + 1) * STRIDE + WAIT];
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El tiempo de cómputo traslapado con la barrera, en nanosegundos
+     */
+    public long getOverlapNanos(final int i) {
+        return counters[(i + 1) * STRIDE + OVERLAP];
+    }
+
+    /**
+     * @param i El índice de la tarea
+     * @return El número de iteraciones registradas por la tarea
+     */
+    public long getIterations(final int i) {
+        return counters[(i + 1) * STRIDE + ITERATIONS];
+    }
+
+    /**
+     * @return La suma del tiempo de cómputo de todas las tareas
+     */
+    public long getTotalComputeNanos() {
+        long total = 0;
+        for (int i = 0; i < tasks; i++) {
+            total += getComputeNanos(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return La suma del tiempo de espera en la barrera de todas las tareas
+     */
+    public long getTotalWaitNanos() {
+        long total = 0;
+        for (int i = 0; i < tasks; i++) {
+            total += getWaitNanos(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return La suma del tiempo traslapado de todas las tareas
+     */
+    public long getTotalOverlapNanos() {
+        long total = 0;
+        for (int i = 0; i < tasks; i++) {
+            total += getOverlapNanos(i);
+        }
+        return total;
+    }
+
+    /**
+     * Calcula el desbalance de carga: el tiempo de cómputo de la tarea más
+     * lenta dividido entre el promedio. 1.0 es un balance perfecto.
+     *
+     * @return El desbalance, o 1.0 si no hay mediciones
+     */
+    public double getImbalance() {
+        long max = 0;
+        for (int i = 0; i < tasks; i++) {
+            max = Math.max(max, getComputeNanos(i));
+        }
+        final long total = getTotalComputeNanos();
+        return total == 0 ? 1.0 : (double) max * tasks / total;
+    }
+
+    /**
+     * Calcula qué fracción del tiempo en la barrera quedó oculta por cómputo:
+     * traslapado / (traslapado + espera). Es 0 para la barrera simple.
+     *
+     * @return La fracción de traslape entre 0 y 1
+     */
+    public double getOverlapFraction() {
+        final long overlap = getTotalOverlapNanos();
+        final long wait = getTotalWaitNanos();
+        return overlap + wait == 0 ? 0.0 : (double) overlap / (overlap + wait);
+    }
+
+    /**
+     * @return Un resumen en una línea de las métricas de todas las tareas
+     */
+    public String summary() {
+        long iterations = 0;
+        for (int i = 0; i < tasks; i++) {
+            iterations = Math.max(iterations, getIterations(i));
+        }
+        final double perIteration = iterations == 0 ? 1.0 : (double) iterations * tasks;
+        return String.format("tasks=%d iterations=%d compute=%.0fns/iter wait=%.0fns/iter overlap=%.0fns/iter "
+                + "imbalance=%.3f overlapFraction=%.3f", tasks, iterations,
+                getTotalComputeNanos() / perIteration, getTotalWaitNanos() / perIteration,
+                getTotalOverlapNanos() / perIteration, getImbalance(), getOverlapFraction());
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
@@ -0,0 +1,88 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * Construye un árbol de phasers escalonados (tiered) para repartir las
+ * llegadas a una barrera entre varios phasers. Con un único phaser todas las
+ * tareas compiten por actualizar la misma palabra de estado; en el árbol cada
+ * tarea llega a una hoja compartida con a lo sumo fanIn tareas, y sólo la
+ * última en llegar a cada hoja propaga la llegada hacia la raíz.
+ *
+ * Las fases de todos los phasers del árbol están sincronizadas con las de la
+ * raíz, así que las tareas pueden usar arrive, awaitAdvance y
+ * arriveAndAwaitAdvance sobre su hoja como si fuera un phaser plano, y
+ * Phaser.onAdvance de la raíz se sigue llamando una vez por fase.
+ */
+public final class PhaserTree {
+    /**
+     * Constructor.
+     */
+    private PhaserTree() {
+    }
+
+    /**
+     * Registra tasks tareas bajo root y devuelve el phaser que debe usar cada
+     * una. Si fanIn es menor que 2 o no es menor que tasks, todas las tareas
+     * se registran directamente en root.
+     *
+     * @param root El phaser raíz, sin partes registradas
+     * @param tasks El número de tareas
+     * @param fanIn El número máximo de partes por phaser del árbol
+     * @return Un arreglo con el phaser de cada tarea
+     */
+    public static Phaser[] build(final Phaser root, final int tasks, final int fanIn) {
+        final Phaser[] phasers = new Phaser[tasks];
+        if (fanIn < 2 || tasks <= fanIn) {
+            root.bulkRegister(tasks);
+            for (int i = 0; i < tasks; i++) {
+                phasers[i] = root;
+            }
+            return phasers;
+        }
+
+        final int leaves = (tasks + fanIn - 1) / fanIn;
+        final Phaser[] parents = parentsFor(root, leaves, fanIn);
+        for (int leaf = 0; leaf < leaves; leaf++) {
+            final int first = leaf * fanIn;
+            final int size = Math.min(fanIn, tasks - first);
+            // Con partes > 0 la hoja se registra en su padre al construirse
+            final Phaser phaser = new Phaser(parents[leaf], size);
+            for (int i = first; i < first + size; i++) {
+                phasers[i] = phaser;
+            }
+        }
+        return phasers;
+    }
+
+    /**
+     * Calcula el phaser padre de cada uno de count hijos, creando los niveles
+     * intermedios necesarios para que ningún phaser tenga más de fanIn hijos.
+     * Los phasers intermedios se crean sin partes y se registran en su padre
+     * cuando se registra su primer hijo.
+     *
+     * @param root El phaser raíz
+     * @param count El número de hijos
+     * @param fanIn El número máximo de hijos por phaser
+     * @return Un arreglo con el padre de cada hijo
+     */
+    private static Phaser[] parentsFor(final Phaser root, final int count, final int fanIn) {
+        final Phaser[] parents = new Phaser[count];
+        if (count <= fanIn) {
+            for (int i = 0; i < count; i++) {
+                parents[i] = root;
+            }
+            return parents;
+        }
+
+        final int groups = (count + fanIn - 1) / fanIn;
+        final Phaser[] grandParents = parentsFor(root, groups, fanIn);
+        for (int g = 0; g < groups; g++) {
+            final Phaser phaser = new Phaser(grandParents[g], 0);
+            for (int i = g * fanIn; i < Math.min(count, (g + 1) * fanIn); i++) {
+                parents[i] = phaser;
+            }
+        }
+        return parents;
+    }
+}
@@ -0,0 +1,114 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Estudio de escalabilidad fuerte y débil de runParallelBarrier y
+ * runParallelFuzzyBarrier, con una tarea (hilo) por cada hilo del estudio.
+ *
+ * Uso: ScalingStudy [directorio de salida] [máximo de hilos] [repeticiones].
+ * Por defecto escribe en scaling-report, recorre hasta el número de núcleos
+ * disponibles y toma el mejor de 5 tiempos.
+ */
+public final class ScalingStudy {
+    /**
+     * Iteraciones del promedio en cada medición.
+     */
+    private static final int ITERATIONS = 100;
+    /**
+     * Tamaños del problema para escalabilidad fuerte.
+     */
+    private static final int[] STRONG_SIZES = {1 << 16, 1 << 20, 1 << 22};
+    /**
+     * Elementos por hilo para escalabilidad débil.
+     */
+    private static final int WEAK_SIZE_PER_THREAD = 1 << 19;
+
+    /**
+     * Un kernel del estudio.
+     */
+    @FunctionalInterface
+    private interface Kernel {
+        /**
+         * Ejecuta el kernel.
+         *
+         * @param myNew El arreglo de salida
+         * @param myVal El arreglo de entrada
+         * @param n El tamaño del problema
+         * @param tasks El número de tareas
+         */
+        void run(double[] myNew, double[] myVal, int n, int tasks);
+    }
+
+    /**
+     * Constructor.
+     */
+    private ScalingStudy() {
+    }
+
+    /**
+     * Ejecuta el estudio y escribe ejercicio_4-scaling.csv y
+     * ejercicio_4-scaling.md.
+     *
+     * @param args Directorio de salida, máximo de hilos y repeticiones,
+     *        todos opcionales
+     * @throws IOException Si no se puede escribir el reporte
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path out = Paths.get(args.length > 0 ? args[0] : "scaling-report");
+        final int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final int[] threadCounts = ScalingReport.threadCounts(maxThreads);
+        final ScalingReport report = new ScalingReport();
+
+        study(report, "runParallelBarrier", (myNew, myVal, n, tasks) ->
+            OneDimAveragingPhaser.runParallelBarrier(ITERATIONS, myNew, myVal, n, tasks), threadCounts, repeats);
+        study(report, "runParallelFuzzyBarrier", (myNew, myVal, n, tasks) ->
+            OneDimAveragingPhaser.runParallelFuzzyBarrier(ITERATIONS, myNew, myVal, n, tasks), threadCounts, repeats);
+
+        report.write(out, "ejercicio_4");
+        report.writeMarkdown(System.out);
+    }
+
+    /**
+     * Mide un kernel en escalabilidad fuerte y débil.
+     *
+     * @param report El reporte donde se agregan las mediciones
+     * @param name El nombre del kernel
+     * @param kernel El kernel
+     * @param threadCounts Los números de hilos a recorrer
+     * @param repeats El número de ejecuciones medidas
+     */
+    private static void study(final ScalingReport report, final String name, final Kernel kernel,
+            final int[] threadCounts, final int repeats) {
+        for (int n : STRONG_SIZES) {
+            for (int threads : threadCounts) {
+                report.add(name, ScalingReport.STRONG, n, threads, measure(kernel, n, threads, repeats));
+            }
+        }
+        for (int threads : threadCounts) {
+            // Cada elemento ocupa un double en myNew y otro en myVal
+            final int n = ScalingReport.weakSize(WEAK_SIZE_PER_THREAD, threads, 2 * Double.BYTES);
+            report.add(name, ScalingReport.WEAK, n, threads, measure(kernel, n, threads, repeats));
+        }
+    }
+
+    /**
+     * Mide un kernel sobre un problema de tamaño n con threads tareas.
+     *
+     * @param kernel El kernel
+     * @param n El tamaño del problema
+     * @param threads El número de tareas
+     * @param repeats El número de ejecuciones medidas
+     * @return El menor tiempo en nanosegundos
+     */
+    private static long measure(final Kernel kernel, final int n, final int threads, final int repeats) {
+        final double[] myNew = new double[n + 2];
+        final double[] myVal = new double[n + 2];
+        myNew[n + 1] = 1.0;
+        myVal[n + 1] = 1.0;
+        return ScalingReport.measure(repeats, () -> kernel.run(myNew, myVal, n, threads));
+    }
+}
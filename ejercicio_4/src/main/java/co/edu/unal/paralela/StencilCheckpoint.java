@@ -0,0 +1,505 @@
+package co.edu.unal.paralela;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puntos de control del promedio iterativo en un archivo mapeado en memoria.
+ * Se activan con StencilOptions.withCheckpoint y sólo los usa
+ * runParallelBarrier.
+ *
+ * Cada interval iteraciones, Phaser.onAdvance de la raíz copia el arreglo con
+ * los valores más recientes en uno de dos búferes reservados de antemano y lo
+ * entrega a un hilo escritor en segundo plano; las tareas sólo esperan esa
+ * copia en memoria, nunca la escritura al disco. Si el disco va más lento
+ * que el cómputo y ya hay un punto de control esperando al escritor, el
+ * nuevo lo reemplaza en el mismo búfer: el anterior se descarta (ver
+ * getSkippedCount) y el último pedido siempre llega al archivo.
+ *
+ * El archivo tiene dos ranuras que el escritor usa de forma alternada, cada
+ * una con el número de iteraciones completadas, una suma de verificación y
+ * los datos. Así, si el proceso muere a mitad de una escritura, la otra
+ * ranura conserva el punto de control anterior completo. Al reanudar se usa
+ * la ranura válida con más iteraciones.
+ *
+ * Un punto de control guarda el arreglo actual completo, incluidas sus
+ * fronteras, y las dos fronteras del otro arreglo, que nunca se escriben.
+ * Eso basta para reproducir bit a bit el resultado de una ejecución sin
+ * interrupciones: la siguiente iteración sobrescribe todo el interior del
+ * otro arreglo. Por eso no se toma punto de control en la última iteración.
+ */
+public final class StencilCheckpoint implements Closeable {
+    /**
+     * Identifica los archivos de puntos de control ("STENCKPT").
+     */
+    static final long MAGIC = 0x5354454E434B5054L;
+    /**
+     * Bytes de la cabecera del archivo: MAGIC y n.
+     */
+    static final int FILE_HEADER = 16;
+    /**
+     * Bytes de la cabecera de cada ranura: iteraciones completadas y suma de
+     * verificación.
+     */
+    static final int SLOT_HEADER = 16;
+
+    /**
+     * El archivo de puntos de control.
+     */
+    private final Path file;
+    /**
+     * Cada cuántas iteraciones se toma un punto de control.
+     */
+    private final int interval;
+    /**
+     * Si al empezar se continúa desde el punto de control del archivo.
+     */
+    private final boolean resume;
+    /**
+     * Hilo que escribe los puntos de control en el archivo.
+     */
+    private final ExecutorService writer;
+    /**
+     * Búferes de copia libres; hay dos para que onAdvance pueda copiar uno
+     * mientras el escritor guarda el otro. Protegido por lock.
+     */
+    private final ArrayDeque<double[]> free = new ArrayDeque<>(2);
+    /**
+     * Protege free, queued y queuedIterations. Nunca se tiene mientras se
+     * escribe al disco.
+     */
+    private final Object lock = new Object();
+    /**
+     * Punto de control que espera al escritor, o null. Protegido por lock.
+     */
+    private double[] queued;
+    /**
+     * Iteraciones completadas del punto de control en queued.
+     */
+    private long queuedIterations;
+
+    /**
+     * Canal del archivo, abierto en el primer uso.
+     */
+    private FileChannel channel;
+    /**
+     * Vista mapeada del archivo completo.
+     */
+    private MappedByteBuffer mapped;
+    /**
+     * Tamaño del problema para el que se mapeó el archivo.
+     */
+    private int size = -1;
+    /**
+     * Ranura que tiene el punto de control válido más reciente, o -1.
+     * Sólo la usa el hilo escritor después de restore.
+     */
+    private int latestSlot = -1;
+    /**
+     * Iteraciones completadas en el punto de control más reciente escrito.
+     */
+    private volatile long completed;
+    /**
+     * Puntos de control escritos en el archivo.
+     */
+    private volatile int written;
+    /**
+     * Puntos de control descartados porque uno más nuevo los reemplazó antes
+     * de que el escritor los tomara.
+     */
+    private volatile int skipped;
+    /**
+     * Primer error de escritura, que se reporta en awaitWrites.
+     */
+    private volatile IOException failure;
+    /**
+     * Última escritura entregada al escritor.
+     */
+    private volatile Future<?> lastWrite;
+
+    /**
+     * Constructor.
+     *
+     * @param file El archivo de puntos de control
+     * @param interval Cada cuántas iteraciones se toma un punto de control
+     * @param resume Si se continúa desde el punto de control del archivo
+     */
+    private StencilCheckpoint(final Path file, final int interval, final boolean resume) {
+        if (file == null) {
+            throw new IllegalArgumentException("file");
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval = " + interval);
+        }
+        this.file = file;
+        this.interval = interval;
+        this.resume = resume;
+        this.writer = Executors.newSingleThreadExecutor(body -> {
+            final Thread thread = new Thread(body, "stencil-checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Crea puntos de control que empiezan desde cero; si el archivo existe,
+     * su contenido se descarta.
+     *
+     * @param file El archivo de puntos de control
+     * @param interval Cada cuántas iteraciones se toma un punto de control
+     * @return Los puntos de control
+     */
+    public static StencilCheckpoint create(final Path file, final int interval) {
+        return new StencilCheckpoint(file, interval, false);
+    }
+
+    /**
+     * Crea puntos de control que continúan desde el último punto de control
+     * válido del archivo: runParallelBarrier carga ese estado en myNew o
+     * myVal según la paridad de la iteración y ejecuta sólo las iteraciones
+     * restantes. Si el archivo no existe o no tiene un punto de control
+     * válido, se empieza desde cero.
+     *
+     * @param file El archivo de puntos de control
+     * @param interval Cada cuántas iteraciones se toma un punto de control
+     * @return Los puntos de control
+     */
+    public static StencilCheckpoint resume(final Path file, final int interval) {
+        return new StencilCheckpoint(file, interval, true);
+    }
+
+    /**
+     * @return El archivo de puntos de control
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Cada cuántas iteraciones se toma un punto de control
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return Las iteraciones completadas en el punto de control más
+     *         reciente del archivo, o 0 si no hay ninguno
+     */
+    public long getCompletedIterations() {
+        return completed;
+    }
+
+    /**
+     * @return El número de puntos de control escritos
+     */
+    public int getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return El número de puntos de control descartados porque uno más
+     *         nuevo los reemplazó mientras esperaban al escritor
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Detiene el hilo escritor, después de que termine las escrituras
+     * pendientes, y cierra el archivo.
+     */
+    @Override
+    public synchronized void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = null;
+        mapped = null;
+    }
+
+    /**
+     * Prepara el archivo para un problema de tamaño n y, si se reanuda,
+     * carga el último punto de control válido: el arreglo actual va a myNew
+     * si el número de iteraciones completadas es impar y a myVal si es par,
+     * que es donde lo dejaría runParallelBarrier.
+     *
+     * @param myNew El arreglo de salida
+     * @param myVal El arreglo de entrada
+     * @param n El tamaño del problema
+     * @param iterations El número total de iteraciones
+     * @return Las iteraciones ya completadas, o 0 si se empieza desde cero
+     */
+    synchronized int restore(final double[] myNew, final double[] myVal, final int n, final int iterations) {
+        awaitWrites();
+        try {
+            map(n);
+            long found = 0;
+            if (resume) {
+                latestSlot = latestValidSlot();
+                found = latestSlot < 0 ? 0 : mapped.getLong(slotOffset(latestSlot));
+            }
+            if (found > iterations) {
+                throw new IllegalArgumentException("The checkpoint has " + found
+                        + " completed iterations, more than the " + iterations + " requested");
+            }
+            if (found > 0) {
+                final double[] current = found % 2 == 1 ? myNew : myVal;
+                final double[] other = found % 2 == 1 ? myVal : myNew;
+                final DoubleBuffer data = slotData(latestSlot);
+                data.get(current, 0, n + 2);
+                other[0] = data.get();
+                other[n + 1] = data.get();
+            } else {
+                clearSlots();
+            }
+            completed = found;
+            synchronized (lock) {
+                if (free.size() != 2 || free.peek().length != n + 4) {
+                    free.clear();
+                    free.add(new double[n + 4]);
+                    free.add(new double[n + 4]);
+                }
+            }
+            return (int) found;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copia el estado tras completed iteraciones y lo entrega al escritor.
+     * Se llama desde Phaser.onAdvance, cuando ninguna tarea está escribiendo
+     * en los arreglos. Con dos búferes, si no hay uno libre es porque uno se
+     * está escribiendo y el otro espera al escritor; entonces se copia sobre
+     * el que espera, que aún no se ha empezado a escribir.
+     *
+     * @param iterations Las iteraciones completadas
+     * @param current El arreglo con los valores más recientes
+     * @param other El otro arreglo
+     */
+    void snapshot(final long iterations, final double[] current, final double[] other) {
+        synchronized (lock) {
+            double[] buffer = free.poll();
+            final boolean replace = buffer == null;
+            if (replace) {
+                buffer = queued;
+                skipped++;
+            } else if (queued != null) {
+                // El escritor aún no tomó el anterior: se descarta y el nuevo ocupa su lugar
+                free.add(queued);
+                skipped++;
+            }
+            final int n = buffer.length - 4;
+            System.arraycopy(current, 0, buffer, 0, n + 2);
+            buffer[n + 2] = other[0];
+            buffer[n + 3] = other[n + 1];
+            queued = buffer;
+            queuedIterations = iterations;
+            if (replace) {
+                // Ya hay una tarea del escritor pendiente que tomará este búfer
+                return;
+            }
+        }
+        lastWrite = writer.submit(this::drain);
+    }
+
+    /**
+     * Escribe el punto de control que espera al escritor, si hay uno, y
+     * devuelve su búfer a los libres. Sólo lo ejecuta el hilo escritor.
+     */
+    private void drain() {
+        final double[] buffer;
+        final long iterations;
+        synchronized (lock) {
+            buffer = queued;
+            iterations = queuedIterations;
+            queued = null;
+        }
+        if (buffer == null) {
+            return;
+        }
+        try {
+            write(iterations, buffer);
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            synchronized (lock) {
+                free.add(buffer);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el escritor termine los puntos de control entregados.
+     *
+     * @throws UncheckedIOException Si alguna escritura falló
+     */
+    void awaitWrites() {
+        final Future<?> pending = lastWrite;
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        final IOException error = failure;
+        if (error != null) {
+            failure = null;
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    /**
+     * @param slot La ranura, 0 o 1
+     * @return La posición de la ranura en el archivo
+     */
+    int slotOffset(final int slot) {
+        return FILE_HEADER + slot * (SLOT_HEADER + (size + 4) * Double.BYTES);
+    }
+
+    /**
+     * Escribe un punto de control en la ranura que no tiene el más reciente:
+     * primero los datos, luego la cabecera con la suma de verificación, y
+     * fuerza la ranura al disco. Sólo lo ejecuta el hilo escritor.
+     *
+     * @param iterations Las iteraciones completadas
+     * @param buffer El estado copiado en snapshot
+     */
+    private void write(final long iterations, final double[] buffer) throws IOException {
+        final int slot = latestSlot == 0 ? 1 : 0;
+        final int offset = slotOffset(slot);
+        slotData(slot).put(buffer);
+        mapped.putLong(offset, iterations);
+        mapped.putLong(offset + 8, checksum(iterations, buffer));
+        mapped.force(offset, SLOT_HEADER + buffer.length * Double.BYTES);
+        latestSlot = slot;
+        completed = iterations;
+        written++;
+    }
+
+    /**
+     * Abre y mapea el archivo para un problema de tamaño n. Si no se está
+     * reanudando, el contenido anterior se descarta.
+     *
+     * @param n El tamaño del problema
+     * @throws IllegalArgumentException Si se reanuda desde un archivo que no
+     *         es de puntos de control o que es para otro tamaño
+     */
+    private void map(final int n) throws IOException {
+        if (mapped != null && size == n) {
+            return;
+        }
+        final long length = FILE_HEADER + 2 * (SLOT_HEADER + (n + 4L) * Double.BYTES);
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("n = " + n + " is too large for a checkpoint file");
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        final long existing = channel.size();
+        if (!resume) {
+            channel.truncate(0);
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        size = n;
+        if (resume && existing > 0) {
+            if (existing != length || mapped.getLong(0) != MAGIC || mapped.getLong(8) != n) {
+                throw new IllegalArgumentException("The checkpoint file " + file + " is not for n = " + n);
+            }
+            return;
+        }
+        mapped.putLong(0, MAGIC);
+        mapped.putLong(8, n);
+        clearSlots();
+    }
+
+    /**
+     * Invalida las dos ranuras.
+     */
+    private void clearSlots() {
+        for (int slot = 0; slot < 2; slot++) {
+            mapped.putLong(slotOffset(slot), 0L);
+            mapped.putLong(slotOffset(slot) + 8, 0L);
+        }
+        mapped.force();
+        latestSlot = -1;
+    }
+
+    /**
+     * @return La ranura válida con más iteraciones completadas, o -1
+     */
+    private int latestValidSlot() {
+        int best = -1;
+        long bestIterations = 0;
+        final double[] data = new double[size + 4];
+        for (int slot = 0; slot < 2; slot++) {
+            final int offset = slotOffset(slot);
+            final long iterations = mapped.getLong(offset);
+            if (iterations <= bestIterations) {
+                continue;
+            }
+            slotData(slot).get(data);
+            if (mapped.getLong(offset + 8) == checksum(iterations, data)) {
+                best = slot;
+                bestIterations = iterations;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param slot La ranura
+     * @return Una vista de los datos de la ranura, posicionada al inicio
+     */
+    private DoubleBuffer slotData(final int slot) {
+        final int offset = slotOffset(slot) + SLOT_HEADER;
+        return mapped.slice(offset, (size + 4) * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    /**
+     * Suma de verificación FNV-1a de 64 bits sobre los bits de cada valor.
+     *
+     * @param iterations Las iteraciones completadas
+     * @param data Los datos del punto de control
+     * @return La suma de verificación
+     */
+    private static long checksum(final long iterations, final double[] data) {
+        long hash = 0xCBF29CE484222325L ^ iterations;
+        for (double value : data) {
+            hash = (hash ^ Double.doubleToRawLongBits(value)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+}
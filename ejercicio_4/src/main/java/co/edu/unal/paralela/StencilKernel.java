@@ -0,0 +1,21 @@
+package co.edu.unal.paralela;
+
+/**
+ * Una implementación paralela del promedio iterativo unidimensional con la
+ * misma firma que runParallelBarrier, para poder medir, ajustar o comparar
+ * las variantes sin distinguirlas por nombre.
+ */
+@FunctionalInterface
+public interface StencilKernel {
+    /**
+     * Ejecuta el promedio iterativo.
+     *
+     * @param iterations El número de iteraciones que deben ser ejecutadas
+     * @param myNew Un arreglo 'double' que inicia como el arreglo de salida
+     * @param myVal Un arreglo 'double' que contiene la entrada inicial
+     *        del problema del promedio iterativo
+     * @param n El tamaño de este problema
+     * @param tasks El número de hilos/tareas para procesar
+     */
+    void run(int iterations, double[] myNew, double[] myVal, int n, int tasks);
+}
@@ -0,0 +1,143 @@
+package co.edu.unal.paralela;
+
+/**
+ * Opciones de ejecución de los promedios iterativos con phasers. Es
+ * inmutable: cada método with* devuelve una copia con la opción cambiada,
+ * por ejemplo StencilOptions.defaults().withBackend(VIRTUAL_THREADS).
+ */
+public final class StencilOptions {
+    /**
+     * Opciones por defecto: un hilo de plataforma por tarea y un único phaser.
+     */
+    private static final StencilOptions DEFAULTS = new StencilOptions(ExecutionBackend.PLATFORM_THREADS, 0, null,
+            null);
+
+    /**
+     * Tipo de hilo sobre el que se ejecuta cada tarea.
+     */
+    private final ExecutionBackend backend;
+    /**
+     * Número máximo de partes por phaser del árbol de la barrera, o 0 para
+     * usar un único phaser.
+     */
+    private final int fanIn;
+    /**
+     * Métricas de barrera a registrar, o null para no medir.
+     */
+    private final PhaserMetrics metrics;
+    /**
+     * Puntos de control a escribir, o null para no guardar el estado.
+     */
+    private final StencilCheckpoint checkpoint;
+
+    /**
+     * Constructor.
+     * @param backend Tipo de hilo sobre el que se ejecuta cada tarea
+     * @param fanIn Número máximo de partes por phaser, o 0 para un único phaser
+     * @param metrics Métricas de barrera a registrar, o null para no medir
+     * @param checkpoint Puntos de control a escribir, o null para no guardar el estado
+     */
+    private StencilOptions(final ExecutionBackend backend, final int fanIn, final PhaserMetrics metrics,
+            final StencilCheckpoint checkpoint) {
+        this.backend = backend;
+        this.fanIn = fanIn;
+        this.metrics = metrics;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return Las opciones por defecto
+     */
+    public static StencilOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return El tipo de hilo sobre el que se ejecuta cada tarea
+     */
+    public ExecutionBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Las tareas se esperan en el phaser, así que cada una necesita su propio
+     * hilo: se acepta PLATFORM_THREADS o VIRTUAL_THREADS, no FORK_JOIN.
+     *
+     * @param newBackend El tipo de hilo sobre el que se ejecuta cada tarea
+     * @return Una copia de estas opciones con el backend indicado
+     */
+    public StencilOptions withBackend(final ExecutionBackend newBackend) {
+        if (newBackend == null || newBackend == ExecutionBackend.FORK_JOIN) {
+            throw new IllegalArgumentException("backend = " + newBackend);
+        }
+        return new StencilOptions(newBackend, fanIn, metrics, checkpoint);
+    }
+
+    /**
+     * @return El número máximo de partes por phaser del árbol de la barrera,
+     *         o 0 si se usa un único phaser
+     */
+    public int getFanIn() {
+        return fanIn;
+    }
+
+    /**
+     * Hace que la barrera use un árbol de phasers escalonados (ver
+     * PhaserTree) en el que ningún phaser tiene más de newFanIn partes, lo
+     * que reduce la contención con cientos de tareas.
+     *
+     * @param newFanIn El número máximo de partes por phaser (al menos 2), o 0
+     *        para un único phaser
+     * @return Una copia de estas opciones con el fan-in indicado
+     */
+    public StencilOptions withFanIn(final int newFanIn) {
+        if (newFanIn < 0 || newFanIn == 1) {
+            throw new IllegalArgumentException("fanIn = " + newFanIn);
+        }
+        return new StencilOptions(backend, newFanIn, metrics, checkpoint);
+    }
+
+    /**
+     * @return Las métricas de barrera que se registran, o null si no se mide
+     */
+    public PhaserMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Hace que las variantes con barrera simple y difusa registren en
+     * newMetrics el tiempo de cómputo, de espera y de traslape de cada tarea.
+     * Las métricas deben haberse creado para el mismo número de tareas de la
+     * ejecución.
+     *
+     * @param newMetrics Las métricas a registrar, o null para no medir
+     * @return Una copia de estas opciones con las métricas indicadas
+     */
+    public StencilOptions withMetrics(final PhaserMetrics newMetrics) {
+        return new StencilOptions(backend, fanIn, newMetrics, checkpoint);
+    }
+
+    /**
+     * @return Los puntos de control que se escriben, o null si no se guarda
+     *         el estado
+     */
+    public StencilCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Hace que runParallelBarrier guarde el estado cada
+     * newCheckpoint.getInterval() iteraciones y, si los puntos de control se
+     * crearon con StencilCheckpoint.resume, que continúe desde el último
+     * guardado. La barrera difusa rechaza esta opción, porque cuando su
+     * onAdvance se ejecuta las tareas pueden seguir calculando el interior
+     * de su trozo.
+     *
+     * @param newCheckpoint Los puntos de control, o null para no guardar el
+     *        estado
+     * @return Una copia de estas opciones con los puntos de control indicados
+     */
+    public StencilOptions withCheckpoint(final StencilCheckpoint newCheckpoint) {
+        return new StencilOptions(backend, fanIn, metrics, newCheckpoint);
+    }
+}
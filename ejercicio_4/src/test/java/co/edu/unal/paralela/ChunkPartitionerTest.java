@@ -0,0 +1,70 @@
+package co.edu.unal.paralela;
+
+import junit.framework.TestCase;
+
+public class ChunkPartitionerTest extends TestCase {
+
+    /**
+     * Revisa que los trozos sean contiguos y cubran exactamente los elementos 1..n.
+     */
+    private void checkCoverage(final ChunkPartitioner partitioner, final int n) {
+        int expectedLeft = 1;
+        for (int i = 0; i < partitioner.getTasks(); i++) {
+            assertEquals("Chunk " + i + " does not start where the previous one ended",
+                    expectedLeft, partitioner.getLeft(i));
+            assertTrue("Chunk " + i + " has negative size", partitioner.getRight(i) >= partitioner.getLeft(i) - 1);
+            expectedLeft = partitioner.getRight(i) + 1;
+        }
+        assertEquals("Chunks do not cover all the elements", n + 1, expectedLeft);
+    }
+
+    /*
+     * Prueba que el reparto inicial esté balanceado aunque n no sea divisible por el número de tareas.
+     */
+    public void testBalancedChunks() {
+        final int n = 1003;
+        final int tasks = 7;
+        final ChunkPartitioner partitioner = new ChunkPartitioner(n, tasks);
+        checkCoverage(partitioner, n);
+        for (int i = 0; i < tasks; i++) {
+            final int size = partitioner.getRight(i) - partitioner.getLeft(i) + 1;
+            assertTrue("Unbalanced chunk of size " + size, size == n / tasks || size == n / tasks + 1);
+        }
+    }
+
+    /*
+     * Prueba que el rebalanceo asigne más elementos a la tarea más rápida.
+     */
+    public void testRebalanceFavorsFasterTasks() {
+        final int n = 1000;
+        final ChunkPartitioner partitioner = new ChunkPartitioner(n, 4);
+        partitioner.recordTime(0, 100);
+        partitioner.recordTime(1, 300);
+        partitioner.recordTime(2, 300);
+        partitioner.recordTime(3, 300);
+        partitioner.rebalance();
+        checkCoverage(partitioner, n);
+
+        final int fastSize = partitioner.getRight(0) - partitioner.getLeft(0) + 1;
+        final int slowSize = partitioner.getRight(1) - partitioner.getLeft(1) + 1;
+        assertEquals(500, fastSize);
+        assertEquals(167, slowSize);
+    }
+
+    /*
+     * Prueba que cada tarea conserve al menos un elemento tras el rebalanceo.
+     */
+    public void testRebalanceKeepsEveryTaskBusy() {
+        final int n = 10;
+        final ChunkPartitioner partitioner = new ChunkPartitioner(n, 5);
+        partitioner.recordTime(0, 1);
+        for (int i = 1; i < 5; i++) {
+            partitioner.recordTime(i, 1_000_000);
+        }
+        partitioner.rebalance();
+        checkCoverage(partitioner, n);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(partitioner.getRight(i) >= partitioner.getLeft(i));
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package co.edu.unal.paralela;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.Phaser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import junit.framework.TestCase;
 
 public class OneDimAveragingPhaserTest extends TestCase {
     // Número de veces para repetir cada test, para lograr resultados consistentes en el tiempo.
     final static private int niterations = 12000;
 
+    // Perfil del Autotuner de cada prueba, para no escribir en el de la máquina.
+    private TemporaryProfile profile;
+
+    @Override
+    protected void setUp() throws IOException {
+        profile = TemporaryProfile.open();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        profile.close();
+    }
+
     private static int getNCores() {
             return Runtime.getRuntime().availableProcessors() / 2;
     }
@@ -45,10 +65,10 @@ public class OneDimAveragingPhaserTest extends TestCase {
                 double[] threadPrivateMyVal = myVal;
                 double[] threadPrivateMyNew = myNew;
 
-                for (int iter = 0; iter < iterations; iter++) {
-                    final int left = i * (n / tasks) + 1;
-                    final int right = (i + 1) * (n / tasks);
+                final int left = (int) ((long) i * n / tasks) + 1;
+                final int right = (int) ((long) (i + 1) * n / tasks);
 
+                for (int iter = 0; iter < iterations; iter++) {
                     for (int j = left; j <= right; j++) {
                         threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1] + threadPrivateMyVal[j + 1]) / 2.0;
                     }
@@ -114,9 +134,451 @@ public class OneDimAveragingPhaserTest extends TestCase {
      */
     public void testFuzzyBarrier() {
         final double expected = 1.1;
-        final double speedup = parTestHelper(4 * 1024 * 1024, getNCores() * 16);
+        final int N = 4 * 1024 * 1024;
+        final double speedup = parTestHelper(N, OneDimAveragingPhaser.tunedFuzzyBarrierTasks(N));
         final String errMsg = String.format("It was expected that the fuzzy barrier parallel implementation would " +
                 "run %fx faster than the barrier implementation, but it only achieved %fx speedup", expected, speedup);
         assertTrue(errMsg, speedup >= expected);
     }
+
+    /**
+     * Función helper que compara una implementación paralela con la versión secuencial de referencia
+     * cuando el tamaño del problema no es divisible por el número de tareas.
+     *
+     * @param N El tamaño del arreglo para hacer la prueba
+     * @param ntasks El número de tareas
+     * @param iterations El número de iteraciones
+     * @param kernel La implementación paralela a comparar
+     */
+    private void unevenTestHelper(final int N, final int ntasks, final int iterations, final StencilKernel kernel) {
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        final double[] myNewRef = createArray(N);
+        final double[] myValRef = createArray(N);
+
+        runSequential(iterations, myNewRef, myValRef, N);
+        kernel.run(iterations, myNew, myVal, N, ntasks);
+
+        checkResult(myNewRef, myNew);
+        checkResult(myValRef, myVal);
+    }
+
+    /**
+     * Prueba que la barrera simple actualiza todos los elementos cuando N no es divisible por el número de tareas.
+     */
+    public void testBarrierUnevenChunks() {
+        unevenTestHelper(1003, 7, 101, OneDimAveragingPhaser::runParallelBarrier);
+        unevenTestHelper(5, 8, 20, OneDimAveragingPhaser::runParallelBarrier);
+    }
+
+    /**
+     * Prueba que la barrera difusa actualiza todos los elementos cuando N no es divisible por el número de tareas.
+     */
+    public void testFuzzyBarrierUnevenChunks() {
+        unevenTestHelper(1003, 7, 101, OneDimAveragingPhaser::runParallelFuzzyBarrier);
+        unevenTestHelper(5, 8, 20, OneDimAveragingPhaser::runParallelFuzzyBarrier);
+    }
+
+    /**
+     * Prueba que la barrera con rebalanceo produce el mismo resultado que la versión secuencial.
+     */
+    public void testAdaptiveBarrier() {
+        final StencilKernel adaptive = (iterations, myNew, myVal, n, tasks) ->
+            OneDimAveragingPhaser.runParallelAdaptiveBarrier(iterations, myNew, myVal, n, tasks, 3);
+        unevenTestHelper(10_007, 6, 300, adaptive);
+        unevenTestHelper(5, 8, 20, adaptive);
+    }
+
+    /**
+     * Prueba que la variante con trozos propios produce el mismo resultado que la versión secuencial.
+     */
+    public void testOwnedChunks() {
+        unevenTestHelper(1003, 7, 101, OneDimAveragingPhaser::runParallelOwnedChunks);
+        unevenTestHelper(1003, 7, 100, OneDimAveragingPhaser::runParallelOwnedChunks);
+        unevenTestHelper(5, 8, 20, OneDimAveragingPhaser::runParallelOwnedChunks);
+        unevenTestHelper(64, 1, 1, OneDimAveragingPhaser::runParallelOwnedChunks);
+    }
+
+    /**
+     * Compara sobre una entrada de gran tamaño la variante con trozos propios, rellenados e inicializados por
+     * cada tarea, con la barrera simple sobre los arreglos compartidos; debe ser al menos igual de rápida. Lo que
+     * gana la variante (trozos sin líneas de caché compartidas y páginas en el nodo de cada hilo) sólo existe
+     * cuando las tareas corren en núcleos distintos, así que con un solo núcleo sólo se comprueba el resultado.
+     */
+    public void testOwnedChunksPerf() {
+        final int N = 8 * 1024 * 1024;
+        final int iterations = 200;
+        final int ntasks = Math.max(2, getNCores() * 2);
+        // La comprobación del resultado sirve además de calentamiento para ambas variantes
+        unevenTestHelper(N, ntasks, iterations, OneDimAveragingPhaser::runParallelBarrier);
+        unevenTestHelper(N, ntasks, iterations, OneDimAveragingPhaser::runParallelOwnedChunks);
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            return;
+        }
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        long barrierTime = Long.MAX_VALUE;
+        long ownedTime = Long.MAX_VALUE;
+        for (int r = 0; r < 3; r++) {
+            final long barrierStartTime = System.nanoTime();
+            OneDimAveragingPhaser.runParallelBarrier(iterations, myNew, myVal, N, ntasks);
+            barrierTime = Math.min(barrierTime, System.nanoTime() - barrierStartTime);
+
+            final long ownedStartTime = System.nanoTime();
+            OneDimAveragingPhaser.runParallelOwnedChunks(iterations, myNew, myVal, N, ntasks);
+            ownedTime = Math.min(ownedTime, System.nanoTime() - ownedStartTime);
+        }
+
+        final double expected = 1.0;
+        final double speedup = (double) barrierTime / (double) ownedTime;
+        final String errMsg = String.format("It was expected that the owned chunks implementation would run at " +
+                "least %fx as fast as the barrier implementation, but it only achieved %fx", expected, speedup);
+        assertTrue(errMsg, speedup >= expected);
+    }
+
+    /**
+     * Calcula el máximo error absoluto respecto al punto fijo del problema, la recta entre los extremos.
+     */
+    private static double fixedPointError(final double[] values, final int N) {
+        double maxErr = 0.0;
+        for (int j = 1; j <= N; j++) {
+            final double exact = values[0] + (values[N + 1] - values[0]) * j / (N + 1);
+            maxErr = Math.max(maxErr, Math.abs(values[j] - exact));
+        }
+        return maxErr;
+    }
+
+    /**
+     * Prueba que la versión paralela de Gauss-Seidel rojo-negro produce exactamente el resultado secuencial.
+     */
+    public void testParallelRedBlack() {
+        final int[][] cases = {{1003, 7, 101}, {1004, 4, 100}, {5, 8, 20}};
+        for (int[] c : cases) {
+            final double[] ref = createArray(c[0]);
+            final double[] output = createArray(c[0]);
+            OneDimAveragingPhaser.runSequentialRedBlack(c[2], ref, c[0]);
+            OneDimAveragingPhaser.runParallelRedBlack(c[2], output, c[0], c[1]);
+            checkResult(ref, output);
+        }
+    }
+
+    /**
+     * Prueba que Gauss-Seidel rojo-negro converge al mismo punto fijo que Jacobi y en menos iteraciones.
+     */
+    public void testRedBlackFixedPoint() {
+        final int N = 64;
+        final double tolerance = 1E-8;
+
+        final double[] jacobiNew = createArray(N);
+        double[] jacobiVal = createArray(N);
+        int jacobiIterations = 0;
+        while (fixedPointError(jacobiVal, N) > tolerance) {
+            // Un número par de iteraciones deja el último resultado en jacobiVal
+            OneDimAveragingPhaser.runSequential(2, jacobiNew, jacobiVal, N);
+            jacobiIterations += 2;
+        }
+
+        final double[] redBlack = createArray(N);
+        int redBlackIterations = 0;
+        while (fixedPointError(redBlack, N) > tolerance) {
+            OneDimAveragingPhaser.runParallelRedBlack(2, redBlack, N, 4);
+            redBlackIterations += 2;
+        }
+
+        for (int j = 0; j < N + 2; j++) {
+            assertEquals("Mismatch between fixed points at element " + j, jacobiVal[j], redBlack[j], 2 * tolerance);
+        }
+        final String msg = "Red-black took " + redBlackIterations + " iterations but Jacobi only " + jacobiIterations;
+        assertTrue(msg, redBlackIterations < jacobiIterations);
+    }
+
+    /**
+     * Compara las barreras simple y difusa ejecutadas con las opciones indicadas contra la versión secuencial.
+     */
+    private void optionsTestHelper(final int N, final int ntasks, final int iterations,
+            final StencilOptions options) {
+        final double[] myNewRef = createArray(N);
+        final double[] myValRef = createArray(N);
+        runSequential(iterations, myNewRef, myValRef, N);
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runParallelBarrier(iterations, myNew, myVal, N, ntasks, options);
+        checkResult(myNewRef, myNew);
+        checkResult(myValRef, myVal);
+
+        final double[] fuzzyNew = createArray(N);
+        final double[] fuzzyVal = createArray(N);
+        OneDimAveragingPhaser.runParallelFuzzyBarrier(iterations, fuzzyNew, fuzzyVal, N, ntasks, options);
+        checkResult(myNewRef, fuzzyNew);
+        checkResult(myValRef, fuzzyVal);
+    }
+
+    /**
+     * Prueba que las barreras producen el resultado correcto sobre hilos virtuales, también con miles de tareas.
+     */
+    public void testVirtualThreadsBackend() {
+        final StencilOptions options = StencilOptions.defaults().withBackend(ExecutionBackend.VIRTUAL_THREADS);
+        optionsTestHelper(1003, 7, 101, options);
+        optionsTestHelper(50_000, 5_000, 10, options);
+        // Las tareas se esperan en el phaser: ForkJoin no tiene un hilo por tarea
+        try {
+            StencilOptions.defaults().withBackend(ExecutionBackend.FORK_JOIN);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+
+    /**
+     * Compara la barrera simple con diez mil tareas sobre hilos de plataforma y sobre hilos virtuales.
+     */
+    public void testVirtualThreadsManyTasksPerf() {
+        final int N = 1024 * 1024;
+        final int ntasks = 10_000;
+        final int iterations = 20;
+        final StencilOptions platform = StencilOptions.defaults();
+        final StencilOptions virtual = platform.withBackend(ExecutionBackend.VIRTUAL_THREADS);
+
+        final long platformStartTime = System.currentTimeMillis();
+        OneDimAveragingPhaser.runParallelBarrier(iterations, createArray(N), createArray(N), N, ntasks, platform);
+        final long platformEndTime = System.currentTimeMillis();
+
+        final long virtualStartTime = System.currentTimeMillis();
+        OneDimAveragingPhaser.runParallelBarrier(iterations, createArray(N), createArray(N), N, ntasks, virtual);
+        final long virtualEndTime = System.currentTimeMillis();
+
+        final double expected = 1.0;
+        final double speedup = (double)(platformEndTime - platformStartTime)
+                / (double)Math.max(1, virtualEndTime - virtualStartTime);
+        final String errMsg = String.format("It was expected that virtual threads would run at least %fx as fast as "
+                + "platform threads with %d tasks, but they only achieved %fx", expected, ntasks, speedup);
+        assertTrue(errMsg, speedup >= expected);
+    }
+
+    /**
+     * Prueba que las barreras producen el resultado correcto con un árbol de phasers.
+     */
+    public void testTieredPhasers() {
+        optionsTestHelper(1003, 7, 101, StencilOptions.defaults().withFanIn(2));
+        optionsTestHelper(10_000, 200, 31, StencilOptions.defaults().withFanIn(8));
+    }
+
+    /**
+     * Benchmark de contención: con muchas tareas la barrera con un árbol de phasers debe ser al menos tan
+     * rápida como la de un phaser plano. La tabla completa de latencia contra número de tareas la escribe
+     * PhaserContentionStudy. Con un solo núcleo las llegadas nunca compiten por el estado del phaser, así
+     * que no hay contención que el árbol pueda reducir y no se compara.
+     */
+    public void testTieredPhaserContention() throws IOException {
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            return;
+        }
+        final StencilOptions flat = StencilOptions.defaults();
+        final StencilOptions tiered = flat.withFanIn(8);
+        double flatLatency = 0.0;
+        double tieredLatency = 0.0;
+        for (int ntasks = 256; ntasks <= 512; ntasks *= 2) {
+            flatLatency += PhaserContentionStudy.barrierLatencyNanos(ntasks, flat, 5);
+            tieredLatency += PhaserContentionStudy.barrierLatencyNanos(ntasks, tiered, 5);
+        }
+
+        final double expected = 1.0;
+        final double speedup = flatLatency / tieredLatency;
+        final StringBuilder table = new StringBuilder();
+        PhaserContentionStudy.writeMarkdown(table, 512, 8, 1);
+        final String errMsg = String.format("It was expected that the tiered barrier would be at least %fx as fast "
+                + "as the flat barrier with 256 and 512 tasks, but it only achieved %fx%n%s", expected, speedup, table);
+        assertTrue(errMsg, speedup >= expected);
+    }
+
+    /**
+     * Prueba que las métricas registran todas las iteraciones de cada tarea sin cambiar el resultado.
+     */
+    public void testBarrierMetrics() {
+        final int N = 100_000;
+        final int ntasks = 4;
+        final int iterations = 50;
+        final PhaserMetrics barrierMetrics = new PhaserMetrics(ntasks);
+        final PhaserMetrics fuzzyMetrics = new PhaserMetrics(ntasks);
+
+        final double[] myNewRef = createArray(N);
+        final double[] myValRef = createArray(N);
+        runSequential(iterations, myNewRef, myValRef, N);
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runParallelBarrier(iterations, myNew, myVal, N, ntasks,
+                StencilOptions.defaults().withMetrics(barrierMetrics));
+        checkResult(myNewRef, myNew);
+        checkResult(myValRef, myVal);
+
+        final double[] fuzzyNew = createArray(N);
+        final double[] fuzzyVal = createArray(N);
+        OneDimAveragingPhaser.runParallelFuzzyBarrier(iterations, fuzzyNew, fuzzyVal, N, ntasks,
+                StencilOptions.defaults().withMetrics(fuzzyMetrics));
+        checkResult(myNewRef, fuzzyNew);
+        checkResult(myValRef, fuzzyVal);
+
+        for (int i = 0; i < ntasks; i++) {
+            assertEquals(iterations, barrierMetrics.getIterations(i));
+            assertEquals(iterations, fuzzyMetrics.getIterations(i));
+            assertTrue(barrierMetrics.getComputeNanos(i) > 0);
+            assertEquals(0L, barrierMetrics.getOverlapNanos(i));
+            assertTrue(fuzzyMetrics.getOverlapNanos(i) > 0);
+            assertTrue(fuzzyMetrics.getOverlapNanos(i) <= fuzzyMetrics.getComputeNanos(i));
+        }
+        assertTrue(barrierMetrics.getImbalance() >= 1.0);
+        assertEquals(0.0, barrierMetrics.getOverlapFraction());
+        assertTrue(fuzzyMetrics.getOverlapFraction() > 0.0);
+        // Los decimales dependen de la configuración regional
+        final String barrierSummary = barrierMetrics.summary();
+        assertTrue(barrierSummary, barrierSummary.matches("tasks=4 iterations=50 compute=\\d+ns/iter "
+                + "wait=\\d+ns/iter overlap=0ns/iter imbalance=\\d+[.,]\\d{3} overlapFraction=0[.,]000"));
+        final String fuzzySummary = fuzzyMetrics.summary();
+        assertTrue(fuzzySummary, fuzzySummary.matches("tasks=4 iterations=50 compute=\\d+ns/iter "
+                + "wait=\\d+ns/iter overlap=\\d+ns/iter imbalance=\\d+[.,]\\d{3} overlapFraction=[01][.,]\\d{3}"));
+        assertEquals(barrierSummary, barrierMetrics.toString());
+
+        barrierMetrics.reset();
+        assertEquals(0L, barrierMetrics.getTotalComputeNanos());
+        assertEquals(1.0, barrierMetrics.getImbalance());
+    }
+
+    /**
+     * Prueba que unas métricas creadas para otro número de tareas se rechazan.
+     */
+    public void testBarrierMetricsTaskMismatch() {
+        try {
+            OneDimAveragingPhaser.runParallelBarrier(1, createArray(100), createArray(100), 100, 4,
+                    StencilOptions.defaults().withMetrics(new PhaserMetrics(3)));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+    }
+
+    /**
+     * Prueba que con JFR activo cada tarea emite un evento BarrierMetrics con sus tiempos por iteración
+     * de esa ejecución, aunque los contadores vengan acumulados de una ejecución anterior.
+     */
+    public void testBarrierMetricsJfrEvents() throws IOException {
+        final int ntasks = 3;
+        final PhaserMetrics metrics = new PhaserMetrics(ntasks);
+        OneDimAveragingPhaser.runParallelFuzzyBarrier(30, createArray(10_000), createArray(10_000),
+                10_000, ntasks, StencilOptions.defaults().withMetrics(metrics));
+        final long[] waitBefore = new long[ntasks];
+        for (int i = 0; i < ntasks; i++) {
+            waitBefore[i] = metrics.getWaitNanos(i);
+        }
+        final Path file = Files.createTempFile("barrier-metrics", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(BarrierMetricsEvent.class);
+                recording.start();
+                OneDimAveragingPhaser.runParallelFuzzyBarrier(20, createArray(10_000), createArray(10_000),
+                        10_000, ntasks, StencilOptions.defaults().withMetrics(metrics));
+                recording.stop();
+                recording.dump(file);
+            }
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            int found = 0;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("co.edu.unal.paralela.BarrierMetrics")) {
+                    found++;
+                    assertEquals("fuzzy", event.getString("mode"));
+                    assertEquals(20L, event.getLong("iterations"));
+                    final int task = event.getInt("task");
+                    assertEquals(50L, metrics.getIterations(task));
+                    assertEquals((metrics.getWaitNanos(task) - waitBefore[task]) / 20, event.getLong("waitNanos"));
+                }
+            }
+            assertEquals(ntasks, found);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Prueba que la barrera difusa emite un evento de JFR para el kernel y uno por tarea, cubriendo todo el arreglo.
+     */
+    public void testJfrKernelEvents() throws IOException {
+        final int N = 10_000;
+        final int ntasks = 5;
+        final Path file = Files.createTempFile("kernel-events", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(KernelEvent.class);
+                recording.enable(LeafTaskEvent.class);
+                recording.start();
+                OneDimAveragingPhaser.runParallelFuzzyBarrier(10, createArray(N), createArray(N), N, ntasks);
+                recording.stop();
+                recording.dump(file);
+            }
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent kernel = null;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("co.edu.unal.paralela.Kernel")
+                        && "runParallelFuzzyBarrier".equals(event.getString("kernel"))) {
+                    assertNull(kernel);
+                    kernel = event;
+                }
+            }
+            assertNotNull("No kernel event was recorded", kernel);
+            assertEquals(N, kernel.getLong("inputSize"));
+            assertEquals(ntasks, kernel.getInt("tasks"));
+
+            // Las hojas se asocian al kernel por su intervalo y no por el nombre: en JDK 17 el nombre de un
+            // evento emitido por un hilo que termina enseguida puede perderse a partir de la segunda grabación
+            int leaves = 0;
+            long covered = 0;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("co.edu.unal.paralela.LeafTask")
+                        && !event.getStartTime().isBefore(kernel.getStartTime())
+                        && !event.getEndTime().isAfter(kernel.getEndTime())) {
+                    leaves++;
+                    covered += event.getLong("size");
+                }
+            }
+            assertEquals(ntasks, leaves);
+            assertEquals(N, covered);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Prueba que las variantes con número de tareas ajustado dan el resultado correcto y que cada kernel
+     * guarda su propio valor en el perfil.
+     */
+    public void testTunedTasks() throws IOException {
+        final int N = 5000;
+        final int iterations = 41;
+        final double[] myNewRef = createArray(N);
+        final double[] myValRef = createArray(N);
+        runSequential(iterations, myNewRef, myValRef, N);
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runParallelBarrierTuned(iterations, myNew, myVal, N);
+        checkResult(myNewRef, myNew);
+        checkResult(myValRef, myVal);
+
+        final double[] fuzzyNew = createArray(N);
+        final double[] fuzzyVal = createArray(N);
+        OneDimAveragingPhaser.runParallelFuzzyBarrierTuned(iterations, fuzzyNew, fuzzyVal, N);
+        checkResult(myNewRef, fuzzyNew);
+        checkResult(myValRef, fuzzyVal);
+
+        final int barrierTasks = OneDimAveragingPhaser.tunedBarrierTasks(N);
+        assertTrue(barrierTasks >= 1 && barrierTasks <= N);
+        final int fuzzyTasks = OneDimAveragingPhaser.tunedFuzzyBarrierTasks(N);
+        assertTrue(fuzzyTasks >= 1 && fuzzyTasks <= N);
+        final String saved = new String(Files.readAllBytes(Autotuner.shared().getFile()), "UTF-8");
+        assertTrue(saved.contains("phaser.barrier.tasks.log2n"));
+        assertTrue(saved.contains("phaser.fuzzy.tasks.log2n"));
+    }
 }
@@ -0,0 +1,88 @@
+package co.edu.unal.paralela;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class PhaserTreeTest extends TestCase {
+
+    /*
+     * Prueba que con pocas tareas todas se registran en la raíz.
+     */
+    public void testFlatWhenFewTasks() {
+        final Phaser root = new Phaser(0);
+        final Phaser[] phasers = PhaserTree.build(root, 8, 8);
+        assertEquals(8, root.getRegisteredParties());
+        for (Phaser phaser : phasers) {
+            assertSame(root, phaser);
+        }
+    }
+
+    /*
+     * Prueba que ningún phaser del árbol tiene más de fanIn partes.
+     */
+    public void testFanInIsRespected() {
+        final int tasks = 1000;
+        final int fanIn = 4;
+        final Phaser root = new Phaser(0);
+        final Phaser[] phasers = PhaserTree.build(root, tasks, fanIn);
+
+        final Set<Phaser> seen = new HashSet<>();
+        for (Phaser phaser : phasers) {
+            for (Phaser p = phaser; p != null; p = p.getParent()) {
+                if (seen.add(p)) {
+                    assertTrue("Phaser with " + p.getRegisteredParties() + " parties",
+                            p.getRegisteredParties() <= fanIn);
+                }
+            }
+            assertSame(root, phaser.getRoot());
+        }
+        assertTrue(root.getRegisteredParties() >= 2);
+    }
+
+    /*
+     * Prueba que el árbol se comporta como una barrera: ninguna tarea avanza de fase antes que las demás.
+     */
+    public void testTreeActsAsBarrier() throws InterruptedException {
+        final int tasks = 37;
+        final int phases = 50;
+        final AtomicInteger advances = new AtomicInteger();
+        final Phaser root = new Phaser(0) {
+            @Override
+            protected boolean onAdvance(final int phase, final int registeredParties) {
+                advances.incrementAndGet();
+                return false;
+            }
+        };
+        final Phaser[] phasers = PhaserTree.build(root, tasks, 3);
+        final AtomicInteger[] arrivals = new AtomicInteger[phases];
+        for (int p = 0; p < phases; p++) {
+            arrivals[p] = new AtomicInteger();
+        }
+        final boolean[] failed = new boolean[1];
+
+        final Thread[] threads = new Thread[tasks];
+        for (int i = 0; i < tasks; i++) {
+            final Phaser ph = phasers[i];
+            threads[i] = new Thread(() -> {
+                for (int p = 0; p < phases; p++) {
+                    arrivals[p].incrementAndGet();
+                    ph.arriveAndAwaitAdvance();
+                    if (arrivals[p].get() != tasks) {
+                        failed[0] = true;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse("A task left a phase before every task arrived", failed[0]);
+        assertEquals(phases, advances.get());
+    }
+}
@@ -0,0 +1,148 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class StencilCheckpointTest extends TestCase {
+    private static final int N = 10_007;
+    private static final int TASKS = 4;
+    private static final int ITERATIONS = 100;
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("stencil", ".ckpt");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static double[] createArray(final int n) {
+        final double[] input = new double[n + 2];
+        input[n + 1] = 1.0;
+        return input;
+    }
+
+    /**
+     * Ejecuta runParallelBarrier con los puntos de control indicados y cierra el escritor.
+     */
+    private static void run(final int iterations, final double[] myNew, final double[] myVal,
+            final StencilCheckpoint checkpoint) {
+        try (StencilCheckpoint c = checkpoint) {
+            OneDimAveragingPhaser.runParallelBarrier(iterations, myNew, myVal, N, TASKS,
+                    StencilOptions.defaults().withCheckpoint(c));
+        }
+    }
+
+    /**
+     * Prueba que guardar puntos de control no cambia el resultado y que el último queda en el archivo.
+     */
+    public void testCheckpointDoesNotChangeResult() {
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(ITERATIONS, refNew, refVal, N);
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        final StencilCheckpoint checkpoint = StencilCheckpoint.create(file, 10);
+        run(ITERATIONS, myNew, myVal, checkpoint);
+        assertTrue(Arrays.equals(refNew, myNew));
+        assertTrue(Arrays.equals(refVal, myVal));
+        // No se guarda la última iteración; el último punto de control pedido siempre se escribe,
+        // aunque el escritor haya descartado otros anteriores
+        assertEquals(90L, checkpoint.getCompletedIterations());
+        assertEquals(9, checkpoint.getWrittenCount() + checkpoint.getSkippedCount());
+    }
+
+    /**
+     * Prueba que reanudar desde un punto de control reproduce bit a bit la ejecución sin interrupciones,
+     * con un número par e impar de iteraciones completadas.
+     */
+    public void testResumeIsBitIdentical() {
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        OneDimAveragingPhaser.runParallelBarrier(ITERATIONS, refNew, refVal, N, TASKS);
+
+        for (int interval : new int[] {10, 7}) {
+            // Una ejecución que se detiene en la iteración 57, como si el proceso muriera
+            run(57, createArray(N), createArray(N), StencilCheckpoint.create(file, interval));
+
+            // Los arreglos del nuevo proceso sólo tienen las fronteras
+            final double[] myNew = createArray(N);
+            final double[] myVal = createArray(N);
+            final StencilCheckpoint resumed = StencilCheckpoint.resume(file, interval);
+            run(ITERATIONS, myNew, myVal, resumed);
+            assertTrue(Arrays.equals(refNew, myNew));
+            assertTrue(Arrays.equals(refVal, myVal));
+            assertTrue(resumed.getCompletedIterations() >= 57 / interval * interval);
+        }
+    }
+
+    /**
+     * Prueba que si la ranura más reciente quedó a medio escribir se usa la anterior.
+     */
+    public void testTornSlotFallsBackToPrevious() throws IOException {
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(ITERATIONS, refNew, refVal, N);
+
+        // Con intervalo 20 la ranura 0 queda con 20 iteraciones y, al continuar, la ranura 1 con 40
+        final StencilCheckpoint first = StencilCheckpoint.create(file, 20);
+        run(21, createArray(N), createArray(N), first);
+        assertEquals(1, first.getWrittenCount());
+        final StencilCheckpoint second = StencilCheckpoint.resume(file, 20);
+        run(41, createArray(N), createArray(N), second);
+        assertEquals(1, second.getWrittenCount());
+        assertEquals(40L, second.getCompletedIterations());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // La segunda escritura fue a la ranura 1: se daña un valor de sus datos
+            final long offset = StencilCheckpoint.FILE_HEADER + (StencilCheckpoint.SLOT_HEADER + (N + 4L) * 8)
+                    + StencilCheckpoint.SLOT_HEADER + 8L * (N / 2);
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}), offset);
+        }
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        final StencilCheckpoint resumed = StencilCheckpoint.resume(file, 20);
+        run(ITERATIONS, myNew, myVal, resumed);
+        assertTrue(Arrays.equals(refNew, myNew));
+        assertTrue(Arrays.equals(refVal, myVal));
+    }
+
+    /**
+     * Prueba los errores: la barrera difusa rechaza la opción y un archivo de otro tamaño no se puede reanudar.
+     */
+    public void testArguments() {
+        try (StencilCheckpoint checkpoint = StencilCheckpoint.create(file, 5)) {
+            OneDimAveragingPhaser.runParallelFuzzyBarrier(10, createArray(N), createArray(N), N, TASKS,
+                    StencilOptions.defaults().withCheckpoint(checkpoint));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        run(10, createArray(N), createArray(N), StencilCheckpoint.create(file, 5));
+        try (StencilCheckpoint checkpoint = StencilCheckpoint.resume(file, 5)) {
+            OneDimAveragingPhaser.runParallelBarrier(10, createArray(100), createArray(100), 100, TASKS,
+                    StencilOptions.defaults().withCheckpoint(checkpoint));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            StencilCheckpoint.create(file, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+}
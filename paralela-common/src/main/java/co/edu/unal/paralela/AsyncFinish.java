@@ -0,0 +1,643 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runtime ligero de tareas async/finish construido sobre ForkJoinPool. Expone
+ * las mismas operaciones de edu.rice.pcdp.PCDP que usan los ejercicios
+ * (finish, async, future, forall, forall2d y sus variantes por trozos), de
+ * modo que basta con cambiar el import estático.
+ *
+ * Cada async queda registrado en el finish que lo encierra dinámicamente,
+ * incluso cuando se crea desde otro async: las tareas heredan el alcance en
+ * el que fueron creadas. Los finish anidados son válidos en cualquier nivel.
+ * Mientras un finish espera dentro del pool, el hilo ejecuta tareas
+ * pendientes en lugar de bloquearse, y sólo cuando no hay nada por hacer se
+ * bloquea a través de ForkJoinPool.managedBlock para que el pool compense.
+ *
+ * Las tareas se ejecutan en el pool del hilo que abre el finish más externo
+ * si éste es un hilo de un ForkJoinPool, o en ForkJoinPool.commonPool() en
+ * otro caso; así un cálculo lanzado con pool.invoke(...) usa ese pool.
+ * Con finish(ExecutionBackend.VIRTUAL_THREADS, body) o PLATFORM_THREADS
+ * cada tarea del alcance, y de los finish anidados en él, se ejecuta en su
+ * propio hilo de ese tipo.
+ */
+public final class AsyncFinish {
+    /**
+     * Alcance finish del hilo actual, o null si no hay ninguno abierto.
+     */
+    private static final ThreadLocal<FinishScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Constructor.
+     */
+    private AsyncFinish() {
+    }
+
+    /**
+     * Cuerpo de un ciclo paralelo sobre un índice.
+     */
+    @FunctionalInterface
+    public interface ProcedureInt1D {
+        /**
+         * @param i El índice de la iteración
+         */
+        void apply(int i);
+    }
+
+    /**
+     * Cuerpo de un ciclo paralelo sobre dos índices.
+     */
+    @FunctionalInterface
+    public interface ProcedureInt2D {
+        /**
+         * @param i El índice de la dimensión externa
+         * @param j El índice de la dimensión interna
+         */
+        void apply(int i, int j);
+    }
+
+    /**
+     * Ejecuta body y espera a que terminen todas las tareas async creadas,
+     * directa o indirectamente, dentro de él. Si alguna tarea falla, la
+     * primera excepción se relanza aquí y las demás se agregan como
+     * suprimidas.
+     *
+     * @param body El cuerpo del finish
+     */
+    public static void finish(final Runnable body) {
+        final FinishScope parent = CURRENT.get();
+        if (parent != null) {
+            runScoped(parent.pool, parent.executor, body);
+            return;
+        }
+        finish(ExecutionBackend.FORK_JOIN, body);
+    }
+
+    /**
+     * Igual que finish(body), pero las tareas del alcance se ejecutan sobre
+     * el backend indicado. Los async y finish anidados heredan el backend.
+     *
+     * @param backend El backend de ejecución de las tareas
+     * @param body El cuerpo del finish
+     */
+    public static void finish(final ExecutionBackend backend, final Runnable body) {
+        if (backend == null) {
+            throw new IllegalArgumentException("backend");
+        }
+        final ForkJoinPool pool = currentPool();
+        if (backend != ExecutionBackend.FORK_JOIN) {
+            runScoped(pool, backend.threadPerTaskExecutor(), body);
+            return;
+        }
+        if (isWorkerOf(pool)) {
+            runScoped(pool, null, body);
+            return;
+        }
+        // Desde un hilo externo el finish se entrega al pool para que, en el
+        // caso usual, los async vayan a la cola local de un hilo del pool
+        final Throwable[] failure = new Throwable[1];
+        pool.invoke(ForkJoinTask.adapt(() -> {
+            try {
+                runScoped(pool, null, body);
+            } catch (RuntimeException | Error e) {
+                failure[0] = e;
+            }
+        }));
+        if (failure[0] instanceof RuntimeException) {
+            throw (RuntimeException) failure[0];
+        } else if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        }
+    }
+
+    /**
+     * Ejecuta body dentro de un nuevo alcance finish y espera a sus tareas.
+     *
+     * @param pool El pool en el que se ejecutan las tareas del alcance
+     * @param executor El ejecutor de un hilo por tarea, o null para usar el pool
+     * @param body El cuerpo del finish
+     */
+    private static void runScoped(final ForkJoinPool pool, final ExecutorService executor, final Runnable body) {
+        final FinishScope parent = CURRENT.get();
+        final FinishScope scope = new FinishScope(pool, executor, false);
+        CURRENT.set(scope);
+        try {
+            body.run();
+        } catch (RuntimeException | Error e) {
+            scope.recordFailure(e);
+        }
+        // El alcance sigue siendo el actual mientras se espera, así las
+        // tareas propias que se ejecutan aquí no cambian el ThreadLocal
+        try {
+            scope.await();
+        } finally {
+            restore(parent);
+        }
+        scope.rethrow();
+    }
+
+    /**
+     * Crea una tarea que se ejecuta de forma asíncrona y queda registrada en
+     * el finish que la encierra. Fuera de cualquier finish la tarea queda
+     * desligada: nadie la espera y sus excepciones sólo se imprimen.
+     *
+     * @param body El cuerpo de la tarea
+     */
+    public static void async(final Runnable body) {
+        final FinishScope scope = currentScope();
+        scope.spawn(new AsyncTask<Void>(scope, body, null));
+    }
+
+    /**
+     * Crea una tarea asíncrona que produce un valor. Al igual que async, queda
+     * registrada en el finish que la encierra.
+     *
+     * @param body El cuerpo de la tarea
+     * @param <R> El tipo del resultado
+     * @return Un future con el resultado de la tarea
+     */
+    public static <R> Future<R> future(final Callable<R> body) {
+        final FinishScope scope = currentScope();
+        final AsyncTask<R> task = new AsyncTask<>(scope, null, body);
+        scope.spawn(task);
+        return task;
+    }
+
+    /**
+     * Ciclo paralelo sobre start..endInclusive. Las iteraciones se agrupan en
+     * trozos de tamaño por defecto (uno por hilo del pool) para no pagar una
+     * tarea por iteración.
+     *
+     * @param start El primer índice
+     * @param endInclusive El último índice
+     * @param body El cuerpo del ciclo
+     */
+    public static void forall(final int start, final int endInclusive, final ProcedureInt1D body) {
+        forallChunked(start, endInclusive, body);
+    }
+
+    /**
+     * Ciclo paralelo sobre start..endInclusive con un trozo por hilo del pool.
+     *
+     * @param start El primer índice
+     * @param endInclusive El último índice
+     * @param body El cuerpo del ciclo
+     */
+    public static void forallChunked(final int start, final int endInclusive, final ProcedureInt1D body) {
+        forallChunked(start, endInclusive, defaultChunkSize((long) endInclusive - start + 1), body);
+    }
+
+    /**
+     * Ciclo paralelo sobre start..endInclusive en trozos de chunkSize
+     * iteraciones consecutivas.
+     *
+     * @param start El primer índice
+     * @param endInclusive El último índice
+     * @param chunkSize El número de iteraciones por tarea
+     * @param body El cuerpo del ciclo
+     */
+    public static void forallChunked(final int start, final int endInclusive, final int chunkSize,
+            final ProcedureInt1D body) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize = " + chunkSize);
+        }
+        finish(() -> {
+            for (long lo = start; lo <= endInclusive; lo += chunkSize) {
+                final int from = (int) lo;
+                final int to = (int) Math.min(lo + chunkSize - 1, endInclusive);
+                async(() -> {
+                    final LeafTaskEvent event = LeafTaskEvent.start("forallChunked", from, to - from + 1);
+                    for (int i = from; i <= to; i++) {
+                        body.apply(i);
+                    }
+                    event.finish();
+                });
+            }
+        });
+    }
+
+    /**
+     * Ciclo paralelo sobre el espacio start0..end0 x start1..end1.
+     *
+     * @param start0 El primer índice de la dimensión externa
+     * @param end0 El último índice de la dimensión externa
+     * @param start1 El primer índice de la dimensión interna
+     * @param end1 El último índice de la dimensión interna
+     * @param body El cuerpo del ciclo
+     */
+    public static void forall2d(final int start0, final int end0, final int start1, final int end1,
+            final ProcedureInt2D body) {
+        forall2dChunked(start0, end0, start1, end1, body);
+    }
+
+    /**
+     * Ciclo paralelo sobre el espacio start0..end0 x start1..end1 con un trozo
+     * por hilo del pool.
+     *
+     * @param start0 El primer índice de la dimensión externa
+     * @param end0 El último índice de la dimensión externa
+     * @param start1 El primer índice de la dimensión interna
+     * @param end1 El último índice de la dimensión interna
+     * @param body El cuerpo del ciclo
+     */
+    public static void forall2dChunked(final int start0, final int end0, final int start1, final int end1,
+            final ProcedureInt2D body) {
+        final long total = Math.max(0, (long) end0 - start0 + 1) * Math.max(0, (long) end1 - start1 + 1);
+        forall2dChunked(start0, end0, start1, end1, defaultChunkSize(total), body);
+    }
+
+    /**
+     * Ciclo paralelo sobre el espacio start0..end0 x start1..end1. El espacio
+     * se recorre en orden de filas y se parte en trozos de chunkSize
+     * iteraciones consecutivas.
+     *
+     * @param start0 El primer índice de la dimensión externa
+     * @param end0 El último índice de la dimensión externa
+     * @param start1 El primer índice de la dimensión interna
+     * @param end1 El último índice de la dimensión interna
+     * @param chunkSize El número de iteraciones (i, j) por tarea
+     * @param body El cuerpo del ciclo
+     */
+    public static void forall2dChunked(final int start0, final int end0, final int start1, final int end1,
+            final int chunkSize, final ProcedureInt2D body) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize = " + chunkSize);
+        }
+        final long width = (long) end1 - start1 + 1;
+        final long total = Math.max(0, (long) end0 - start0 + 1) * Math.max(0, width);
+        finish(() -> {
+            for (long lo = 0; lo < total; lo += chunkSize) {
+                final long from = lo;
+                final long to = Math.min(lo + chunkSize, total);
+                async(() -> {
+                    final LeafTaskEvent event = LeafTaskEvent.start("forall2dChunked", from, to - from);
+                    long index = from;
+                    while (index < to) {
+                        final int i = (int) (start0 + index / width);
+                        final long rowEnd = Math.min(to, (index / width + 1) * width);
+                        for (int j = (int) (start1 + index % width); index < rowEnd; j++, index++) {
+                            body.apply(i, j);
+                        }
+                    }
+                    event.finish();
+                });
+            }
+        });
+    }
+
+    /**
+     * Ciclo secuencial sobre start..endInclusive, útil para alternar entre la
+     * versión secuencial y la paralela cambiando sólo el nombre.
+     *
+     * @param start El primer índice
+     * @param endInclusive El último índice
+     * @param body El cuerpo del ciclo
+     */
+    public static void forseq(final int start, final int endInclusive, final ProcedureInt1D body) {
+        for (int i = start; i <= endInclusive; i++) {
+            body.apply(i);
+        }
+    }
+
+    /**
+     * Ciclo secuencial sobre el espacio start0..end0 x start1..end1.
+     *
+     * @param start0 El primer índice de la dimensión externa
+     * @param end0 El último índice de la dimensión externa
+     * @param start1 El primer índice de la dimensión interna
+     * @param end1 El último índice de la dimensión interna
+     * @param body El cuerpo del ciclo
+     */
+    public static void forseq2d(final int start0, final int end0, final int start1, final int end1,
+            final ProcedureInt2D body) {
+        for (int i = start0; i <= end0; i++) {
+            for (int j = start1; j <= end1; j++) {
+                body.apply(i, j);
+            }
+        }
+    }
+
+    /**
+     * @return El número de hilos del pool en el que se ejecutarían las tareas
+     *         creadas desde el hilo actual
+     */
+    public static int numWorkerThreads() {
+        return workerPool().getParallelism();
+    }
+
+    /**
+     * @return El pool en que se ejecutarían los async creados desde el hilo
+     *         actual
+     */
+    static ForkJoinPool workerPool() {
+        final FinishScope scope = CURRENT.get();
+        return scope != null ? scope.pool : currentPool();
+    }
+
+    /**
+     * Calcula el tamaño de trozo por defecto: un trozo por hilo del pool.
+     *
+     * @param total El número total de iteraciones
+     * @return El tamaño de trozo, al menos 1
+     */
+    private static int defaultChunkSize(final long total) {
+        final int workers = numWorkerThreads();
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (total + workers - 1) / workers));
+    }
+
+    /**
+     * @return El pool del hilo actual si es un hilo de ForkJoinPool, o el
+     *         pool común en otro caso
+     */
+    private static ForkJoinPool currentPool() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof ForkJoinWorkerThread) {
+            return ((ForkJoinWorkerThread) thread).getPool();
+        }
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @param pool Un pool
+     * @return Si el hilo actual es un hilo de ese pool
+     */
+    private static boolean isWorkerOf(final ForkJoinPool pool) {
+        final Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+    }
+
+    /**
+     * @return El finish que encierra al hilo actual, o un alcance desligado
+     *         si no hay ninguno
+     */
+    private static FinishScope currentScope() {
+        final FinishScope scope = CURRENT.get();
+        return scope != null ? scope : new FinishScope(currentPool(), null, true);
+    }
+
+    /**
+     * Restaura el alcance anterior del hilo actual.
+     *
+     * @param previous El alcance a restaurar, posiblemente null
+     */
+    private static void restore(final FinishScope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Contador de tareas pendientes de un finish junto con las excepciones
+     * que éstas lanzaron.
+     */
+    private static final class FinishScope implements ForkJoinPool.ManagedBlocker {
+        /**
+         * Pool en el que se ejecutan las tareas de este alcance.
+         */
+        private final ForkJoinPool pool;
+        /**
+         * Ejecutor de un hilo por tarea, o null si las tareas van al pool.
+         */
+        private final ExecutorService executor;
+        /**
+         * Si es verdadero nadie espera por este alcance.
+         */
+        private final boolean detached;
+        /**
+         * Número de tareas creadas y aún no terminadas.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * Hilo que espera en await, o null si nadie espera todavía.
+         */
+        private volatile Thread waiter;
+        /**
+         * Primera excepción lanzada por una tarea del alcance.
+         */
+        private Throwable failure;
+
+        /**
+         * Constructor.
+         * @param pool El pool en el que se ejecutan las tareas
+         * @param executor El ejecutor de un hilo por tarea, o null
+         * @param detached Si nadie espera por este alcance
+         */
+        FinishScope(final ForkJoinPool pool, final ExecutorService executor, final boolean detached) {
+            this.pool = pool;
+            this.executor = executor;
+            this.detached = detached;
+        }
+
+        /**
+         * Registra y planifica una tarea. Desde un hilo del mismo pool la
+         * tarea se pone en la cola local del hilo, que es lo más barato.
+         *
+         * @param task La tarea a planificar
+         */
+        void spawn(final AsyncTask<?> task) {
+            pending.incrementAndGet();
+            if (executor != null) {
+                executor.execute(task);
+            } else if (isWorkerOf(pool)) {
+                task.fork();
+            } else {
+                pool.execute((ForkJoinTask<?>) task);
+            }
+        }
+
+        /**
+         * Marca una tarea como terminada.
+         *
+         * @param error La excepción lanzada por la tarea, o null
+         */
+        void complete(final Throwable error) {
+            if (error != null) {
+                if (detached) {
+                    error.printStackTrace();
+                } else {
+                    recordFailure(error);
+                }
+            }
+            if (pending.decrementAndGet() == 0 && !detached) {
+                final Thread thread = waiter;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            }
+        }
+
+        /**
+         * Guarda una excepción; la primera se relanza y las demás se agregan
+         * como suprimidas.
+         *
+         * @param error La excepción a guardar
+         */
+        synchronized void recordFailure(final Throwable error) {
+            if (failure == null) {
+                failure = error;
+            } else if (failure != error) {
+                failure.addSuppressed(error);
+            }
+        }
+
+        /**
+         * Espera a que terminen todas las tareas del alcance, ejecutando
+         * tareas pendientes mientras sea posible.
+         */
+        void await() {
+            if (executor == null && isWorkerOf(pool)) {
+                ForkJoinTask<?> task;
+                while (pending.get() != 0 && (task = AsyncTask.pollPending()) != null) {
+                    task.quietlyInvoke();
+                }
+            }
+            waiter = Thread.currentThread();
+            boolean interrupted = false;
+            while (pending.get() != 0) {
+                try {
+                    ForkJoinPool.managedBlock(this);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Relanza la primera excepción registrada, si la hay.
+         */
+        synchronized void rethrow() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return pending.get() == 0;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            // Se usa LockSupport en lugar de wait para no fijar hilos virtuales a su portador
+            while (pending.get() != 0) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Tarea de ForkJoin que ejecuta el cuerpo de un async o de un future
+     * dentro del alcance en el que fue creada.
+     *
+     * @param <R> El tipo del resultado
+     */
+    private static final class AsyncTask<R> extends ForkJoinTask<R> implements Runnable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Alcance en el que se creó la tarea.
+         */
+        private final transient FinishScope scope;
+        /**
+         * Cuerpo de un async, o null si la tarea es un future.
+         */
+        private final transient Runnable runnable;
+        /**
+         * Cuerpo de un future, o null si la tarea es un async.
+         */
+        private final transient Callable<R> callable;
+        /**
+         * Resultado producido por el future.
+         */
+        private transient R result;
+
+        /**
+         * Constructor.
+         * @param scope El alcance en el que se crea la tarea
+         * @param runnable El cuerpo de un async
+         * @param callable El cuerpo de un future
+         */
+        AsyncTask(final FinishScope scope, final Runnable runnable, final Callable<R> callable) {
+            this.scope = scope;
+            this.runnable = runnable;
+            this.callable = callable;
+        }
+
+        /**
+         * @return La siguiente tarea pendiente que el hilo actual puede
+         *         ejecutar, o null si no hay ninguna
+         */
+        static ForkJoinTask<?> pollPending() {
+            return pollTask();
+        }
+
+        @Override
+        public void run() {
+            quietlyInvoke();
+        }
+
+        @Override
+        public R getRawResult() {
+            return result;
+        }
+
+        @Override
+        protected void setRawResult(final R value) {
+            result = value;
+        }
+
+        @Override
+        protected boolean exec() {
+            final FinishScope previous = CURRENT.get();
+            if (previous != scope) {
+                CURRENT.set(scope);
+            }
+            Throwable error = null;
+            try {
+                if (runnable != null) {
+                    runnable.run();
+                } else {
+                    result = callable.call();
+                }
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                if (previous != scope) {
+                    restore(previous);
+                }
+            }
+            scope.complete(error);
+            if (error != null && callable != null) {
+                // Un future fallido debe reportar la excepción en get()
+                if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                } else if (error instanceof Error) {
+                    throw (Error) error;
+                }
+                throw new RuntimeException(error);
+            }
+            return true;
+        }
+    }
+}
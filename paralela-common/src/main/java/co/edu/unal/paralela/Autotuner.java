@@ -0,0 +1,243 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Elige parámetros de ajuste (número de tareas, tamaño de trozo...) midiendo
+ * los candidatos en la máquina actual la primera vez que se necesitan, y
+ * guarda el ganador en un perfil para no volver a medirlo.
+ *
+ * El perfil es un archivo de propiedades por máquina, identificado por el
+ * modelo del procesador (de /proc/cpuinfo) y el número de núcleos, dentro del
+ * directorio indicado por la propiedad de sistema paralela.autotune.dir
+ * (~/.paralela por defecto). Si el archivo no se puede leer o escribir, los
+ * valores elegidos se conservan sólo en memoria y getFailure() devuelve el
+ * último error, para que quien llame decida si reportarlo.
+ */
+public final class Autotuner {
+    /**
+     * Propiedad de sistema con el directorio de los perfiles.
+     */
+    public static final String DIR_PROPERTY = "paralela.autotune.dir";
+    /**
+     * Número de mediciones de cada candidato, de las que se toma la menor.
+     */
+    private static final int REPEATS = 3;
+    /**
+     * Modelo del procesador, leído una sola vez.
+     */
+    private static final String CPU_MODEL = cpuModel();
+    /**
+     * Clave de esta máquina, calculada una sola vez.
+     */
+    private static final String MACHINE_KEY = machineKey(CPU_MODEL);
+
+    /**
+     * Instancia compartida, para el directorio de perfiles vigente.
+     */
+    private static Autotuner shared;
+    /**
+     * Directorio de perfiles de la instancia compartida.
+     */
+    private static Path sharedDirectory;
+
+    /**
+     * Archivo del perfil de esta máquina.
+     */
+    private final Path file;
+    /**
+     * Valores conocidos del perfil.
+     */
+    private final Properties profile = new Properties();
+    /**
+     * Último error al leer o guardar el perfil, o null si no hubo ninguno.
+     */
+    private IOException failure;
+
+    /**
+     * Constructor.
+     *
+     * @param file El archivo del perfil; se lee si existe
+     */
+    Autotuner(final Path file) {
+        this.file = file;
+        try {
+            load(file, profile);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * @return El autotuner del directorio de perfiles vigente
+     */
+    public static synchronized Autotuner shared() {
+        final Path directory = profileDirectory();
+        if (shared == null || !sharedDirectory.equals(directory)) {
+            shared = new Autotuner(directory.resolve("autotune-" + MACHINE_KEY + ".properties"));
+            sharedDirectory = directory;
+        }
+        return shared;
+    }
+
+    /**
+     * @return El directorio de perfiles: paralela.autotune.dir o ~/.paralela
+     */
+    static Path profileDirectory() {
+        final String dir = System.getProperty(DIR_PROPERTY);
+        if (dir != null && !dir.isEmpty()) {
+            return Paths.get(dir);
+        }
+        return Paths.get(System.getProperty("user.home"), ".paralela");
+    }
+
+    /**
+     * Devuelve la clave de esta máquina: el modelo del procesador, reducido a
+     * letras, dígitos y guiones, seguido del número de núcleos.
+     *
+     * @return La clave de la máquina
+     */
+    static String machineKey() {
+        return MACHINE_KEY;
+    }
+
+    /**
+     * @param cpuModel El modelo del procesador
+     * @return La clave de la máquina con ese procesador
+     */
+    private static String machineKey(final String cpuModel) {
+        final String model = cpuModel.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "");
+        return model + "-" + Runtime.getRuntime().availableProcessors() + "cores";
+    }
+
+    /**
+     * @return El modelo del procesador según /proc/cpuinfo, o la arquitectura
+     *         si no está disponible
+     */
+    static String cpuModel() {
+        try {
+            final List<String> lines = Files.readAllLines(Paths.get("/proc/cpuinfo"), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.startsWith("model name")) {
+                    return line.substring(line.indexOf(':') + 1).trim();
+                }
+            }
+        } catch (IOException e) {
+            // Sin /proc/cpuinfo (otro sistema operativo): se usa la arquitectura
+        }
+        return System.getProperty("os.arch", "unknown");
+    }
+
+    /**
+     * @return El archivo del perfil
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return El último error al leer o guardar el perfil, o null si todos
+     *         los valores elegidos están guardados en el archivo
+     */
+    public synchronized IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Devuelve el valor del perfil para knob. Si aún no existe, ejecuta
+     * benchmark para cada candidato, elige el de menor tiempo y lo guarda.
+     *
+     * @param knob El nombre del parámetro, único en el proyecto
+     * @param candidates Los valores posibles, al menos uno
+     * @param benchmark Mide un candidato y devuelve el tiempo en nanosegundos
+     * @return El valor elegido para el parámetro
+     */
+    public synchronized int tune(final String knob, final int[] candidates, final IntToLongFunction benchmark) {
+        if (candidates.length == 0) {
+            throw new IllegalArgumentException("No candidates for " + knob);
+        }
+        final String known = profile.getProperty(knob);
+        if (known != null) {
+            try {
+                return Integer.parseInt(known.trim());
+            } catch (NumberFormatException e) {
+                // Valor corrupto: se vuelve a medir
+            }
+        }
+
+        int best = candidates[0];
+        long bestNanos = Long.MAX_VALUE;
+        for (int candidate : candidates) {
+            // La primera ejecución sirve de calentamiento
+            benchmark.applyAsLong(candidate);
+            long nanos = Long.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                nanos = Math.min(nanos, benchmark.applyAsLong(candidate));
+            }
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                best = candidate;
+            }
+        }
+
+        profile.setProperty(knob, Integer.toString(best));
+        save(knob, best);
+        return best;
+    }
+
+    /**
+     * Agrega knob al archivo del perfil. El archivo se relee antes de
+     * escribirlo para no perder valores guardados por otros módulos, y se
+     * reemplaza de forma atómica. Si falla, el error queda en failure.
+     *
+     * @param knob El nombre del parámetro
+     * @param value El valor elegido
+     */
+    private void save(final String knob, final int value) {
+        try {
+            Files.createDirectories(file.getParent());
+            final Properties merged = new Properties();
+            load(file, merged);
+            merged.setProperty(knob, Integer.toString(value));
+            final Path tmp = Files.createTempFile(file.getParent(), "autotune", ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    merged.store(out, "Autotuned parameters for " + CPU_MODEL + ", "
+                            + Runtime.getRuntime().availableProcessors() + " cores");
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // Tras un movimiento exitoso el temporal ya no existe
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Lee un archivo de propiedades si existe.
+     *
+     * @param path El archivo
+     * @param into Las propiedades a completar
+     * @throws IOException Si el archivo existe pero no se pudo leer
+     */
+    private static void load(final Path path, final Properties into) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            into.load(in);
+        }
+    }
+}
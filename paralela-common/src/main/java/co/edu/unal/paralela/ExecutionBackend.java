@@ -0,0 +1,82 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Backend sobre el que se ejecutan las tareas de un kernel: los finish de
+ * AsyncFinish y las tareas de los promedios iterativos con phasers.
+ */
+public enum ExecutionBackend {
+    /**
+     * Tareas de ForkJoin sobre el pool del hilo actual o el pool común. Es la
+     * opción de menor costo por tarea, pero el número de tareas bloqueadas a
+     * la vez está limitado por los hilos del pool. Sólo sirve para kernels
+     * cuyas tareas no se esperan entre sí, como los de AsyncFinish.
+     */
+    FORK_JOIN,
+    /**
+     * Un hilo de plataforma por tarea. Mientras esperan, las tareas ocupan un
+     * hilo del sistema operativo, lo que limita el número práctico de tareas
+     * a unos pocos miles.
+     */
+    PLATFORM_THREADS,
+    /**
+     * Un hilo virtual por tarea. Una tarea bloqueada libera su hilo portador,
+     * así que se pueden usar decenas de miles de tareas.
+     */
+    VIRTUAL_THREADS;
+
+    /**
+     * Ejecutores compartidos de un hilo por tarea, creados la primera vez que
+     * se usan.
+     */
+    private static final class ThreadPerTask {
+        /**
+         * Un hilo de plataforma por tarea; los hilos son daemon para no
+         * impedir que la JVM termine.
+         */
+        static final ExecutorService PLATFORM =
+                Executors.newThreadPerTaskExecutor(Thread.ofPlatform().daemon().factory());
+        /**
+         * Un hilo virtual por tarea.
+         */
+        static final ExecutorService VIRTUAL = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Crea, sin iniciarlo, el hilo que ejecutará una tarea.
+     *
+     * @param task El cuerpo de la tarea
+     * @return El hilo creado
+     * @throws IllegalArgumentException Si el backend es FORK_JOIN, que no
+     *         tiene un hilo por tarea
+     */
+    Thread newThread(final Runnable task) {
+        switch (this) {
+            case PLATFORM_THREADS:
+                return Thread.ofPlatform().unstarted(task);
+            case VIRTUAL_THREADS:
+                return Thread.ofVirtual().unstarted(task);
+            default:
+                throw new IllegalArgumentException(this + " does not run each task on its own thread");
+        }
+    }
+
+    /**
+     * @return El ejecutor compartido que crea un hilo de este backend por
+     *         tarea
+     * @throws IllegalArgumentException Si el backend es FORK_JOIN, que no
+     *         tiene un hilo por tarea
+     */
+    ExecutorService threadPerTaskExecutor() {
+        switch (this) {
+            case PLATFORM_THREADS:
+                return ThreadPerTask.PLATFORM;
+            case VIRTUAL_THREADS:
+                return ThreadPerTask.VIRTUAL;
+            default:
+                throw new IllegalArgumentException(this + " does not run each task on its own thread");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+
+/**
+ * Indica en qué ForkJoinPool se ejecutan los kernels, para que un cálculo
+ * sensible a la latencia no compita por el pool común con todo el resto de la
+ * JVM (streams paralelos, otros kernels...).
+ *
+ * Hay cuatro formas de obtener un contexto:
+ * <ul>
+ * <li>common(): el pool común, el comportamiento por defecto.</li>
+ * <li>of(pool): un pool que administra quien llama.</li>
+ * <li>dedicated(name, parallelism): un pool nuevo que pertenece al contexto
+ * y se cierra con close().</li>
+ * <li>shared(name, parallelismCap): un pool por nombre, creado la primera
+ * vez y compartido por todos los que pidan ese nombre. El pool nunca tiene
+ * más hilos que el menor de los límites pedidos, así cada componente
+ * respeta su límite y varios pueden repartirse los hilos sin que cada uno
+ * cree su propio pool.</li>
+ * </ul>
+ */
+public final class ExecutionContext implements AutoCloseable {
+    /**
+     * Contexto del pool común.
+     */
+    private static final ExecutionContext COMMON = new ExecutionContext(ForkJoinPool.commonPool(), false);
+    /**
+     * Pools compartidos por nombre.
+     */
+    private static final ConcurrentMap<String, ForkJoinPool> SHARED = new ConcurrentHashMap<>();
+
+    /**
+     * El pool en que se ejecutan los kernels.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Si el pool pertenece al contexto y se cierra con él.
+     */
+    private final boolean owned;
+
+    /**
+     * Constructor.
+     *
+     * @param pool El pool en que se ejecutan los kernels
+     * @param owned Si el pool se cierra con el contexto
+     */
+    private ExecutionContext(final ForkJoinPool pool, final boolean owned) {
+        this.pool = pool;
+        this.owned = owned;
+    }
+
+    /**
+     * @return El contexto del pool común
+     */
+    public static ExecutionContext common() {
+        return COMMON;
+    }
+
+    /**
+     * @param pool Un pool que administra quien llama; close() no lo cierra
+     * @return El contexto de ese pool
+     */
+    public static ExecutionContext of(final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool = null");
+        }
+        return new ExecutionContext(pool, false);
+    }
+
+    /**
+     * Crea un pool propio del contexto. Hay que cerrarlo con close().
+     *
+     * @param name Prefijo de los nombres de los hilos
+     * @param parallelism El número de hilos
+     * @return El contexto
+     */
+    public static ExecutionContext dedicated(final String name, final int parallelism) {
+        return new ExecutionContext(newPool(name, parallelism), true);
+    }
+
+    /**
+     * Devuelve el contexto del pool compartido con ese nombre, creándolo con
+     * parallelismCap hilos si aún no existe. Si ya existe con más hilos que
+     * parallelismCap, se reduce a parallelismCap para todos los que lo usan;
+     * si tiene menos, se deja igual. close() no cierra el pool.
+     *
+     * @param name El nombre del pool
+     * @param parallelismCap El número máximo de hilos del pool
+     * @return El contexto
+     */
+    public static ExecutionContext shared(final String name, final int parallelismCap) {
+        final ForkJoinPool pool = SHARED.compute(name, (n, existing) -> {
+            if (existing == null) {
+                return newPool(n, parallelismCap);
+            }
+            if (parallelismCap <= 0) {
+                throw new IllegalArgumentException("parallelism = " + parallelismCap);
+            }
+            if (existing.getParallelism() > parallelismCap) {
+                existing.setParallelism(parallelismCap);
+            }
+            return existing;
+        });
+        return new ExecutionContext(pool, false);
+    }
+
+    /**
+     * @param name Prefijo de los nombres de los hilos
+     * @param parallelism El número de hilos
+     * @return Un pool nuevo con hilos demonio
+     */
+    private static ForkJoinPool newPool(final String name, final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        return new ForkJoinPool(parallelism, p -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @return El pool en que se ejecutan los kernels
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return El número de hilos del pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Ejecuta body dentro del pool, de modo que los streams paralelos y las
+     * tareas que cree usen ese pool. Si ya se está en el pool, body se
+     * ejecuta directamente.
+     *
+     * @param body El cálculo
+     * @param <T> El tipo del resultado
+     * @return El resultado de body
+     */
+    public <T> T invoke(final Supplier<T> body) {
+        if (ForkJoinTask.getPool() == pool) {
+            return body.get();
+        }
+        return pool.submit(body::get).join();
+    }
+
+    /**
+     * Cierra el pool si pertenece al contexto.
+     */
+    @Override
+    public void close() {
+        if (owned) {
+            pool.shutdown();
+        }
+    }
+}
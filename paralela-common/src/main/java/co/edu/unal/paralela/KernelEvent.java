@@ -0,0 +1,96 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinPool;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR que cubre una llamada completa a un kernel (método de
+ * cómputo) de este proyecto. La duración del evento es la del kernel.
+ *
+ * Si el evento no está habilitado, start y finish sólo consultan isEnabled,
+ * así que instrumentar un kernel no cuesta nada apreciable cuando no se está
+ * grabando.
+ */
+@Name("co.edu.unal.paralela.Kernel")
+@Label("Kernel")
+@Category({"Paralela", "Kernel"})
+@Description("One call of a parallel kernel")
+@StackTrace(false)
+public final class KernelEvent extends Event {
+    /**
+     * Nombre del kernel.
+     */
+    @Label("Kernel")
+    String kernel;
+    /**
+     * Tamaño de la entrada, en elementos.
+     */
+    @Label("Input Size")
+    long inputSize;
+    /**
+     * Número de tareas en que se dividió el trabajo.
+     */
+    @Label("Tasks")
+    int tasks;
+    /**
+     * Robos de tareas del ForkJoinPool durante el kernel.
+     */
+    @Label("Steals")
+    @Description("ForkJoinPool steals while the kernel ran")
+    long steals;
+    /**
+     * Tareas que ya esperaban en el ForkJoinPool al iniciar el kernel.
+     */
+    @Label("Queued Tasks")
+    @Description("Tasks already queued in the ForkJoinPool when the kernel started")
+    long queuedTasks;
+    /**
+     * Pool del kernel, o null si no usa un ForkJoinPool.
+     */
+    private transient ForkJoinPool pool;
+
+    /**
+     * Inicia el evento de un kernel.
+     *
+     * @param kernel El nombre del kernel
+     * @param inputSize El tamaño de la entrada
+     * @param tasks El número de tareas
+     * @param pool El pool en que corre el kernel, o null si no usa uno
+     * @return El evento, que debe terminarse con finish
+     */
+    static KernelEvent start(final String kernel, final long inputSize, final int tasks, final ForkJoinPool pool) {
+        final KernelEvent event = new KernelEvent();
+        if (event.isEnabled()) {
+            event.kernel = kernel;
+            event.inputSize = inputSize;
+            event.tasks = tasks;
+            if (pool != null) {
+                event.pool = pool;
+                event.steals = pool.getStealCount();
+                event.queuedTasks = pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount();
+            }
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Termina el evento y lo registra si supera el umbral de la grabación.
+     */
+    void finish() {
+        if (kernel != null) {
+            end();
+            if (shouldCommit()) {
+                if (pool != null) {
+                    steals = pool.getStealCount() - steals;
+                }
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinTask;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de JFR que cubre una tarea hoja de un kernel, es decir, la que
+ * recorre un trozo de la entrada sin dividirlo más.
+ */
+@Name("co.edu.unal.paralela.LeafTask")
+@Label("Leaf Task")
+@Category({"Paralela", "Kernel"})
+@Description("One leaf task of a parallel kernel")
+@StackTrace(false)
+public final class LeafTaskEvent extends Event {
+    /**
+     * Nombre del kernel al que pertenece la tarea.
+     */
+    @Label("Kernel")
+    String kernel;
+    /**
+     * Primer elemento del trozo.
+     */
+    @Label("First")
+    long first;
+    /**
+     * Número de elementos del trozo.
+     */
+    @Label("Size")
+    long size;
+    /**
+     * Tareas en la cola del hilo trabajador al iniciar la hoja (0 fuera de
+     * un ForkJoinPool).
+     */
+    @Label("Queued Tasks")
+    @Description("Tasks in the local ForkJoin work queue when the leaf started")
+    long queuedTasks;
+
+    /**
+     * Inicia el evento de una tarea hoja.
+     *
+     * @param kernel El nombre del kernel
+     * @param first El primer elemento del trozo
+     * @param size El número de elementos del trozo
+     * @return El evento, que debe terminarse con finish
+     */
+    static LeafTaskEvent start(final String kernel, final long first, final long size) {
+        final LeafTaskEvent event = new LeafTaskEvent();
+        if (event.isEnabled()) {
+            event.kernel = kernel;
+            event.first = first;
+            event.size = size;
+            event.queuedTasks = ForkJoinTask.getQueuedTaskCount();
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Termina el evento y lo registra si supera el umbral de la grabación.
+     */
+    void finish() {
+        if (kernel != null) {
+            end();
+            if (shouldCommit()) {
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resultados de un estudio de escalabilidad: el tiempo de cada kernel para
+ * cada tamaño y número de hilos, con la aceleración (speedup), la eficiencia
+ * paralela y la fracción serial de Karp-Flatt calculadas respecto a la
+ * ejecución con un hilo.
+ *
+ * En escalabilidad fuerte ("strong") el tamaño es fijo y la referencia es la
+ * ejecución con un hilo del mismo tamaño. En escalabilidad débil ("weak") el
+ * tamaño crece con el número de hilos y se usa la aceleración escalada
+ * p * T1 / Tp, cuya referencia es la ejecución con un hilo del kernel.
+ */
+public final class ScalingReport {
+    /**
+     * Modo de escalabilidad fuerte.
+     */
+    public static final String STRONG = "strong";
+    /**
+     * Modo de escalabilidad débil.
+     */
+    public static final String WEAK = "weak";
+    /**
+     * Mayor tamaño de arreglo que se pide, con margen para los encabezados de
+     * la JVM y para elementos extra como las fronteras de un stencil.
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 16;
+
+    /**
+     * Una medición del estudio.
+     */
+    public static final class Row {
+        /**
+         * Nombre del kernel.
+         */
+        private final String kernel;
+        /**
+         * Modo de escalabilidad, STRONG o WEAK.
+         */
+        private final String mode;
+        /**
+         * Tamaño del problema.
+         */
+        private final long size;
+        /**
+         * Número de hilos.
+         */
+        private final int threads;
+        /**
+         * Tiempo medido en nanosegundos.
+         */
+        private final long nanos;
+
+        /**
+         * Constructor.
+         *
+         * @param kernel Nombre del kernel
+         * @param mode Modo de escalabilidad
+         * @param size Tamaño del problema
+         * @param threads Número de hilos
+         * @param nanos Tiempo medido en nanosegundos
+         */
+        Row(final String kernel, final String mode, final long size, final int threads, final long nanos) {
+            this.kernel = kernel;
+            this.mode = mode;
+            this.size = size;
+            this.threads = threads;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return El nombre del kernel
+         */
+        public String getKernel() {
+            return kernel;
+        }
+
+        /**
+         * @return El modo de escalabilidad
+         */
+        public String getMode() {
+            return mode;
+        }
+
+        /**
+         * @return El tamaño del problema
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return El número de hilos
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * @return El tiempo medido en nanosegundos
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Mediciones en el orden en que se agregaron.
+     */
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * Agrega una medición.
+     *
+     * @param kernel Nombre del kernel
+     * @param mode Modo de escalabilidad, STRONG o WEAK
+     * @param size Tamaño del problema
+     * @param threads Número de hilos
+     * @param nanos Tiempo medido en nanosegundos
+     */
+    public void add(final String kernel, final String mode, final long size, final int threads, final long nanos) {
+        if (!STRONG.equals(mode) && !WEAK.equals(mode)) {
+            throw new IllegalArgumentException("mode = " + mode);
+        }
+        if (threads <= 0 || nanos <= 0) {
+            throw new IllegalArgumentException("threads = " + threads + ", nanos = " + nanos);
+        }
+        rows.add(new Row(kernel, mode, size, threads, nanos));
+    }
+
+    /**
+     * @return Las mediciones en el orden en que se agregaron
+     */
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Busca la ejecución con un hilo que sirve de referencia para row.
+     *
+     * @param row La medición
+     * @return La referencia, o null si no se midió
+     */
+    private Row baseline(final Row row) {
+        for (Row candidate : rows) {
+            if (candidate.threads == 1 && candidate.kernel.equals(row.kernel) && candidate.mode.equals(row.mode)
+                    && (WEAK.equals(row.mode) || candidate.size == row.size)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calcula la aceleración de row respecto a su referencia con un hilo:
+     * T1 / Tp en escalabilidad fuerte y p * T1 / Tp en escalabilidad débil.
+     *
+     * @param row La medición
+     * @return La aceleración, o NaN si no hay referencia
+     */
+    public double speedup(final Row row) {
+        final Row base = baseline(row);
+        if (base == null) {
+            return Double.NaN;
+        }
+        final double ratio = (double) base.nanos / row.nanos;
+        return WEAK.equals(row.mode) ? ratio * row.threads : ratio;
+    }
+
+    /**
+     * @param row La medición
+     * @return La eficiencia paralela, aceleración / hilos
+     */
+    public double efficiency(final Row row) {
+        return speedup(row) / row.threads;
+    }
+
+    /**
+     * Calcula la fracción serial de Karp-Flatt, (1/S - 1/p) / (1 - 1/p). Si
+     * crece con p, la pérdida de eficiencia se debe a sobrecostos paralelos y
+     * no sólo a una parte secuencial fija.
+     *
+     * @param row La medición
+     * @return La fracción serial, o NaN con un hilo o sin referencia
+     */
+    public double karpFlatt(final Row row) {
+        return karpFlatt(speedup(row), row.threads);
+    }
+
+    /**
+     * @param speedup La aceleración medida
+     * @param threads El número de hilos
+     * @return La fracción serial de Karp-Flatt, o NaN si threads es 1
+     */
+    public static double karpFlatt(final double speedup, final int threads) {
+        if (threads <= 1) {
+            return Double.NaN;
+        }
+        final double p = threads;
+        return (1.0 / speedup - 1.0 / p) / (1.0 - 1.0 / p);
+    }
+
+    /**
+     * Escribe las mediciones en formato CSV, con una línea de encabezado.
+     *
+     * @param out El destino
+     * @throws IOException Si falla la escritura
+     */
+    public void writeCsv(final Appendable out) throws IOException {
+        out.append("kernel,mode,size,threads,millis,speedup,efficiency,karp_flatt\n");
+        for (Row row : rows) {
+            out.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%.3f,%.4f,%.4f,%.4f\n", row.kernel, row.mode,
+                    row.size, row.threads, row.nanos / 1e6, speedup(row), efficiency(row), karpFlatt(row)));
+        }
+    }
+
+    /**
+     * Escribe las mediciones como una tabla de Markdown por kernel y modo.
+     *
+     * @param out El destino
+     * @throws IOException Si falla la escritura
+     */
+    public void writeMarkdown(final Appendable out) throws IOException {
+        String section = null;
+        for (Row row : rows) {
+            final String current = row.kernel + " (" + row.mode + " scaling)";
+            if (!current.equals(section)) {
+                section = current;
+                out.append(String.format("\n## %s\n\n", section));
+                out.append("| size | threads | time (ms) | speedup | efficiency | Karp-Flatt |\n");
+                out.append("|-----:|--------:|----------:|--------:|-----------:|-----------:|\n");
+            }
+            out.append(String.format(Locale.ROOT, "| %d | %d | %.3f | %.2f | %.2f | %s |\n", row.size,
+                    row.threads, row.nanos / 1e6, speedup(row), efficiency(row),
+                    row.threads == 1 ? "-" : String.format(Locale.ROOT, "%.3f", karpFlatt(row))));
+        }
+    }
+
+    /**
+     * Escribe prefix-scaling.csv y prefix-scaling.md en el directorio indicado.
+     *
+     * @param dir El directorio de salida; se crea si no existe
+     * @param prefix Prefijo de los nombres de archivo, por ejemplo el módulo
+     * @throws IOException Si falla la escritura
+     */
+    public void write(final Path dir, final String prefix) throws IOException {
+        Files.createDirectories(dir);
+        try (Writer csv = Files.newBufferedWriter(dir.resolve(prefix + "-scaling.csv"), StandardCharsets.UTF_8)) {
+            writeCsv(csv);
+        }
+        try (Writer md = Files.newBufferedWriter(dir.resolve(prefix + "-scaling.md"), StandardCharsets.UTF_8)) {
+            md.append("# Scaling study: ").append(prefix).append('\n');
+            writeMarkdown(md);
+        }
+    }
+
+    /**
+     * Mide body: lo ejecuta una vez para calentar y devuelve el menor tiempo
+     * de repeats ejecuciones.
+     *
+     * @param repeats El número de ejecuciones medidas
+     * @param body El código a medir
+     * @return El menor tiempo en nanosegundos
+     */
+    public static long measure(final int repeats, final Runnable body) {
+        body.run();
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < repeats; r++) {
+            final long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(1, best);
+    }
+
+    /**
+     * Calcula los números de hilos a recorrer: las potencias de dos menores
+     * que maxThreads y maxThreads.
+     *
+     * @param maxThreads El mayor número de hilos
+     * @return Los números de hilos en orden creciente
+     */
+    public static int[] threadCounts(final int maxThreads) {
+        final List<Integer> counts = new ArrayList<>();
+        for (int p = 1; p < maxThreads; p *= 2) {
+            counts.add(p);
+        }
+        counts.add(Math.max(1, maxThreads));
+        final int[] result = new int[counts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Calcula el tamaño de escalabilidad débil para threads hilos:
+     * perThread elementos por hilo, multiplicados en long. El resultado se
+     * limita para que la entrada ocupe a lo sumo la mitad del heap y quepa en
+     * un arreglo; si se limita, esa fila ya no crece con los hilos y su
+     * aceleración escalada subestima la real.
+     *
+     * @param perThread Los elementos por hilo
+     * @param threads El número de hilos
+     * @param bytesPerElement Los bytes que ocupa cada elemento de la entrada
+     * @return El tamaño del problema
+     * @throws IllegalArgumentException Si algún argumento no es positivo o
+     *         si no cabe al menos un elemento por hilo
+     */
+    public static int weakSize(final int perThread, final int threads, final long bytesPerElement) {
+        return weakSize(perThread, threads, bytesPerElement, Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * Igual que weakSize(perThread, threads, bytesPerElement), con un
+     * presupuesto de memoria explícito.
+     *
+     * @param perThread Los elementos por hilo
+     * @param threads El número de hilos
+     * @param bytesPerElement Los bytes que ocupa cada elemento de la entrada
+     * @param maxBytes Los bytes que puede ocupar la entrada
+     * @return El tamaño del problema
+     */
+    static int weakSize(final int perThread, final int threads, final long bytesPerElement, final long maxBytes) {
+        if (perThread <= 0 || threads <= 0 || bytesPerElement <= 0) {
+            throw new IllegalArgumentException("perThread = " + perThread + ", threads = " + threads
+                    + ", bytesPerElement = " + bytesPerElement);
+        }
+        final long limit = Math.min(MAX_ARRAY_LENGTH, maxBytes / bytesPerElement);
+        if (limit < threads) {
+            throw new IllegalArgumentException("Cannot fit one element per thread for " + threads
+                    + " threads in " + maxBytes + " bytes");
+        }
+        return (int) Math.min((long) perThread * threads, limit);
+    }
+}
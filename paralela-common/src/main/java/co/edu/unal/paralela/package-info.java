@@ -0,0 +1,6 @@
+/**
+ * Infraestructura compartida por los ejercicios de Computación Paralela y
+ * Distribuida unal.edu.co: eventos de JFR, autoajuste, estudios de
+ * escalabilidad y el runtime async/finish.
+ */
+package co.edu.unal.paralela;
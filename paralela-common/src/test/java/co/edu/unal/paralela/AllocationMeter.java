@@ -0,0 +1,81 @@
+package co.edu.unal.paralela;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mide los bytes que reservan el hilo actual y los trabajadores de un pool
+ * dedicado, para las pruebas de presupuesto de reservas. Los trabajadores se
+ * toman al crear el medidor, así que el pool debe estar caliente antes.
+ */
+public final class AllocationMeter {
+    /**
+     * El bean de hilos de HotSpot, que expone los bytes reservados por hilo.
+     */
+    private final com.sun.management.ThreadMXBean bean;
+    /**
+     * Los identificadores de los hilos medidos.
+     */
+    private final long[] ids;
+
+    /**
+     * Constructor.
+     *
+     * @param bean El bean de hilos, con la medición de reservas activada
+     * @param ids Los identificadores de los hilos medidos
+     */
+    private AllocationMeter(final com.sun.management.ThreadMXBean bean, final long[] ids) {
+        this.bean = bean;
+        this.ids = ids;
+    }
+
+    /**
+     * Crea un medidor para el hilo actual y los hilos vivos cuyo nombre empieza
+     * con workerPrefix, por ejemplo "alloc-reducer-worker" para
+     * ExecutionContext.dedicated("alloc-reducer", ...).
+     *
+     * @param workerPrefix El prefijo de nombre de los trabajadores del pool
+     * @return El medidor
+     * @throws UnsupportedOperationException Si la JVM no mide reservas por hilo
+     */
+    public static AllocationMeter forCallerAndWorkers(final String workerPrefix) {
+        final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Per-thread allocation is not supported by this JVM");
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return new AllocationMeter(bean, threadIds(workerPrefix));
+    }
+
+    /**
+     * @return Los bytes reservados hasta ahora por los hilos medidos
+     */
+    public long allocatedBytes() {
+        long total = 0;
+        for (long bytes : bean.getThreadAllocatedBytes(ids)) {
+            // -1 indica un hilo que ya terminó
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    /**
+     * @return Los identificadores del hilo actual y de los trabajadores del pool con el prefijo indicado
+     */
+    private static long[] threadIds(final String prefix) {
+        final List<Long> ids = new ArrayList<>();
+        ids.add(Thread.currentThread().getId());
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(prefix)) {
+                ids.add(thread.getId());
+            }
+        }
+        final long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,272 @@
+package co.edu.unal.paralela;
+
+import static co.edu.unal.paralela.AsyncFinish.async;
+import static co.edu.unal.paralela.AsyncFinish.finish;
+import static co.edu.unal.paralela.AsyncFinish.forall2dChunked;
+import static co.edu.unal.paralela.AsyncFinish.forallChunked;
+import static co.edu.unal.paralela.AsyncFinish.future;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import junit.framework.TestCase;
+
+public class AsyncFinishTest extends TestCase {
+    // Número de async vacíos que crea el microbenchmark.
+    final static private int NASYNCS = 2_000_000;
+    // Número de mediciones del microbenchmark; se conserva la mejor.
+    final static private int BENCHMARK_RUNS = 3;
+
+    /**
+     * Crea recursivamente un árbol binario de async de la profundidad indicada.
+     */
+    private static void spawnTree(final int depth, final AtomicInteger counter) {
+        counter.incrementAndGet();
+        if (depth > 0) {
+            async(() -> spawnTree(depth - 1, counter));
+            async(() -> spawnTree(depth - 1, counter));
+        }
+    }
+
+    /*
+     * Prueba que finish espera también a los async creados desde otros async.
+     */
+    public void testFinishWaitsForNestedAsyncs() {
+        final AtomicInteger counter = new AtomicInteger();
+        finish(() -> spawnTree(12, counter));
+        assertEquals((1 << 13) - 1, counter.get());
+    }
+
+    /*
+     * Prueba que un finish anidado sólo espera a sus propias tareas y que el externo espera a todas.
+     */
+    public void testNestedFinishScopes() {
+        final AtomicInteger inner = new AtomicInteger();
+        final AtomicInteger outer = new AtomicInteger();
+        finish(() -> {
+            for (int i = 0; i < 100; i++) {
+                async(() -> {
+                    finish(() -> {
+                        for (int j = 0; j < 10; j++) {
+                            async(inner::incrementAndGet);
+                        }
+                    });
+                    // El finish interno ya terminó todas sus tareas
+                    assertTrue(inner.get() >= 10);
+                    outer.incrementAndGet();
+                });
+            }
+        });
+        assertEquals(1000, inner.get());
+        assertEquals(100, outer.get());
+    }
+
+    /*
+     * Prueba que las excepciones de los async se relanzan en el finish que los encierra.
+     */
+    public void testFinishPropagatesExceptions() {
+        try {
+            finish(() -> {
+                for (int i = 0; i < 10; i++) {
+                    final int id = i;
+                    async(() -> {
+                        if (id == 7) {
+                            throw new IllegalStateException("async " + id);
+                        }
+                    });
+                }
+            });
+            fail("Expected the async exception to be rethrown");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("async 7"));
+        }
+    }
+
+    /*
+     * Prueba que los future entregan su resultado y reportan sus excepciones.
+     */
+    public void testFutures() throws Exception {
+        final int[] results = new int[1];
+        finish(() -> {
+            final Future<Integer> a = future(() -> 20);
+            final Future<Integer> b = future(() -> 22);
+            try {
+                results[0] = a.get() + b.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(42, results[0]);
+
+        final Future<?>[] failing = new Future<?>[1];
+        try {
+            finish(() -> {
+                failing[0] = future(() -> {
+                    throw new Exception("future");
+                });
+            });
+            fail("Expected the future exception to be rethrown by finish");
+        } catch (RuntimeException e) {
+            assertEquals("future", e.getCause().getMessage());
+        }
+        try {
+            failing[0].get();
+            fail("Expected get() to fail");
+        } catch (ExecutionException e) {
+            // Esperado
+        }
+    }
+
+    /*
+     * Prueba que los ciclos por trozos visitan cada índice exactamente una vez.
+     */
+    public void testForallChunkedCoversRange() {
+        final AtomicIntegerArray visits = new AtomicIntegerArray(1001);
+        forallChunked(0, 1000, 7, visits::incrementAndGet);
+        forallChunked(0, 1000, visits::incrementAndGet);
+        for (int i = 0; i <= 1000; i++) {
+            assertEquals("Index " + i, 2, visits.get(i));
+        }
+
+        final int rows = 37;
+        final int cols = 53;
+        final AtomicIntegerArray cells = new AtomicIntegerArray(rows * cols);
+        forall2dChunked(0, rows - 1, 0, cols - 1, 100, (i, j) -> cells.incrementAndGet(i * cols + j));
+        forall2dChunked(0, rows - 1, 0, cols - 1, (i, j) -> cells.incrementAndGet(i * cols + j));
+        for (int k = 0; k < rows * cols; k++) {
+            assertEquals("Cell " + k, 2, cells.get(k));
+        }
+    }
+
+    /*
+     * Prueba que un finish lanzado dentro de un pool dedicado usa ese pool.
+     */
+    public void testDedicatedPool() {
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            final int[] workers = new int[1];
+            pool.submit(() -> finish(() -> async(() -> workers[0] = AsyncFinish.numWorkerThreads()))).join();
+            assertEquals(3, workers[0]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Microbenchmark: crea millones de async vacíos y compara su costo por tarea con el de crear y
+     * esperar el mismo número de ForkJoinTask vacías directamente en el pool, que es la base sobre la
+     * que está construido el runtime. PCDP no se compara aquí porque el proyecto ya no depende de él.
+     */
+    public void testMillionsOfEmptyAsyncs() {
+        // Calentamiento
+        emptyAsyncsNanos(NASYNCS / 10);
+        rawForkJoinNanos(NASYNCS / 10);
+
+        // Se toma la mejor de varias mediciones de cada lado para no comparar contra una pausa del GC
+        long asyncNanos = Long.MAX_VALUE;
+        long rawNanos = Long.MAX_VALUE;
+        for (int r = 0; r < BENCHMARK_RUNS; r++) {
+            asyncNanos = Math.min(asyncNanos, emptyAsyncsNanos(NASYNCS));
+            rawNanos = Math.min(rawNanos, rawForkJoinNanos(NASYNCS));
+        }
+        final double nanosPerAsync = (double) asyncNanos / NASYNCS;
+        final double nanosPerRawTask = (double) rawNanos / NASYNCS;
+        final double maxNanosPerAsync = 2000.0;
+        // Un async paga además el registro en su finish: una lectura del ThreadLocal y dos operaciones atómicas
+        final double maxOverhead = 4.0;
+        final String msg = String.format("Expected each empty async to cost at most %fns and at most %fx a raw "
+                + "ForkJoinTask (%fns), but it took %fns", maxNanosPerAsync, maxOverhead, nanosPerRawTask,
+                nanosPerAsync);
+        assertTrue(msg, nanosPerAsync <= maxNanosPerAsync);
+        assertTrue(msg, nanosPerAsync <= maxOverhead * nanosPerRawTask);
+    }
+
+    /**
+     * Mide el tiempo de un finish con n async vacíos abierto desde un hilo del pool común, igual que la
+     * referencia de rawForkJoinNanos.
+     */
+    private static long emptyAsyncsNanos(final int n) {
+        final long start = System.nanoTime();
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> finish(() -> {
+            for (int i = 0; i < n; i++) {
+                async(() -> { });
+            }
+        })));
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Mide el tiempo de crear n ForkJoinTask vacías desde un hilo del pool común y esperarlas todas.
+     */
+    private static long rawForkJoinNanos(final int n) {
+        final long start = System.nanoTime();
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> {
+            final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[n];
+            for (int i = 0; i < n; i++) {
+                tasks[i] = ForkJoinTask.adapt(() -> { }).fork();
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                tasks[i].join();
+            }
+        }));
+        return System.nanoTime() - start;
+    }
+
+    /*
+     * Prueba que los async y finish anidados heredan el backend de hilos virtuales.
+     */
+    public void testVirtualThreadsNestedFinish() {
+        final AtomicInteger counter = new AtomicInteger();
+        finish(ExecutionBackend.VIRTUAL_THREADS, () -> {
+            for (int i = 0; i < 100; i++) {
+                async(() -> finish(() -> spawnTree(4, counter)));
+            }
+        });
+        assertEquals(100 * ((1 << 5) - 1), counter.get());
+    }
+
+    /**
+     * Mide el tiempo de un finish con ntasks tareas que se bloquean durante sleepMillis.
+     */
+    private static long blockingTasksMillis(final ExecutionBackend backend, final int ntasks, final int sleepMillis) {
+        final AtomicInteger done = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+        finish(backend, () -> {
+            for (int i = 0; i < ntasks; i++) {
+                async(() -> {
+                    try {
+                        Thread.sleep(sleepMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.incrementAndGet();
+                });
+            }
+        });
+        final long elapsed = System.currentTimeMillis() - start;
+        assertEquals(ntasks, done.get());
+        return elapsed;
+    }
+
+    /*
+     * Benchmark: decenas de miles de tareas que se bloquean caben en hilos virtuales, mientras que ForkJoin
+     * sólo puede tener bloqueadas a la vez tantas tareas como hilos tenga el pool.
+     */
+    public void testVirtualThreadsManyBlockingTasks() {
+        final long virtualMillis = blockingTasksMillis(ExecutionBackend.VIRTUAL_THREADS, 20_000, 5);
+        final long forkJoinMillis = blockingTasksMillis(ExecutionBackend.FORK_JOIN, 1_000, 5);
+
+        // Tiempo esperado de ForkJoin para la misma cantidad de tareas que los hilos virtuales
+        final double forkJoinScaled = forkJoinMillis * 20.0;
+        final double speedup = forkJoinScaled / Math.max(1, virtualMillis);
+        final double expected = 2.0;
+        final String msg = String.format("Expected virtual threads to run blocking tasks at least %fx faster than "
+                + "ForkJoin, but speedup was %fx (%dms vs %dms for 1000 tasks)", expected, speedup, virtualMillis,
+                forkJoinMillis);
+        assertTrue(msg, speedup >= expected);
+    }
+}
@@ -0,0 +1,99 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class AutotunerTest extends TestCase {
+    private TemporaryProfile profile;
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        profile = TemporaryProfile.open();
+        dir = profile.getDirectory();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        profile.close();
+    }
+
+    /**
+     * Prueba que se elige el candidato más rápido y que el perfil guardado evita volver a medir.
+     */
+    public void testPicksFastestAndPersists() {
+        final Path file = dir.resolve("profile.properties");
+        final AtomicInteger runs = new AtomicInteger();
+        final int[] candidates = {1, 2, 3};
+
+        final int best = new Autotuner(file).tune("knob", candidates, candidate -> {
+            runs.incrementAndGet();
+            return candidate == 2 ? 10 : 1000;
+        });
+        assertEquals(2, best);
+        assertTrue(Files.isRegularFile(file));
+        assertNull(new Autotuner(file).getFailure());
+        assertTrue(runs.get() > 0);
+
+        runs.set(0);
+        final int reloaded = new Autotuner(file).tune("knob", candidates, candidate -> {
+            runs.incrementAndGet();
+            return 1;
+        });
+        assertEquals(2, reloaded);
+        assertEquals(0, runs.get());
+    }
+
+    /**
+     * Prueba que guardar un parámetro no borra los que otro autotuner guardó en el mismo perfil.
+     */
+    public void testKeepsOtherKnobs() {
+        final Path file = dir.resolve("profile.properties");
+        final Autotuner first = new Autotuner(file);
+        final Autotuner second = new Autotuner(file);
+        first.tune("a", new int[] {7}, candidate -> 1);
+        second.tune("b", new int[] {9}, candidate -> 1);
+
+        final Autotuner reloaded = new Autotuner(file);
+        assertEquals(7, reloaded.tune("a", new int[] {1}, candidate -> 1));
+        assertEquals(9, reloaded.tune("b", new int[] {1}, candidate -> 1));
+    }
+
+    /**
+     * Prueba que si el perfil no se puede reemplazar no queda el archivo temporal, el valor se conserva en memoria
+     * y el error queda disponible.
+     */
+    public void testFailedSaveRemovesTemporary() throws IOException {
+        // Un directorio con contenido en lugar del perfil hace fallar el movimiento final
+        final Path file = Files.createDirectory(dir.resolve("profile.properties"));
+        final Path blocker = Files.createFile(file.resolve("blocker"));
+        try {
+            final Autotuner autotuner = new Autotuner(file);
+            assertEquals(3, autotuner.tune("knob", new int[] {3}, candidate -> 1));
+            assertNotNull(autotuner.getFailure());
+            assertEquals(3, autotuner.tune("knob", new int[] {4}, candidate -> 1));
+            try (DirectoryStream<Path> temporaries = Files.newDirectoryStream(dir, "autotune*.tmp")) {
+                assertFalse(temporaries.iterator().hasNext());
+            }
+        } finally {
+            Files.delete(blocker);
+        }
+    }
+
+    /**
+     * Prueba que el perfil compartido vive en el directorio configurado y se nombra por máquina.
+     */
+    public void testSharedProfileLocation() {
+        final Path file = Autotuner.shared().getFile();
+        assertEquals(dir, file.getParent());
+        assertTrue(file.getFileName().toString().contains(Autotuner.machineKey()));
+        assertSame(Autotuner.shared(), Autotuner.shared());
+        assertTrue(Autotuner.machineKey().endsWith(Runtime.getRuntime().availableProcessors() + "cores"));
+        assertTrue(Autotuner.machineKey().matches("[A-Za-z0-9-]+"));
+    }
+}
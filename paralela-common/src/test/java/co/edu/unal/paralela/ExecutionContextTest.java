@@ -0,0 +1,39 @@
+package co.edu.unal.paralela;
+
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+public class ExecutionContextTest extends TestCase {
+
+    /**
+     * Prueba los pools compartidos por nombre: el pool se reduce al menor de los límites pedidos.
+     */
+    public void testSharedPoolWithCap() {
+        final ExecutionContext a = ExecutionContext.shared("ExecutionContextTest", 3);
+        final ExecutionContext b = ExecutionContext.shared("ExecutionContextTest", 2);
+        assertSame(a.getPool(), b.getPool());
+        // El límite menor se respeta para todos los que comparten el pool
+        assertEquals(2, a.getParallelism());
+        assertEquals(2, ExecutionContext.shared("ExecutionContextTest", 4).getParallelism());
+        try {
+            ExecutionContext.shared("ExecutionContextTest", 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+
+        a.close();
+        assertFalse(b.getPool().isShutdown());
+        final String thread = b.invoke(() -> Thread.currentThread().getName());
+        assertTrue(thread, thread.startsWith("ExecutionContextTest-worker-"));
+        // Dentro del pool, invoke ejecuta directamente
+        assertTrue(b.invoke(() -> Thread.currentThread() == b.invoke(Thread::currentThread)));
+
+        assertSame(ForkJoinPool.commonPool(), ExecutionContext.common().getPool());
+        final ForkJoinPool own = new ForkJoinPool(1);
+        ExecutionContext.of(own).close();
+        assertFalse(own.isShutdown());
+        own.shutdown();
+    }
+}
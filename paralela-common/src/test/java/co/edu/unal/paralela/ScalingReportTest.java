@@ -0,0 +1,104 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class ScalingReportTest extends TestCase {
+    /**
+     * Prueba la aceleración, eficiencia y fracción de Karp-Flatt en escalabilidad fuerte.
+     */
+    public void testStrongScalingMetrics() {
+        final ScalingReport report = new ScalingReport();
+        report.add("k", ScalingReport.STRONG, 100, 1, 1000);
+        report.add("k", ScalingReport.STRONG, 100, 4, 400);
+        report.add("k", ScalingReport.STRONG, 200, 4, 400);
+
+        final ScalingReport.Row one = report.getRows().get(0);
+        final ScalingReport.Row four = report.getRows().get(1);
+        assertEquals(1.0, report.speedup(one), 1E-9);
+        assertTrue(Double.isNaN(report.karpFlatt(one)));
+        assertEquals(2.5, report.speedup(four), 1E-9);
+        assertEquals(0.625, report.efficiency(four), 1E-9);
+        // (1/2.5 - 1/4) / (1 - 1/4) = 0.2
+        assertEquals(0.2, report.karpFlatt(four), 1E-9);
+        // Sin ejecución de un hilo del mismo tamaño no hay referencia
+        assertTrue(Double.isNaN(report.speedup(report.getRows().get(2))));
+    }
+
+    /**
+     * Prueba la aceleración escalada en escalabilidad débil.
+     */
+    public void testWeakScalingMetrics() {
+        final ScalingReport report = new ScalingReport();
+        report.add("k", ScalingReport.WEAK, 100, 1, 1000);
+        report.add("k", ScalingReport.WEAK, 800, 8, 1250);
+
+        final ScalingReport.Row eight = report.getRows().get(1);
+        assertEquals(6.4, report.speedup(eight), 1E-9);
+        assertEquals(0.8, report.efficiency(eight), 1E-9);
+    }
+
+    /**
+     * Prueba que la fracción de Karp-Flatt es 0 con aceleración lineal y 1 sin aceleración.
+     */
+    public void testKarpFlattBounds() {
+        assertEquals(0.0, ScalingReport.karpFlatt(8.0, 8), 1E-9);
+        assertEquals(1.0, ScalingReport.karpFlatt(1.0, 8), 1E-9);
+    }
+
+    /**
+     * Prueba el formato CSV y Markdown del reporte.
+     */
+    public void testCsvAndMarkdown() throws IOException {
+        final ScalingReport report = new ScalingReport();
+        report.add("k", ScalingReport.STRONG, 100, 1, 2_000_000);
+        report.add("k", ScalingReport.STRONG, 100, 2, 1_000_000);
+
+        final StringBuilder csv = new StringBuilder();
+        report.writeCsv(csv);
+        final String[] lines = csv.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("kernel,mode,size,threads,millis,speedup,efficiency,karp_flatt", lines[0]);
+        assertEquals("k,strong,100,2,1.000,2.0000,1.0000,0.0000", lines[2]);
+
+        final StringBuilder md = new StringBuilder();
+        report.writeMarkdown(md);
+        assertTrue(md.toString().contains("## k (strong scaling)"));
+        assertTrue(md.toString().contains("| 100 | 2 | 1.000 | 2.00 | 1.00 | 0.000 |"));
+    }
+
+    /**
+     * Prueba la secuencia de números de hilos recorridos.
+     */
+    public void testThreadCounts() {
+        assertEquals("[1]", Arrays.toString(ScalingReport.threadCounts(1)));
+        assertEquals("[1, 2, 4, 6]", Arrays.toString(ScalingReport.threadCounts(6)));
+        assertEquals("[1, 2, 4, 8]", Arrays.toString(ScalingReport.threadCounts(8)));
+    }
+
+    /**
+     * Prueba que el tamaño débil no se desborda, se limita a la memoria disponible y rechaza lo que no cabe.
+     */
+    public void testWeakSize() {
+        assertEquals(4 << 21, ScalingReport.weakSize(1 << 21, 4, Double.BYTES, Long.MAX_VALUE));
+        // 2^21 * 1024 no cabe en un int: se limita al mayor arreglo posible
+        final int huge = ScalingReport.weakSize(1 << 21, 1024, Double.BYTES, Long.MAX_VALUE);
+        assertTrue(huge > 1 << 30);
+        assertTrue(huge <= Integer.MAX_VALUE - 2);
+        assertEquals(1000, ScalingReport.weakSize(1 << 21, 4, Double.BYTES, 8000));
+        try {
+            ScalingReport.weakSize(1 << 21, 4, Double.BYTES, 24);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+        try {
+            ScalingReport.weakSize(1 << 21, 0, Double.BYTES);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Esperado
+        }
+    }
+}
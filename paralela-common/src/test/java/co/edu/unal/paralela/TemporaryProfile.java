@@ -0,0 +1,78 @@
+package co.edu.unal.paralela;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Directorio temporal de perfiles del Autotuner para las pruebas. Mientras
+ * está abierto, Autotuner.shared() usa este directorio en lugar de
+ * ~/.paralela; al cerrarlo se restaura la propiedad anterior y se borra el
+ * directorio con su contenido.
+ */
+public final class TemporaryProfile implements AutoCloseable {
+    /**
+     * Directorio temporal de perfiles.
+     */
+    private final Path directory;
+    /**
+     * Valor anterior de Autotuner.DIR_PROPERTY, o null si no tenía.
+     */
+    private final String previous;
+
+    /**
+     * Constructor.
+     *
+     * @param directory El directorio temporal de perfiles
+     */
+    private TemporaryProfile(final Path directory) {
+        this.directory = directory;
+        this.previous = System.getProperty(Autotuner.DIR_PROPERTY);
+        System.setProperty(Autotuner.DIR_PROPERTY, directory.toString());
+    }
+
+    /**
+     * Crea un directorio temporal y lo vuelve el directorio de perfiles.
+     *
+     * @return El perfil temporal, que debe cerrarse al terminar
+     * @throws IOException Si no se pudo crear el directorio
+     */
+    public static TemporaryProfile open() throws IOException {
+        return new TemporaryProfile(Files.createTempDirectory("autotune"));
+    }
+
+    /**
+     * Ejecuta body con un perfil temporal que se borra al final.
+     *
+     * @param body La prueba a ejecutar
+     * @throws IOException Si no se pudo crear o borrar el directorio
+     */
+    public static void run(final Runnable body) throws IOException {
+        try (TemporaryProfile profile = open()) {
+            body.run();
+        }
+    }
+
+    /**
+     * @return El directorio temporal de perfiles
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (previous == null) {
+            System.clearProperty(Autotuner.DIR_PROPERTY);
+        } else {
+            System.setProperty(Autotuner.DIR_PROPERTY, previous);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}